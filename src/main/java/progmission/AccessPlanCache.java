@@ -0,0 +1,427 @@
+package progmission;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.slf4j.Logger;
+
+import fr.cnes.sirius.patrius.bodies.GeodeticPoint;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.orbits.Orbit;
+import fr.cnes.sirius.patrius.orbits.pvcoordinates.PVCoordinates;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import reader.Site;
+import utils.ConstantsBE;
+import utils.IntervalSet;
+import utils.LogUtils;
+
+/**
+ * Persistent on-disk cache of the access windows of a mission.
+ *
+ * The windows are stored in one binary file per mission configuration. The
+ * file name contains a 64 bits key hashing everything the windows depend on
+ * apart from the sites : the initial orbit, the mission horizon, the
+ * constraint thresholds ({@link ConstantsBE#MAX_SUN_INCIDENCE_ANGLE},
+ * {@link ConstantsBE#MAX_SUN_PHASE_ANGLE}, {@link ConstantsBE#POINTING_CAPACITY})
+ * and the event detection settings. Inside the file, each record holds the
+ * name and the coordinates of a {@link Site} followed by the bounds of its
+ * access windows : a record is only reused for a site with the same name and
+ * the same coordinates.
+ *
+ * The file is read in one block into a heap buffer, so that a warm re-plan
+ * loads the windows at disk speed without any propagation. It is not memory
+ * mapped : a live mapping prevents the file from being replaced on Windows. It
+ * is written to a temporary file first and then moved in place, so that a crash
+ * never leaves a truncated cache behind.
+ *
+ * The key is computed at each load and store, so that a change of the
+ * {@link DetectionProfile} or of the search modes of the mission selects
+ * another file.
+ *
+ * File layout (big endian) :
+ *
+ * <pre>
+ * int    magic number
+ * int    format version
+ * long   configuration key
+ * int    number of records
+ * records :
+ *   int      length of the UTF-8 site name, then the name bytes
+ *   double   latitude, longitude, altitude of the site
+ *   int      number of bounds, then the bounds (s from the mission start date)
+ * </pre>
+ *
+ * @author agent
+ */
+public class AccessPlanCache {
+
+	/** Magic number of the cache files ("ACPC"). */
+	private static final int MAGIC = 0x41435043;
+
+	/**
+	 * Version of the file format and of the access computation. Must be
+	 * incremented each time the computed windows may change.
+	 */
+	private static final int FORMAT_VERSION = 3;
+
+	/** Size of the file header (bytes). */
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+
+	/** FNV-1a offset basis. */
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	/** FNV-1a prime. */
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	/**
+	 * Logger for this class.
+	 */
+	private final Logger logger = LogUtils.GLOBAL_LOGGER;
+
+	/** Directory of the cache files. */
+	private final Path directory;
+
+	/** Mission whose access windows are cached. */
+	private final SimpleMission mission;
+
+	/** Configuration of the mission apart from its detection settings. */
+	private final double[] configuration;
+
+	/** Mission start date, epoch of the cached windows. */
+	private final AbsoluteDate epoch;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param directory Directory of the cache files, created if needed
+	 * @param mission   Mission whose access windows are cached
+	 * @throws PatriusException if the initial orbit can't be read
+	 */
+	public AccessPlanCache(final Path directory, final SimpleMission mission) throws PatriusException {
+		this.directory = directory;
+		this.mission = mission;
+		this.configuration = computeConfiguration(mission);
+		this.epoch = mission.getStartDate();
+	}
+
+	/**
+	 * Computes the configuration key of a mission : a FNV-1a hash of the initial
+	 * orbit position, velocity and date, of the mission horizon, of the constraint
+	 * thresholds and of the current {@link DetectionProfile} and search modes of a
+	 * {@link CompleteMission}.
+	 *
+	 * @param mission Input mission
+	 * @return the configuration key
+	 * @throws PatriusException if the initial orbit can't be read
+	 */
+	public static long computeKey(final SimpleMission mission) throws PatriusException {
+		return computeKey(computeConfiguration(mission), computeSettings(mission));
+	}
+
+	/**
+	 * Computes the configuration of a mission apart from its detection settings :
+	 * initial orbit, mission horizon and constraint thresholds.
+	 *
+	 * @param mission Input mission
+	 * @return the configuration values
+	 * @throws PatriusException if the initial orbit can't be read
+	 */
+	private static double[] computeConfiguration(final SimpleMission mission) throws PatriusException {
+		final Orbit orbit = mission.getSatellite().getInitialOrbit();
+		final PVCoordinates pv = orbit.getPVCoordinates(orbit.getDate(), mission.getEme2000());
+		final Vector3D position = pv.getPosition();
+		final Vector3D velocity = pv.getVelocity();
+		return new double[] { FORMAT_VERSION, position.getX(), position.getY(), position.getZ(), velocity.getX(),
+				velocity.getY(), velocity.getZ(), orbit.getMu(), orbit.getDate().durationFrom(AbsoluteDate.J2000_EPOCH),
+				mission.getStartDate().durationFrom(AbsoluteDate.J2000_EPOCH),
+				mission.getEndDate().durationFrom(AbsoluteDate.J2000_EPOCH), ConstantsBE.MAX_SUN_INCIDENCE_ANGLE,
+				ConstantsBE.MAX_SUN_PHASE_ANGLE, ConstantsBE.POINTING_CAPACITY };
+	}
+
+	/**
+	 * Computes the configuration key from the mission configuration and the
+	 * detection settings.
+	 *
+	 * @param configuration Configuration of the mission apart from its detection
+	 *                      settings
+	 * @param settings      Detection settings of the mission
+	 * @return the configuration key
+	 */
+	private static long computeKey(final double[] configuration, final double[] settings) {
+		long hash = FNV_OFFSET_BASIS;
+		for (final double[] array : new double[][] { configuration, settings }) {
+			for (final double value : array) {
+				long bits = Double.doubleToLongBits(value);
+				for (int k = 0; k < 8; k++) {
+					hash ^= bits & 0xff;
+					hash *= FNV_PRIME;
+					bits >>>= 8;
+				}
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Computes the detection settings used to compute the access windows of a
+	 * mission : its detection profile and its search modes, the default ones for a
+	 * mission which is not a {@link CompleteMission}.
+	 *
+	 * @param mission Input mission
+	 * @return the detection settings values
+	 */
+	private static double[] computeSettings(final SimpleMission mission) {
+		DetectionProfile profile = DetectionProfile.PRECISE;
+		boolean repeatCycleReuse = false;
+		boolean passPrediction = false;
+		if (mission instanceof CompleteMission) {
+			final CompleteMission completeMission = (CompleteMission) mission;
+			profile = completeMission.getDetectionProfile();
+			repeatCycleReuse = completeMission.isRepeatCycleReuse();
+			passPrediction = completeMission.isPassPrediction();
+		}
+		return new double[] { profile.getMaxCheck(), profile.getThreshold(), profile.getVisibilityModel().ordinal(),
+				profile.isTabulatedSun() ? 1 : 0, profile.isExactGeometry() ? 1 : 0, repeatCycleReuse ? 1 : 0,
+				passPrediction ? 1 : 0 };
+	}
+
+	/**
+	 * Loads the cached access windows of the input sites.
+	 *
+	 * @param sites Input sites
+	 * @return the windows of the sites found in the cache, the other sites are
+	 *         missing from the map
+	 * @throws IOException if the cache file can't be read
+	 */
+	public Map<Site, IntervalSet> load(final List<Site> sites) throws IOException {
+		final Map<Site, IntervalSet> windows = new LinkedHashMap<>();
+		final long key = this.getKey();
+		final Path file = this.getFile(key);
+		final Map<String, CachedRecord> records = this.readRecords(file, key);
+		for (final Site site : sites) {
+			final CachedRecord record = records.get(site.getName());
+			if (record != null && record.matches(site.getPoint())) {
+				windows.put(site, IntervalSet.of(this.epoch, record.getBounds()));
+			}
+		}
+		logger.info("Access plan cache : " + windows.size() + " sites out of " + sites.size() + " loaded from "
+				+ file);
+		return windows;
+	}
+
+	/**
+	 * Stores the input access windows in the cache. The records of the other
+	 * sites already in the cache are kept.
+	 *
+	 * @param windows Access windows to store, with the mission start date as epoch
+	 * @throws IOException if the cache file can't be written
+	 */
+	public void store(final Map<Site, IntervalSet> windows) throws IOException {
+		final long key = this.getKey();
+		final Path file = this.getFile(key);
+		final Map<String, CachedRecord> records = this.readRecords(file, key);
+		for (final Entry<Site, IntervalSet> entry : windows.entrySet()) {
+			final GeodeticPoint point = entry.getKey().getPoint();
+			records.put(entry.getKey().getName(), new CachedRecord(point.getLatitude(), point.getLongitude(),
+					point.getAltitude(), entry.getValue().getBounds()));
+		}
+
+		// Serializing the records
+		final Map<String, byte[]> names = new HashMap<>();
+		int size = HEADER_SIZE;
+		for (final Entry<String, CachedRecord> entry : records.entrySet()) {
+			final byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+			names.put(entry.getKey(), name);
+			size += 4 + name.length + 3 * 8 + 4 + 8 * entry.getValue().getBounds().length;
+		}
+		final ByteBuffer buffer = ByteBuffer.allocate(size);
+		buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(key).putInt(records.size());
+		for (final Entry<String, CachedRecord> entry : records.entrySet()) {
+			final byte[] name = names.get(entry.getKey());
+			final CachedRecord record = entry.getValue();
+			buffer.putInt(name.length).put(name);
+			buffer.putDouble(record.getLatitude()).putDouble(record.getLongitude()).putDouble(record.getAltitude());
+			buffer.putInt(record.getBounds().length);
+			for (final double bound : record.getBounds()) {
+				buffer.putDouble(bound);
+			}
+		}
+		buffer.flip();
+
+		// Writing a temporary file, then moving it in place
+		Files.createDirectories(this.directory);
+		final Path temporary = Files.createTempFile(this.directory, "access-", ".tmp");
+		try {
+			try (final FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+			try {
+				Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+		logger.info("Access plan cache : " + records.size() + " sites stored in " + file);
+	}
+
+	/**
+	 * Reads all the records of a cache file into a heap buffer.
+	 *
+	 * @param file Cache file
+	 * @param key  Configuration key of the mission
+	 * @return the records by site name, empty if the file doesn't exist or belongs
+	 *         to another configuration or format version
+	 * @throws IOException if the file can't be read or is corrupted
+	 */
+	private Map<String, CachedRecord> readRecords(final Path file, final long key) throws IOException {
+		final Map<String, CachedRecord> records = new LinkedHashMap<>();
+		if (!Files.isRegularFile(file)) {
+			return records;
+		}
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Access plan cache too large " + file);
+			}
+			final ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					throw new IOException("Truncated access plan cache " + file);
+				}
+			}
+			buffer.flip();
+			if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION
+					|| buffer.getLong() != key) {
+				logger.warn("Access plan cache : ignoring the outdated file " + file);
+				return records;
+			}
+			final int nbRecords = buffer.getInt();
+			for (int r = 0; r < nbRecords; r++) {
+				final byte[] name = new byte[buffer.getInt()];
+				buffer.get(name);
+				final double latitude = buffer.getDouble();
+				final double longitude = buffer.getDouble();
+				final double altitude = buffer.getDouble();
+				final double[] bounds = new double[buffer.getInt()];
+				buffer.asDoubleBuffer().get(bounds);
+				buffer.position(buffer.position() + 8 * bounds.length);
+				records.put(new String(name, StandardCharsets.UTF_8),
+						new CachedRecord(latitude, longitude, altitude, bounds));
+			}
+		} catch (final RuntimeException e) {
+			// Buffer underflow or negative sizes : the file is truncated or corrupted
+			throw new IOException("Corrupted access plan cache " + file, e);
+		}
+		return records;
+	}
+
+	/**
+	 * @return the cache file of the current mission configuration
+	 */
+	public Path getFile() {
+		return this.getFile(this.getKey());
+	}
+
+	/**
+	 * @param key Configuration key of the mission
+	 * @return the cache file of the configuration
+	 */
+	private Path getFile(final long key) {
+		return this.directory.resolve(String.format(Locale.ROOT, "access-%016x.bin", key));
+	}
+
+	/**
+	 * @return the configuration key of the current mission configuration
+	 */
+	public long getKey() {
+		return computeKey(this.configuration, computeSettings(this.mission));
+	}
+
+	/**
+	 * Access windows of one site read from or written to the cache file.
+	 */
+	private static final class CachedRecord {
+
+		/** Latitude of the site (rad). */
+		private final double latitude;
+
+		/** Longitude of the site (rad). */
+		private final double longitude;
+
+		/** Altitude of the site (m). */
+		private final double altitude;
+
+		/** Bounds of the access windows (s from the mission start date). */
+		private final double[] bounds;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param latitude  Latitude of the site (rad)
+		 * @param longitude Longitude of the site (rad)
+		 * @param altitude  Altitude of the site (m)
+		 * @param bounds    Bounds of the access windows
+		 */
+		private CachedRecord(final double latitude, final double longitude, final double altitude,
+				final double[] bounds) {
+			this.latitude = latitude;
+			this.longitude = longitude;
+			this.altitude = altitude;
+			this.bounds = bounds;
+		}
+
+		/**
+		 * @param point Position of a site
+		 * @return true if the record was computed for this exact position
+		 */
+		private boolean matches(final GeodeticPoint point) {
+			return point.getLatitude() == this.latitude && point.getLongitude() == this.longitude
+					&& point.getAltitude() == this.altitude;
+		}
+
+		/**
+		 * @return the latitude
+		 */
+		private double getLatitude() {
+			return this.latitude;
+		}
+
+		/**
+		 * @return the longitude
+		 */
+		private double getLongitude() {
+			return this.longitude;
+		}
+
+		/**
+		 * @return the altitude
+		 */
+		private double getAltitude() {
+			return this.altitude;
+		}
+
+		/**
+		 * @return the bounds
+		 */
+		private double[] getBounds() {
+			return this.bounds;
+		}
+	}
+}
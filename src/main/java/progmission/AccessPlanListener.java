@@ -0,0 +1,32 @@
+package progmission;
+
+import reader.Site;
+import utils.IntervalSet;
+
+/**
+ * Listener receiving the access windows of each {@link Site} as soon as they
+ * are computed, see {@link CompleteMission#computeAccessPlan(AccessPlanListener)}.
+ *
+ * The downstream stages (observation selection, export, etc.) can start with
+ * the first sites while the others are still propagated, and nothing has to be
+ * kept in memory for the sites already handled.
+ *
+ * @author agent
+ */
+@FunctionalInterface
+public interface AccessPlanListener {
+
+	/**
+	 * Called once per site, as soon as its access windows are computed. When the
+	 * access plan is computed in parallel, this method is called concurrently by
+	 * the worker threads : the implementations must then be thread-safe.
+	 *
+	 * @param site          Target {@link Site}
+	 * @param accessWindows Access windows of the site, as offsets from the mission
+	 *                      start date. Use
+	 *                      {@link CompleteMission#createAccessTimeline(IntervalSet)}
+	 *                      to get them as a
+	 *                      {@link fr.cnes.sirius.patrius.events.postprocessing.Timeline}.
+	 */
+	void siteAccessComputed(Site site, IntervalSet accessWindows);
+}
@@ -1,8 +1,14 @@
 package progmission;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 import org.slf4j.Logger;
 
@@ -15,16 +21,16 @@ import fr.cnes.sirius.patrius.attitudes.AttitudeLeg;
 import fr.cnes.sirius.patrius.attitudes.AttitudeProvider;
 import fr.cnes.sirius.patrius.attitudes.ConstantSpinSlew;
 import fr.cnes.sirius.patrius.attitudes.StrictAttitudeLegsSequence;
+import fr.cnes.sirius.patrius.attitudes.TargetGroundPointing;
 import fr.cnes.sirius.patrius.events.CodedEvent;
 import fr.cnes.sirius.patrius.events.CodedEventsLogger;
 import fr.cnes.sirius.patrius.events.GenericCodingEventDetector;
 import fr.cnes.sirius.patrius.events.Phenomenon;
-import fr.cnes.sirius.patrius.events.postprocessing.AndCriterion;
-import fr.cnes.sirius.patrius.events.postprocessing.ElementTypeFilter;
 import fr.cnes.sirius.patrius.events.postprocessing.Timeline;
 import fr.cnes.sirius.patrius.events.sensor.SensorVisibilityDetector;
 import fr.cnes.sirius.patrius.frames.FramesFactory;
 import fr.cnes.sirius.patrius.frames.TopocentricFrame;
+import fr.cnes.sirius.patrius.math.util.FastMath;
 import fr.cnes.sirius.patrius.orbits.pvcoordinates.PVCoordinatesProvider;
 import fr.cnes.sirius.patrius.propagation.analytical.KeplerianPropagator;
 import fr.cnes.sirius.patrius.propagation.events.ConstantRadiusProvider;
@@ -34,10 +40,12 @@ import fr.cnes.sirius.patrius.propagation.events.LocalRadiusProvider;
 import fr.cnes.sirius.patrius.propagation.events.ThreeBodiesAngleDetector;
 import fr.cnes.sirius.patrius.time.AbsoluteDate;
 import fr.cnes.sirius.patrius.time.AbsoluteDateInterval;
-import fr.cnes.sirius.patrius.time.AbsoluteDateIntervalsList;
 import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import fr.cnes.sirius.patrius.utils.exception.PropagationException;
+import progmission.SiteGeometryRegistry.SiteGeometry;
 import reader.Site;
 import utils.ConstantsBE;
+import utils.IntervalSet;
 import utils.LogUtils;
 import utils.ProjectUtils;
 
@@ -55,13 +63,13 @@ public class CompleteMission extends SimpleMission {
 	
 	/**
 	 * Maximum checking interval (s) for the event detection during the orbit
-	 * propagation.
+	 * propagation, with the {@link DetectionProfile#PRECISE} profile.
 	 */
 	public static final double MAXCHECK_EVENTS = 120.0;
 
 	/**
 	 * Default convergence threshold (s) for the event computation during the orbit
-	 * propagation.
+	 * propagation, with the {@link DetectionProfile#PRECISE} profile.
 	 */
 	public static final double TRESHOLD_EVENTS = 1.e-4;
 
@@ -73,6 +81,79 @@ public class CompleteMission extends SimpleMission {
 	 */
 	private final Map<Site, Timeline> accessPlan;
 
+	/**
+	 * Access windows of each {@link Site}, as offsets from the mission start date.
+	 * They are the primitive form of the access plan.
+	 */
+	private final Map<Site, IntervalSet> accessWindows;
+
+	/**
+	 * Optional on-disk cache of the access windows, null if the access plan is
+	 * always recomputed.
+	 */
+	private AccessPlanCache accessPlanCache;
+
+	/**
+	 * End date of the access plan : the mission end date, unless the plan has
+	 * been extended by {@link #updateAccessPlan(List, AbsoluteDate)}.
+	 */
+	private AbsoluteDate accessPlanEnd;
+
+	/**
+	 * Number of threads used to compute the access plan. With 1, the access plan
+	 * is computed sequentially in the calling thread.
+	 */
+	private int accessParallelism = 1;
+
+	/**
+	 * Accuracy / speed profile of the access plan computation.
+	 */
+	private DetectionProfile detectionProfile = DetectionProfile.PRECISE;
+
+	/**
+	 * True if the greedy observation plan is checked against the
+	 * {@link LongestPathScheduler}, and replaced by its plan when better.
+	 */
+	private boolean exactScheduling = false;
+
+	/**
+	 * True if the visibility windows of the access plan are predicted from the
+	 * ground-track repeat cycle of the orbit, see
+	 * {@link MultiSiteAccessEngine#setRepeatCycleReuse(boolean)}.
+	 */
+	private boolean repeatCycleReuse = false;
+
+	/**
+	 * True if the access windows of the access plan are searched inside the passes
+	 * predicted from the orbital motion, see
+	 * {@link MultiSiteAccessEngine#setPassPrediction(boolean)}.
+	 */
+	private boolean passPrediction = false;
+
+	/**
+	 * Orientation of the Earth over the mission horizon, shared by all the
+	 * detectors of the mission.
+	 */
+	private final EarthOrientationCache earthOrientation;
+
+	/**
+	 * Interpolated Sun ephemeris over the mission horizon, shared by all the
+	 * detectors of the mission.
+	 */
+	private final SunEphemerisTable sunEphemeris;
+
+	/**
+	 * Allocation-free propagator of the mission orbit for the planning inner
+	 * loops.
+	 */
+	private final PlanningPropagator planningPropagator;
+
+	/**
+	 * Geometry of the sites (topocentric frame, position and zenith), shared by
+	 * all the detectors of the mission.
+	 */
+	private final SiteGeometryRegistry siteGeometries;
+
 	/**
 	 * This {@link Map} will be used to enumerate each site's programmed
 	 * observation. We suggest to use an {@link AttitudeLawLeg} to encapsulate the
@@ -110,8 +191,16 @@ public class CompleteMission extends SimpleMission {
 
 		// Initialize the mission plans with empty maps. You will fill those HashMaps in
 		// the "compute****Plan()" methods.
-		this.accessPlan = new HashMap<>();
-		this.observationPlan = new HashMap<>();
+		this.accessPlan = new ConcurrentHashMap<>();
+		this.accessWindows = new ConcurrentHashMap<>();
+		this.accessPlanEnd = this.getEndDate();
+		this.earthOrientation = new EarthOrientationCache(this.getEarth().getBodyFrame(), this.getEme2000(),
+				new AbsoluteDateInterval(this.getStartDate(), this.getEndDate()), EarthOrientationCache.DEFAULT_STEP);
+		this.sunEphemeris = new SunEphemerisTable(this.getSun(), this.getEme2000(),
+				new AbsoluteDateInterval(this.getStartDate(), this.getEndDate()), SunEphemerisTable.DEFAULT_STEP);
+		this.planningPropagator = PlanningPropagator.of(this.getSatellite().getInitialOrbit(), this.getEme2000());
+		this.siteGeometries = new SiteGeometryRegistry(this.getEarth(), this.earthOrientation);
+		this.observationPlan = new LinkedHashMap<>();
 		this.cinematicPlan = new StrictAttitudeLegsSequence<>();
 
 	}
@@ -152,18 +241,227 @@ public class CompleteMission extends SimpleMission {
 		 * 
 		 * Please complete the code below.
 		 */
-	    //final Site targetSite = this.getSiteList().get(0);
-	    
-	    for (Site targetSite : this.getSiteList())
-	    {
-		    final Timeline siteAccessTimeline = createSiteAccessTimeline(targetSite);
+		// All the sites are computed with a single propagation over the mission
+		// horizon : each site only adds its own detectors and loggers to the pass.
+		// In parallel mode, each worker thread performs such a pass on its own
+		// chunk of sites.
+		//
+		// When a cache is set, the sites already computed with the same mission
+		// configuration are loaded from the disk and only the others are propagated.
+		this.accessPlanEnd = this.getEndDate();
+		this.accessWindows.putAll(this.computeMissionAccessWindows(this.getSiteList()));
+		for (final Site targetSite : this.getSiteList()) {
+			final Timeline siteAccessTimeline = createAccessTimeline(this.accessWindows.get(targetSite));
 			this.accessPlan.put(targetSite, siteAccessTimeline);
 			ProjectUtils.printTimeline(siteAccessTimeline);
-	    }
-		
+		}
+
+		return this.accessPlan;
+	}
+
+	/**
+	 * Streaming variant of {@link #computeAccessPlan()} : the access windows of
+	 * each {@link Site} are pushed to the input listener as soon as they are
+	 * computed, instead of being returned all together at the end.
+	 * 
+	 * Nothing is kept by the mission : {@link #getAccessPlan()} is not filled and
+	 * the {@link AccessPlanCache} is not used, so that the memory stays flat
+	 * whatever the number of sites. The sites are propagated by chunks of
+	 * {@link MultiSiteAccessEngine#STREAMING_CHUNK_SIZE}. With an access
+	 * parallelism greater than 1, the listener is called concurrently by the
+	 * worker threads and must be thread-safe.
+	 * 
+	 * @param listener Listener receiving the access windows of each {@link Site}
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          computations
+	 */
+	public void computeAccessPlan(final AccessPlanListener listener) throws PatriusException {
+		final MultiSiteAccessEngine engine = this.createAccessEngine(new AbsoluteDateInterval(this.getStartDate(),
+				this.getEndDate()));
+		if (this.accessParallelism > 1) {
+			final ForkJoinPool pool = new ForkJoinPool(this.accessParallelism);
+			try {
+				engine.streamAccessWindows(this.getSiteList(), pool, listener);
+			} finally {
+				pool.shutdown();
+			}
+		} else {
+			engine.streamAccessWindows(this.getSiteList(), listener);
+		}
+	}
+
+	/**
+	 * Updates the access plan incrementally after the site list or the horizon of
+	 * the plan has grown, the current access plan being kept.
+	 * 
+	 * The added sites are computed over the whole new horizon. For the sites
+	 * already in the plan, the orbit is only propagated over the horizon
+	 * extension, and the new windows are stitched to the existing ones : a window
+	 * open at the former end of the plan is merged with the window starting at
+	 * the same date. The cost of the update is thus proportional to the number of
+	 * added sites and to the length of the extension.
+	 * 
+	 * The added sites are appended to the mission site list. The
+	 * {@link AccessPlanCache} is only used while the plan covers the mission
+	 * horizon, since its key doesn't account for an extended horizon.
+	 * 
+	 * @param addedSites Sites to add to the plan, the sites already in the plan
+	 *                   are ignored
+	 * @param newEndDate New end date of the plan, equal to
+	 *                   {@link #getAccessPlanEnd()} to only add sites
+	 * @return the updated access plan
+	 * @throws PatriusException         If a {@link PatriusException} occurs during
+	 *                                  the computations
+	 * @throws IllegalArgumentException if the new end date is before the current
+	 *                                  end of the plan
+	 */
+	public Map<Site, Timeline> updateAccessPlan(final List<Site> addedSites, final AbsoluteDate newEndDate)
+			throws PatriusException {
+		if (newEndDate.compareTo(this.accessPlanEnd) < 0) {
+			throw new IllegalArgumentException("The access plan can't end before " + this.accessPlanEnd);
+		}
+		final Map<Site, IntervalSet> updatedWindows = new HashMap<>();
+
+		// Sites already planned : propagation over the horizon extension only
+		if (newEndDate.compareTo(this.accessPlanEnd) > 0 && !this.accessWindows.isEmpty()) {
+			final List<Site> plannedSites = new ArrayList<>(this.accessWindows.keySet());
+			final Map<Site, IntervalSet> extension = this.computeAccessWindows(plannedSites,
+					new AbsoluteDateInterval(this.accessPlanEnd, newEndDate));
+			for (final Site plannedSite : plannedSites) {
+				updatedWindows.put(plannedSite, this.accessWindows.get(plannedSite).or(extension.get(plannedSite)));
+			}
+		}
+
+		// Added sites : computation over the whole new horizon
+		final List<Site> newSites = new ArrayList<>();
+		for (final Site addedSite : addedSites) {
+			if (!this.accessWindows.containsKey(addedSite) && !newSites.contains(addedSite)) {
+				newSites.add(addedSite);
+			}
+		}
+		if (newEndDate.equals(this.getEndDate())) {
+			updatedWindows.putAll(this.computeMissionAccessWindows(newSites));
+		} else {
+			updatedWindows.putAll(
+					this.computeAccessWindows(newSites, new AbsoluteDateInterval(this.getStartDate(), newEndDate)));
+		}
+		logger.info("Access plan update : " + newSites.size() + " added sites, horizon extended by "
+				+ newEndDate.durationFrom(this.accessPlanEnd) + " s");
+
+		this.accessPlanEnd = newEndDate;
+		this.accessWindows.putAll(updatedWindows);
+		for (final Site newSite : newSites) {
+			if (!this.getSiteList().contains(newSite)) {
+				this.getSiteList().add(newSite);
+			}
+		}
+		for (final Entry<Site, IntervalSet> entry : updatedWindows.entrySet()) {
+			this.accessPlan.put(entry.getKey(), createAccessTimeline(entry.getValue()));
+		}
 		return this.accessPlan;
 	}
 
+	/**
+	 * Computes the access windows of the input sites over the mission horizon,
+	 * using the {@link AccessPlanCache} if one is set : the cached sites are
+	 * loaded and only the others are computed, then stored.
+	 * 
+	 * @param sites Input target sites
+	 * @return the access windows of each {@link Site}
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          computations
+	 */
+	private Map<Site, IntervalSet> computeMissionAccessWindows(final List<Site> sites) throws PatriusException {
+		final Map<Site, IntervalSet> windows = this.loadCachedAccessWindows(sites);
+		final List<Site> sitesToCompute = new ArrayList<>();
+		for (final Site targetSite : sites) {
+			if (!windows.containsKey(targetSite)) {
+				sitesToCompute.add(targetSite);
+			}
+		}
+		final Map<Site, IntervalSet> computedWindows = this.computeAccessWindows(sitesToCompute,
+				new AbsoluteDateInterval(this.getStartDate(), this.getEndDate()));
+		this.storeCachedAccessWindows(computedWindows);
+		windows.putAll(computedWindows);
+		return windows;
+	}
+
+	/**
+	 * Computes the access windows of the input sites over the input horizon, in
+	 * parallel if the access parallelism is greater than 1.
+	 * 
+	 * @param sites   Input target sites
+	 * @param horizon Propagation horizon, inside or after the mission horizon
+	 * @return the access windows of each {@link Site}, as offsets from the
+	 *         mission start date
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          computations
+	 */
+	private Map<Site, IntervalSet> computeAccessWindows(final List<Site> sites, final AbsoluteDateInterval horizon)
+			throws PatriusException {
+		if (sites.isEmpty()) {
+			return new HashMap<>();
+		}
+		final MultiSiteAccessEngine engine = this.createAccessEngine(horizon);
+		if (this.accessParallelism > 1) {
+			final ForkJoinPool pool = new ForkJoinPool(this.accessParallelism);
+			try {
+				return engine.computeAccessWindows(sites, pool);
+			} finally {
+				pool.shutdown();
+			}
+		}
+		return engine.computeAccessWindows(sites);
+	}
+
+	/**
+	 * Creates the access engine of the mission over a horizon, with the detection
+	 * profile and the search modes of the mission.
+	 * 
+	 * @param horizon Horizon of the access windows
+	 * @return the access engine
+	 */
+	private MultiSiteAccessEngine createAccessEngine(final AbsoluteDateInterval horizon) {
+		final MultiSiteAccessEngine engine = new MultiSiteAccessEngine(this, horizon);
+		engine.setRepeatCycleReuse(this.repeatCycleReuse);
+		engine.setPassPrediction(this.passPrediction);
+		return engine;
+	}
+
+	/**
+	 * Loads the cached access windows of the input sites. A cache that can't be
+	 * read is ignored : the windows are then recomputed.
+	 * 
+	 * @param sites Input target sites
+	 * @return the windows found in the cache, empty if no cache is set
+	 */
+	private Map<Site, IntervalSet> loadCachedAccessWindows(final List<Site> sites) {
+		if (this.accessPlanCache != null) {
+			try {
+				return this.accessPlanCache.load(sites);
+			} catch (final IOException e) {
+				logger.warn("Access plan cache can't be read, the access plan is fully recomputed", e);
+			}
+		}
+		return new HashMap<>();
+	}
+
+	/**
+	 * Stores the input access windows in the cache, if any. A cache that can't be
+	 * written is ignored.
+	 * 
+	 * @param windows Access windows to store
+	 */
+	private void storeCachedAccessWindows(final Map<Site, IntervalSet> windows) {
+		if (this.accessPlanCache != null && !windows.isEmpty()) {
+			try {
+				this.accessPlanCache.store(windows);
+			} catch (final IOException e) {
+				logger.warn("Access plan cache can't be written", e);
+			}
+		}
+	}
+
 	/**
 	 * [COMPLETE THIS METHOD TO ACHIEVE YOUR PROJECT]
 	 * 
@@ -223,107 +521,31 @@ public class CompleteMission extends SimpleMission {
 		 * 
 		 */
 		/*
-		 * We provide a basic and incomplete code that you can use to compute the
-		 * observation plan.
-		 * 
-		 * Here the only thing we do is printing all the access opportunities using the
-		 * Timeline objects. We get a list of AbsoluteDateInterval from the Timelines,
-		 * which is the basis of the creation of AttitudeLawLeg objects since you need
-		 * an AbsoluteDateInterval or two AbsoluteDates to do it.
+		 * The observations are scheduled by decreasing site score in a plan sorted by
+		 * date : each candidate is only checked against its two neighbours, see
+		 * ObservationScheduler.
 		 */
-		for (final Entry<Site, Timeline> entry : this.accessPlan.entrySet()) {
-			// Scrolling through the entries of the accessPlan
-			// Getting the target Site
-			final Site target = entry.getKey();
-			logger.info("Current target site : " + target.getName());
-			// Getting its access Timeline
-			final Timeline timeline = entry.getValue();
-			// Getting the access intervals
-			final AbsoluteDateIntervalsList accessIntervals = new AbsoluteDateIntervalsList();
-			for (final Phenomenon accessWindow : timeline.getPhenomenaList()) {
-				// The Phenomena are sorted chronologically so the accessIntervals List is too
-			    final AbsoluteDateInterval accessInterval = accessWindow.getTimespan();
-				accessIntervals.add(accessInterval);
-				logger.info(accessInterval.toString());
-
-				// Use this method to create your observation leg, see more help inside the
-				// method.
-				final AttitudeLaw observationLaw = createObservationLaw(target);
-
-				/**
-				 * Now that you have your observation law, you can compute at any AbsoluteDate
-				 * the Attitude of your Satellite pointing the target (using the getAttitude()
-				 * method). You can use those Attitudes to compute the duration of a slew from
-				 * one Attitude to another, for example the duration of the slew from the
-				 * Attitude at the end of an observation to the Atittude at the start of the
-				 * next one. That's how you will be able to choose a valid AbsoluteDateInterval
-				 * during which the observation will actually be performed, lasting
-				 * ConstantsBE.INTEGRATION_TIME seconds. When you have your observation
-				 * interval, you can build an AttitudeLawLeg using the observationLaw and this
-				 * interval and finally add this leg to the observation plan.
-				 */
-				/*
-				 * Here is an example of how to compute an Attitude. You need a
-				 * PVCoordinatePropagator (which we provide we the method
-				 * SimpleMission#createDefaultPropagator()), an AbsoluteDate and a Frame (which
-				 * we provide with this.getEME2000()).
-				 */
-				// Getting the begining/end of the accessIntervall as AbsoluteDate objects
-				final AbsoluteDate date1 = accessInterval.getLowerData();
-				final AbsoluteDate date2 = accessInterval.getUpperData();
-				final Attitude attitude1 = observationLaw.getAttitude(this.createDefaultPropagator(), date1,
-						this.getEme2000());
-				final Attitude attitude2 = observationLaw.getAttitude(this.createDefaultPropagator(), date2,
-						this.getEme2000());
-				/*
-				 * Now here is an example of code showing how to compute the duration of the
-				 * slew from attitude1 to attitude2 Here we compare two Attitudes coming from
-				 * the same AttitudeLaw which is a TargetGroundPointing so the
-				 */
-				final double slew12Duration = this.getSatellite().computeSlewDuration(attitude1, attitude2);
-				logger.info("Maximum possible duration of the slew : " + slew12Duration);
-				final double actualDuration = date2.durationFrom(date1);
-				logger.info("Actual duration of the slew : " + actualDuration);
-				/**
-				 * Of course, here the actual duration is less than the maximum possible
-				 * duration because the TargetGroundPointing mode is a very slow one and the
-				 * Satellite is very agile. But sometimes when trying to perform a slew from one
-				 * target to another, you will find that the Satellite doesn't have enough time,
-				 * then you need to either translate one of the observations or just don't
-				 * perform one of the observation.
-				 */
-
-				/**
-				 * Let's say after comparing several observation slews, you find a valid couple
-				 * of dates defining your observation window : {obsStart;obsEnd}, with
-				 * obsEnd.durationFrom(obsStart) == ConstantsBE.INTEGRATION_TIME.
-				 * 
-				 * Then you can use those dates to create your AtittudeLawLeg that you will
-				 * insert inside the observaiton pla, for this target. Reminder : only one
-				 * observation in the observation plan per target !
-				 * 
-				 * WARNING : what we do here doesn't work, we didn't check that there wasn't
-				 * another target observed while inserting this target observation, it's up to
-				 * you to build your observation plan using the methods and tips we provide. You
-				 * can also only insert one observation for each pass of the satellite and it's
-				 * fine.
-				 */
-				// Here we use the middle of the accessInterval to define our dates of
-				// observation
-				final AbsoluteDate middleDate = accessInterval.getMiddleDate();
-				final AbsoluteDate obsStart = middleDate.shiftedBy(-ConstantsBE.INTEGRATION_TIME / 2);
-				final AbsoluteDate obsEnd = middleDate.shiftedBy(ConstantsBE.INTEGRATION_TIME / 2);
-				final AbsoluteDateInterval obsInterval = new AbsoluteDateInterval(obsStart, obsEnd);
-				// Then, we create our AttitudeLawLeg, that we name using the name of the target
-				final String legName = "OBS_" + target.getName();
-				final AttitudeLawLeg obsLeg = new AttitudeLawLeg(observationLaw, obsInterval, legName);
-
-				// Finally, we add our leg to the plan
-				this.observationPlan.put(target, obsLeg);
-
+		final ObservationScheduler scheduler = new ObservationScheduler(this);
+		this.observationPlan.clear();
+		this.observationPlan.putAll(scheduler.schedule(this.accessWindows));
+		if (this.exactScheduling) {
+			/*
+			 * The longest path in the conflict graph of the candidates gives an upper
+			 * bound of the plan weight, and usually a better plan.
+			 */
+			final ConflictGraph graph = new ConflictGraphBuilder(this, new SlewDurationCache(getSatellite()))
+					.build(this.accessWindows);
+			final LongestPathScheduler exactScheduler = new LongestPathScheduler(this, graph);
+			final Map<Site, AttitudeLawLeg> exactPlan = exactScheduler.schedule();
+			final double greedyWeight = exactScheduler.computeWeight(scheduler.getPlan().values());
+			logger.info("Greedy plan weight : " + greedyWeight + ", longest path plan weight : "
+					+ exactScheduler.getLowerBound() + ", upper bound : " + exactScheduler.getUpperBound());
+			if (exactScheduler.getLowerBound() > greedyWeight) {
+				this.observationPlan.clear();
+				this.observationPlan.putAll(exactPlan);
 			}
-
 		}
+		logger.info("Observation plan : " + this.observationPlan.size() + " observations");
 
 		return this.observationPlan;
 	}
@@ -377,65 +599,60 @@ public class CompleteMission extends SimpleMission {
 		 */
 
 		/*
-		 * Example of code using our observation plan, let's say we only have one obs
-		 * pointing Paris.
-		 * 
-		 * Then we are going to create a very basic cinematic plan : nadir law => slew
-		 * => obsParis => slew => nadir law
-		 * 
-		 * To do that, we need to compute the slew duration from the end of nadir law to
-		 * the begining of Paris obs and then from the end of Paris obs to the begining
-		 * of nadir law. For that, we use the Satellite#computeSlewDurationMethod() as
-		 * before. We know we have to the time to perform the slew thanks to the
-		 * cinematic checks we already did during the observation plan computation.
+		 * The cinematic plan chains all the scheduled observations by date, as in Tip
+		 * 2 : the satellite goes back to the nadir law between two observations when
+		 * there is room for both slews, and slews directly from one observation to the
+		 * next otherwise. The schedulers check the direct slews, and keep the
+		 * observations at least the maximum slew duration away from the mission start
+		 * date and from the end of the access plan. An empty observation plan gives a
+		 * single nadir leg.
 		 */
-		// Getting the Paris Site
-	    final Site paris = this.getSiteList().get(0);
-		// Getting the associated observation leg defined previously
-	    final AttitudeLeg parisObsLeg = observationPlan.get(paris);
-
-		// Getting our nadir law
-	    final AttitudeLaw nadirLaw = this.getSatellite().getDefaultAttitudeLaw();
-
-		// Getting all the dates we need to compute our slews
-	    final AbsoluteDate start = this.getStartDate();
-	    final AbsoluteDate end = this.getEndDate();
-	    final AbsoluteDate obsStart = parisObsLeg.getDate();
-	    final AbsoluteDate obsEnd = parisObsLeg.getEnd();
-
-		// For the slew nadir => paris and paris => nadir, we will use the maximum
-		// duration because we have a lot of time here. In practice, you will use either
-		// the maximum possible time if you have nothing else planned around or the
-		// available time coming from the duration until next observation programmed.
-	    final AbsoluteDate endNadirLaw1 = obsStart.shiftedBy(-getSatellite().getMaxSlewDuration());
-	    final AbsoluteDate startNadirLaw2 = obsEnd.shiftedBy(+getSatellite().getMaxSlewDuration());
-
-		// The propagator will be used to compute Attitudes
-	    final KeplerianPropagator propagator = this.createDefaultPropagator();
-
-		// Computing the Attitudes used to compute the slews
-	    final Attitude startObsAttitude = parisObsLeg.getAttitude(propagator, obsStart, getEme2000());
-	    final Attitude endObsAttitude = parisObsLeg.getAttitude(propagator, obsEnd, getEme2000());
-	    final Attitude endNadir1Attitude = nadirLaw.getAttitude(propagator, endNadirLaw1, getEme2000());
-	    final Attitude startNadir2Attitude = nadirLaw.getAttitude(propagator, startNadirLaw2, getEme2000());
-
-		// Finally computing the slews
-		// From nadir law 1 to Paris observation
-	    final ConstantSpinSlew slew1 = new ConstantSpinSlew(endNadir1Attitude, startObsAttitude, "Slew_Nadir_to_Paris");
-		// From Paris observation to nadir law 2
-	    final ConstantSpinSlew slew2 = new ConstantSpinSlew(endObsAttitude, startNadir2Attitude, "Slew_Paris_to_Nadir");
-
-		// We create our two Nadir legs using the dates we computed
-	    final AttitudeLawLeg nadir1 = new AttitudeLawLeg(nadirLaw, start, endNadirLaw1, "Nadir_Law_1");
-	    final AttitudeLawLeg nadir2 = new AttitudeLawLeg(nadirLaw, startNadirLaw2, end, "Nadir_Law_2");
-
-		// Finally we can add all those legs to our cinametic plan, in the chronological
-		// order
-		this.cinematicPlan.add(nadir1);
-		this.cinematicPlan.add(slew1);
-		this.cinematicPlan.add(parisObsLeg);
-		this.cinematicPlan.add(slew2);
-		this.cinematicPlan.add(nadir2);
+		this.cinematicPlan.clear();
+		final List<Entry<Site, AttitudeLawLeg>> observations = new ArrayList<>(this.observationPlan.entrySet());
+		observations.sort((a, b) -> a.getValue().getDate().compareTo(b.getValue().getDate()));
+
+		// Getting our nadir law, and the propagator used to compute the attitudes
+		final AttitudeLaw nadirLaw = this.getSatellite().getDefaultAttitudeLaw();
+		final KeplerianPropagator propagator = this.createDefaultPropagator();
+		final double maxSlewDuration = this.getSatellite().getMaxSlewDuration();
+
+		AbsoluteDate nadirStart = this.getStartDate();
+		int nbNadirLegs = 0;
+		String previousName = null;
+		AttitudeLawLeg previousLeg = null;
+		for (final Entry<Site, AttitudeLawLeg> observation : observations) {
+			final String name = observation.getKey().getName();
+			final AttitudeLawLeg obsLeg = observation.getValue();
+			final AbsoluteDate obsStart = obsLeg.getDate();
+			final Attitude startObsAttitude = obsLeg.getAttitude(propagator, obsStart, getEme2000());
+			if (previousLeg != null && obsStart.durationFrom(previousLeg.getEnd()) <= 2 * maxSlewDuration) {
+				// Direct slew from the previous observation
+				final Attitude endPreviousAttitude = previousLeg.getAttitude(propagator, previousLeg.getEnd(),
+						getEme2000());
+				this.cinematicPlan.add(new ConstantSpinSlew(endPreviousAttitude, startObsAttitude,
+						"Slew_" + previousName + "_to_" + name));
+			} else {
+				if (previousLeg != null) {
+					// Back to the nadir law after the previous observation
+					nadirStart = this.addSlewToNadir(previousLeg, previousName, propagator);
+				}
+				final AbsoluteDate nadirEnd = obsStart.shiftedBy(-maxSlewDuration);
+				nbNadirLegs++;
+				this.cinematicPlan.add(new AttitudeLawLeg(nadirLaw, nadirStart, nadirEnd, "Nadir_Law_" + nbNadirLegs));
+				this.cinematicPlan.add(new ConstantSpinSlew(nadirLaw.getAttitude(propagator, nadirEnd, getEme2000()),
+						startObsAttitude, "Slew_Nadir_to_" + name));
+			}
+			this.cinematicPlan.add(obsLeg);
+			previousName = name;
+			previousLeg = obsLeg;
+		}
+
+		// Nadir law until the end of the plan
+		if (previousLeg != null) {
+			nadirStart = this.addSlewToNadir(previousLeg, previousName, propagator);
+		}
+		nbNadirLegs++;
+		this.cinematicPlan.add(new AttitudeLawLeg(nadirLaw, nadirStart, this.accessPlanEnd, "Nadir_Law_" + nbNadirLegs));
 
 		/**
 		 * Now your job is finished, the two following methods will finish the job for
@@ -450,115 +667,113 @@ public class CompleteMission extends SimpleMission {
 	}
 
 	/**
-	 * This method should compute the input {@link Site}'s access {@link Timeline}.
-	 * That is to say the {@link Timeline} which contains all the {@link Phenomenon}
-	 * respecting the access conditions for this site : good visibility + corrrect
-	 * illumination of the {@link Site}.
-	 * 
-	 * For that, we suggest you create as many {@link Timeline} as you need and
-	 * combine them with logical gates to filter only the access windows phenomenon.
+	 * Adds to the cinematic plan the slew from the end of an observation leg to
+	 * the nadir law, lasting {@link Satellite#getMaxSlewDuration()}.
 	 * 
-	 * @param targetSite Input target {@link Site}
-	 * @return The {@link Timeline} of all the access {@link Phenomenon} for the
-	 *         input {@link Site}.
-	 * @throws PatriusException If a {@link PatriusException} occurs.
+	 * @param obsLeg     Observation leg
+	 * @param name       Name of the observed site
+	 * @param propagator Propagator used to compute the attitudes
+	 * @return the start date of the following nadir law leg
+	 * @throws PatriusException if the attitudes can't be computed
 	 */
-	private Timeline createSiteAccessTimeline(Site targetSite) throws PatriusException {
-		
-		 // We create and add the THREE detectors to the propagator of the satellite
-		CodedEventsLogger eventVisibilityLogger   = addVisibilityDetector(targetSite, this.getSatellite().getPropagator());
-		CodedEventsLogger eventIlluminationLogger = addIlluminationDetector(targetSite, this.getSatellite().getPropagator());
-		CodedEventsLogger eventDazzlingLogger     = addDazzlingDetector(targetSite, this.getSatellite().getPropagator());
-		
-		// Perform propagation
-		this.getSatellite().getPropagator().propagate(this.getStartDate(), this.getEndDate());
-		
-		// Flush the logged events of the 3 detectors in a timeline
-		final Timeline timelineV = createSiteConstraintTimeline(targetSite, eventVisibilityLogger);
-		final Timeline timelineI = createSiteConstraintTimeline(targetSite, eventIlluminationLogger);
-	    final Timeline timelineD = createSiteConstraintTimeline(targetSite, eventDazzlingLogger);
-
-		/**
-		 * Step 2 :
-		 * 
-		 * Combine the timelines with logical gates and retrieve only the access
-		 * conditions through a refined Timeline object.
-		 * 
-		 * For that, you can use the classes in the events.postprocessing module : for
-		 * example, the AndCriterion or the NotCriterion.
-		 * 
-		 * Finally, you can filter only the Phenomenon matching a certain condition
-		 * using the ElementTypeFilter
-		 */
-		/*
+	private AbsoluteDate addSlewToNadir(final AttitudeLawLeg obsLeg, final String name,
+			final KeplerianPropagator propagator) throws PatriusException {
+		final AbsoluteDate nadirStart = obsLeg.getEnd().shiftedBy(this.getSatellite().getMaxSlewDuration());
+		this.cinematicPlan.add(new ConstantSpinSlew(obsLeg.getAttitude(propagator, obsLeg.getEnd(), getEme2000()),
+				this.getSatellite().getDefaultAttitudeLaw().getAttitude(propagator, nadirStart, getEme2000()),
+				"Slew_" + name + "_to_Nadir"));
+		return nadirStart;
+	}
 
-		 * Code your logical operations on Timeline objects and filter only the access
-		 * Phenomenon (gathering all constraints you need to define an access condition)
-		 * below.
-		 */
-	    
-		// Combining all Timelines
-		// Creating a global Timeline containing all phenomena, this Timeline will be
-		// filtered and processed to that only the access Phenomennon remain, this is
-		// our siteAccessTimeline
-	    
-		final Timeline siteAccessTimeline = new Timeline(
-				new AbsoluteDateInterval(this.getStartDate(), this.getEndDate()));
-		// Adding the phenomena of all the considered timelines
-		// Visibility
-		for (final Phenomenon phenom : timelineV.getPhenomenaList()) {
-			siteAccessTimeline.addPhenomenon(phenom);
-		}
-		// Sun Incidence
-		for (final Phenomenon phenom : timelineI.getPhenomenaList()) {
-			siteAccessTimeline.addPhenomenon(phenom);
-		}
-		// Dazzling
-		for (final Phenomenon phenom : timelineD.getPhenomenaList()) {
-			siteAccessTimeline.addPhenomenon(phenom);
+	/**
+	 * This method computes the input {@link Site}'s access windows. That is to say
+	 * the windows respecting the access conditions for this site : visible (VIS),
+	 * illuminated (ILL) and not dazzling the sensor (DAZ). See
+	 * {@link #createAccessTimeline(IntervalSet)} to get them as a {@link Timeline}.
+	 * 
+	 * The input visibility logger must have been filled by a propagation over the
+	 * input horizon, see {@link MultiSiteAccessEngine}.
+	 * 
+	 * The constraints are chained lazily : the visibility windows are read from
+	 * the logger, then intersected with the illumination windows, which don't
+	 * depend on the satellite (see {@link IlluminationWindowCalculator}), or
+	 * scanned inside them with the illumination detector for the profiles with
+	 * the exact geometry, and the dazzling constraint is only evaluated inside
+	 * the remaining windows. A site
+	 * with no visibility costs no evaluation of the other constraints at all,
+	 * instead of a detection over the whole mission horizon for each of them.
+	 * 
+	 * @param targetSite            Input target {@link Site}
+	 * @param eventVisibilityLogger Logger of the visibility events
+	 * @param satellite             {@link Satellite} whose orbit is used by the
+	 *                              dazzling constraint
+	 * @param illumination          Calculator of the illumination windows over
+	 *                              the input horizon
+	 * @param scanner               Scanner evaluating the dazzling constraint
+	 * @param horizon               Horizon of the propagation which filled the
+	 *                              logger
+	 * @param profile               Detection profile of the illumination and
+	 *                              dazzling constraints
+	 * @return the access windows, as offsets from the mission start date
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          evaluation of the constraints.
+	 */
+	IntervalSet createSiteAccessIntervals(final Site targetSite, final CodedEventsLogger eventVisibilityLogger,
+			final Satellite satellite, final IlluminationWindowCalculator illumination,
+			final ConstraintWindowScanner scanner, final AbsoluteDateInterval horizon, final DetectionProfile profile)
+			throws PatriusException {
+
+		// Visibility windows, from the events logged during the propagation
+		final IntervalSet visibility = createSiteConstraintIntervals(targetSite, eventVisibilityLogger, horizon);
+
+		// Illumination inside the visibility windows, independent of the satellite :
+		// detected with the exact geometry, or from the shared illumination windows
+		final IntervalSet visibleAndIlluminated;
+		if (visibility.isEmpty()) {
+			visibleAndIlluminated = visibility;
+		} else if (profile.isExactGeometry()) {
+			visibleAndIlluminated = scanner.scan(createConstraintIlluminationDetector(targetSite, profile), true,
+					visibility);
+		} else {
+			visibleAndIlluminated = visibility.and(illumination.computeWindows(targetSite));
 		}
 
-		// Define AND criteria to get phenomena where VIS, ILL and DAZ all occurs.
-		// Those intersections are grouped under the label ACCESS
-		final AndCriterion andCriterionVisIll = new AndCriterion("VIS", "ILL", "VISxILL", "When the site is visible and illuminated");
-		final AndCriterion andCriterionAccess = new AndCriterion("VISxILL", "DAZ", "ACCESS", "When the site is accessible");
-		// Applying our criterion adds all the new phenomena VILxILL and ACCESS inside the global timeline
-		andCriterionVisIll.applyTo(siteAccessTimeline);
-		andCriterionAccess.applyTo(siteAccessTimeline);
-
-		// Then create an ElementTypeFilter that will filter all phenomenon not
-		// respecting the input condition you gave it
-		// Create a filter to keep only ACCESS phenomena in the timeline
-		final ElementTypeFilter obsConditionFilter = new ElementTypeFilter("ACCESS", false);
-		// Apply the filter to the timeline
-		obsConditionFilter.applyTo(siteAccessTimeline);
+		// Dazzling inside the remaining windows : the sensor is not dazzled when the
+		// g function is negative
+		final IntervalSet access = visibleAndIlluminated.isEmpty() ? visibleAndIlluminated
+				: scanner.scan(createConstraintDazzlingDetector(targetSite, satellite, profile), false,
+						visibleAndIlluminated);
 
-		/*
-		 * Now make sure your globalTimeline represents the access Timeline for the
-		 * input target Site and it's done ! You can print the Timeline using the
-		 * utility module of the BE as below
-		 */
-
-	    
-		// Log the final access timeline associated to the current target
-		logger.info("\n" + targetSite.getName());
-//		ProjectUtils.printTimeline(siteAccessTimeline);
+		logger.debug(targetSite.getName() + " : " + access.size() + " access windows");
+		return access;
+	}
 
-		return siteAccessTimeline;
+	/**
+	 * Builds the access {@link Timeline} of a set of access windows : one ACCESS
+	 * {@link Phenomenon} per window. The {@link Timeline} is valid from the
+	 * mission start date to the end of the access plan.
+	 * 
+	 * @param access Access windows, as offsets from the mission start date
+	 * @return the access {@link Timeline}
+	 */
+	public Timeline createAccessTimeline(final IntervalSet access) {
+		return access.toTimeline("ACCESS", "When the site is accessible",
+				new AbsoluteDateInterval(this.getStartDate(), this.accessPlanEnd));
 	}
 
 	/**
-	 * This method should compute a {@link Timeline} object which encapsulates all
-	 * the {@link Phenomenon} corresponding to the visibility of the input target {@link Site}.
+	 * This method computes the {@link IntervalSet} of the phenomenon monitored by
+	 * the input logger (visibility, illumination or dazzling) for the input target
+	 * {@link Site}.
 	 * 
-	 * @param targetSite Input target {@link Site}
-	 * @param eventVisibilityLogger The event logger to flush into the timeline
-	 * @return The {@link Timeline} containing all the {@link Phenomenon} relative
-	 *         to the visibility.
-	 * @throws PatriusException If a {@link PatriusException} occurs when creating
-	 *                          the {@link Timeline}.
+	 * @param targetSite  Input target {@link Site}
+	 * @param eventLogger The event logger to flush into the interval set
+	 * @param horizon     Horizon of the propagation which filled the logger
+	 * @return The {@link IntervalSet} of the phenomenon, as offsets from the
+	 *         mission start date.
 	 */
-	private Timeline createSiteConstraintTimeline(Site targetSite, CodedEventsLogger eventLogger ) throws PatriusException {
+	private IntervalSet createSiteConstraintIntervals(Site targetSite, CodedEventsLogger eventLogger,
+			AbsoluteDateInterval horizon) {
 		/**
 		 * Here is a quick idea of how to compute a Timeline. A Timeline contains a
 		 * PhenomenaList, which is list of Phenomenon objects. Each Phenomenon object
@@ -613,7 +828,7 @@ public class CompleteMission extends SimpleMission {
 		 */
 		
 		// Moved to addXDetector() methods for optimization...
-//	    final EventDetector constraintVisibilityDetector = createConstraintVisibilityDetector(targetSite);
+//	    final EventDetector constraintVisibilityDetector = createConstraintVisibilityDetector(targetSite, session.getSatellite());
 
 		/**
 		 * Step 2 :
@@ -658,7 +873,7 @@ public class CompleteMission extends SimpleMission {
 //		final EventDetector eventVisibilityDetector = eventVisibilityLogger.monitorDetector(codingEventVisibilityDetector);
 //		// Then you add your logger to the propagator, it will monitor the event coded
 //		// by the codingEventDetector
-//		this.getSatellite().getPropagator().addEventDetector(eventVisibilityDetector);
+//		session.addEventDetector(eventVisibilityDetector);
 
 		/**
 		 * Step 4 :
@@ -694,13 +909,10 @@ public class CompleteMission extends SimpleMission {
 		 * See code below and create your own code to have your X Timeline describing
 		 * all X phenomenon you want to detect.
 		 */
-		// Creating a Timeline to process the events : we are going to define one
-		// visibility Phenomenon by couple of events "start -> end" (linked to the
-		// increase and decrease of the g function of the visibility detector)
-		final Timeline timeline = new Timeline(eventLogger,
-				new AbsoluteDateInterval(this.getStartDate(), this.getEndDate()), null);
-		
-		return timeline;
+		// Reading the events : we define one interval by couple of events "start ->
+		// end" (linked to the increase and decrease of the g function of the
+		// detector), without building the intermediate Timeline
+		return IntervalSet.fromLogger(eventLogger, this.getStartDate(), horizon);
 	}
 
 	/**
@@ -708,10 +920,16 @@ public class CompleteMission extends SimpleMission {
 	 * for monitoring the events defined by the visibility constraint.
 	 * 
 	 * @param targetSite Input target {@link Site}
+	 * @param satellite  {@link Satellite} whose sensor is used. Its
+	 *                   {@link Assembly} is updated during the detection, so it
+	 *                   must not be shared between threads.
+	 * @param profile    Detection profile setting the visibility model and the
+	 *                   detection settings
 	 * 
 	 * @return An {@link EventDetector} answering the visibility constraint
 	 */
-	private EventDetector createConstraintVisibilityDetector(Site targetSite) {
+	private EventDetector createConstraintVisibilityDetector(Site targetSite, Satellite satellite,
+			DetectionProfile profile) {
 		/**
 		 * Here you build an EventDetector object that corresponds to the constraint X:
 		 * visibility of the target from the satellite, target is in day time, whatever.
@@ -763,14 +981,23 @@ public class CompleteMission extends SimpleMission {
 		 * Create your detector and return it.
 		 */
 
+		final SiteGeometry geometry = this.siteGeometries.getGeometry(targetSite);
+		if (profile.getVisibilityModel() == VisibilityModel.CONE) {
+			// Same constraint computed directly from the positions in the Earth frame
+			return new ConeVisibilityDetector(this.earthOrientation, geometry.getPosition(),
+					geometry.getZenith(), FastMath.toRadians(ConstantsBE.POINTING_CAPACITY), profile.getMaxCheck(),
+					profile.getThreshold(), Action.CONTINUE, Action.CONTINUE);
+		}
+
 		//Define the coordinates of the target
-		//The target is a location at the surface of a celestial body, so we can use a topocentric frame to track it
-		PVCoordinatesProvider targetCoord = new TopocentricFrame(getEarth(), targetSite.getPoint(),targetSite.getName());
+		//The target is a location at the surface of a celestial body, fixed in the Earth frame : we use its shared
+		//frame or coordinates provider to track it
+		PVCoordinatesProvider targetCoord = this.getSiteCoordinates(targetSite, profile);
 		// No radius is provided for the site, so we consider it as a point. We then set it to zero by default
 		LocalRadiusProvider siteLocalRadius = new ConstantRadiusProvider(0);
 		
 		// Retrieve and configure the sensor model of the satellite
-		SensorModel sensorModel = new SensorModel(this.getSatellite().getAssembly(), Satellite.SENSOR_NAME);		
+		SensorModel sensorModel = new SensorModel(satellite.getAssembly(), Satellite.SENSOR_NAME);		
 		// The sensor model is blinded by the Earth
 		sensorModel.addMaskingCelestialBody(getEarth());
 		// Set the sensor to point toward the target
@@ -778,7 +1005,7 @@ public class CompleteMission extends SimpleMission {
 		
 		// Create the sensor visibility detector, with the sensor the satellite
 		SensorVisibilityDetector detector = new SensorVisibilityDetector(
-				sensorModel, MAXCHECK_EVENTS, TRESHOLD_EVENTS, Action.CONTINUE, Action.CONTINUE);
+				sensorModel, profile.getMaxCheck(), profile.getThreshold(), Action.CONTINUE, Action.CONTINUE);
 		
 		return detector;
 	}
@@ -788,21 +1015,24 @@ public class CompleteMission extends SimpleMission {
 	 * for monitoring the events defined by the illumination constraint.
 	 * 
 	 * @param targetSite Input target {@link Site}
+	 * @param profile    Detection profile setting the Sun ephemeris and the
+	 *                   detection settings
 	 * 
 	 * @return An {@link EventDetector} answering the illumination constraint
 	 */
-	private EventDetector createConstraintIlluminationDetector(Site targetSite) {
+	EventDetector createConstraintIlluminationDetector(Site targetSite, DetectionProfile profile) {
 
 		// Define the coordinates of the target
-		// The target is a location at the surface of a celestial body, so we can use a topocentric frame to track it
-		PVCoordinatesProvider targetCoord = new TopocentricFrame(getEarth(), targetSite.getPoint(),targetSite.getName());	
+		// The target is a location at the surface of a celestial body, fixed in the Earth frame : we use its shared
+		// frame or coordinates provider to track it
+		PVCoordinatesProvider targetCoord = this.getSiteCoordinates(targetSite, profile);
 		
 		// Create a three body detector that triggers when vectors (targetCoord, earth) and (targetCoord, sun) forms an angle of
 		// exactly 180 - MAX_SUN_INCIDENCE_ANGLE deg
 		ThreeBodiesAngleDetector detector = new ThreeBodiesAngleDetector(
-				getEarth(), targetCoord, getSun(),
+				getEarth(), targetCoord, this.getSunCoordinates(profile),
 				Math.toRadians(180 - ConstantsBE.MAX_SUN_INCIDENCE_ANGLE),
-				MAXCHECK_EVENTS, TRESHOLD_EVENTS, Action.CONTINUE);	
+				profile.getMaxCheck(), profile.getThreshold(), Action.CONTINUE);	
 		
 		return detector;
 	}
@@ -812,89 +1042,56 @@ public class CompleteMission extends SimpleMission {
 	 * for monitoring the events defined by the dazzling constraint.
 	 * 
 	 * @param targetSite Input target {@link Site}
+	 * @param satellite  {@link Satellite} whose orbit is used
+	 * @param profile    Detection profile setting the Sun ephemeris and the
+	 *                   detection settings
 	 * 
 	 * @return An {@link EventDetector} answering the dazzling constraint
 	 */
-	private EventDetector createConstraintDazzlingDetector(Site targetSite) {
+	EventDetector createConstraintDazzlingDetector(Site targetSite, Satellite satellite, DetectionProfile profile) {
 		
 
 		// Define the coordinates of the target
-		// The target is a location at the surface of a celestial body, so we can use a topocentric frame to track it
-		PVCoordinatesProvider targetCoord = new TopocentricFrame(getEarth(), targetSite.getPoint(),targetSite.getName());
+		// The target is a location at the surface of a celestial body, fixed in the Earth frame : we use its shared
+		// frame or coordinates provider to track it
+		PVCoordinatesProvider targetCoord = this.getSiteCoordinates(targetSite, profile);
 		
 		// Define the coordinates of the satellite
-		PVCoordinatesProvider satelliteCoord = this.getSatellite().getInitialOrbit();		
+		PVCoordinatesProvider satelliteCoord = satellite.getInitialOrbit();		
 		
 		// Create a three body detector that triggers when vectors (targetCoord, satelliteCoord) and (targetCoord, sun) forms an angle of
 		// MAX_SUN_PHASE_ANGLE deg
 		ThreeBodiesAngleDetector detector = new ThreeBodiesAngleDetector(
-				satelliteCoord, targetCoord, getSun(),
+				satelliteCoord, targetCoord, this.getSunCoordinates(profile),
 				Math.toRadians(ConstantsBE.MAX_SUN_PHASE_ANGLE),
-				MAXCHECK_EVENTS, TRESHOLD_EVENTS, Action.CONTINUE);
+				profile.getMaxCheck(), profile.getThreshold(), Action.CONTINUE);
 		
 		return detector;
 	}
 	
 	/**
-	 * Create the visibility event detector and logger. Add them to the given propagator.
+	 * Create the visibility event detector and logger. Add them to the propagator of the
+	 * given session.
 	 *
-	 * @param targetSite  The target to monitor
-	 * @param propagator The propagator to which the event detector shall be added
+	 * @param targetSite The target to monitor
+	 * @param session    The session to which the event detector shall be added
+	 * @param profile    Detection profile of the visibility detector
 	 * @return the CodedEventsLogger created in the process.
 	 */
-	private CodedEventsLogger addVisibilityDetector(Site targetSite, KeplerianPropagator propagator) {
+	CodedEventsLogger addVisibilityDetector(Site targetSite, PropagationSession session, DetectionProfile profile) {
 
-	    final EventDetector constraintVisibilityDetector = createConstraintVisibilityDetector(targetSite);
+	    final EventDetector constraintVisibilityDetector = createConstraintVisibilityDetector(targetSite, session.getSatellite(),
+	    		profile);
 
 	  	final GenericCodingEventDetector codingEventVisibilityDetector = new GenericCodingEventDetector(constraintVisibilityDetector,
 	  				"Event starting the visibility phenomenon", "Event ending the visibility phenomenon", true, "VIS");
 	  	final CodedEventsLogger eventVisibilityLogger = new CodedEventsLogger();
 	  	final EventDetector eventVisibilityDetector = eventVisibilityLogger.monitorDetector(codingEventVisibilityDetector);
-	  	this.getSatellite().getPropagator().addEventDetector(eventVisibilityDetector);
+	  	session.addEventDetector(eventVisibilityDetector);
 	  	
 	  	return eventVisibilityLogger;
 	}
 
-	/**
-	 * Create the illumination event detector and logger. Add them to the given propagator.
-	 *
-	 * @param targetSite   The target to monitor
-	 * @param propagator The propagator to which the event detector shall be added
-	 * @return the CodedEventsLogger created in the process.
-	 */
-	private CodedEventsLogger addIlluminationDetector(Site targetSite, KeplerianPropagator propagator) {
-
-	    final EventDetector constraintIlluminationDetector = createConstraintIlluminationDetector(targetSite);
-
-		final GenericCodingEventDetector codingEventIlluminationDetector = new GenericCodingEventDetector(constraintIlluminationDetector,
-				"Event starting the illumination phenomenon", "Event ending the illumination phenomenon", true, "ILL");
-		final CodedEventsLogger eventIlluminationLogger = new CodedEventsLogger();
-		final EventDetector eventIlluminationDetector = eventIlluminationLogger.monitorDetector(codingEventIlluminationDetector);
-		this.getSatellite().getPropagator().addEventDetector(eventIlluminationDetector);
-		
-		return eventIlluminationLogger;
-	}
-
-	/**
-	 * Create the dazzling event detector and logger. Add them to the given propagator.
-	 *
-	 * @param targetSite   The target to monitor
-	 * @param propagator The propagator to which the event detector shall be added
-	 * @return the CodedEventsLogger created in the process.
-	 */
-	private CodedEventsLogger addDazzlingDetector(Site targetSite, KeplerianPropagator propagator) {
-
-		final EventDetector constraintDazzlingDetector = createConstraintDazzlingDetector(targetSite);
-    	
-		final GenericCodingEventDetector codingEventDazzlingDetector = new GenericCodingEventDetector(constraintDazzlingDetector,
-				"Event starting the dazzling phenomenon", "Event ending the dazzling phenomenon", false, "DAZ"); // false to invert the timeline
-		final CodedEventsLogger eventDazzlingLogger = new CodedEventsLogger();
-		final EventDetector eventDazzlingDetector = eventDazzlingLogger.monitorDetector(codingEventDazzlingDetector);
-		this.getSatellite().getPropagator().addEventDetector(eventDazzlingDetector);
-		
-		return eventDazzlingLogger;
-	}
-
 	
 	/**
 	 * [COMPLETE THIS METHOD TO ACHIEVE YOUR PROJECT]
@@ -913,7 +1110,7 @@ public class CompleteMission extends SimpleMission {
 	 * @param target Input target {@link Site}
 	 * @return An {@link AttitudeLawLeg} adapted to the observation.
 	 */
-	private AttitudeLaw createObservationLaw(Site target) {
+	AttitudeLaw createObservationLaw(Site target) {
 		/**
 		 * To perform an observation, the satellite needs to point the target for a
 		 * fixed duration.
@@ -928,14 +1125,214 @@ public class CompleteMission extends SimpleMission {
 		 * you use the following constructor : TargetGroundPointing(BodyShape, Vector3D,
 		 * Vector3D, Vector3D) specifying the line of sight axis and the normal axis.
 		 */
-		/*
-		 * Complete the code below to create your observation law and return it
-		 */
-		return null;
+		return new TargetGroundPointing(this.getEarth(), this.siteGeometries.getGeometry(target).getPosition(),
+				this.getSatellite().getSensorAxis(), this.getSatellite().getFrameXAxis());
 	}
 
 	
 	
+	/**
+	 * Opens a new {@link PropagationSession} for the mission {@link Satellite}.
+	 * 
+	 * Contrary to {@link Satellite#getPropagator()}, the propagator of the session
+	 * is not shared : the detectors added to it are detached when the session is
+	 * closed.
+	 * 
+	 * @return a new {@link PropagationSession}
+	 * @throws PropagationException if the initial attitude cannot be computed
+	 */
+	public PropagationSession openPropagationSession() throws PropagationException {
+		return new PropagationSession(this.getSatellite());
+	}
+
+	/**
+	 * Sets the number of threads used to compute the access plan.
+	 * 
+	 * @param accessParallelism Number of threads, 1 to compute the access plan
+	 *                          sequentially. The number of available processors
+	 *                          is a good choice for large site lists.
+	 * @throws IllegalArgumentException if the number of threads is not strictly
+	 *                                  positive
+	 */
+	public void setAccessParallelism(final int accessParallelism) {
+		if (accessParallelism < 1) {
+			throw new IllegalArgumentException("The access parallelism must be strictly positive");
+		}
+		this.accessParallelism = accessParallelism;
+	}
+
+	/**
+	 * @return the accessParallelism
+	 */
+	public int getAccessParallelism() {
+		return this.accessParallelism;
+	}
+
+	/**
+	 * Sets the accuracy / speed profile of the access plan computation : detection
+	 * settings, visibility model and Sun ephemeris. The default
+	 * {@link DetectionProfile#PRECISE} profile is the reference, see
+	 * {@link DetectionProfileReport} for the errors of the other profiles.
+	 * 
+	 * @param detectionProfile Detection profile
+	 */
+	public void setDetectionProfile(final DetectionProfile detectionProfile) {
+		this.detectionProfile = detectionProfile;
+	}
+
+	/**
+	 * @return the detection profile of the access plan computation
+	 */
+	public DetectionProfile getDetectionProfile() {
+		return this.detectionProfile;
+	}
+
+	/**
+	 * Enables the exact scheduling : the greedy observation plan is compared with
+	 * the plan and the upper bound of the {@link LongestPathScheduler}, and
+	 * replaced by its plan when better.
+	 * 
+	 * @param exactScheduling True to enable the exact scheduling
+	 */
+	public void setExactScheduling(final boolean exactScheduling) {
+		this.exactScheduling = exactScheduling;
+	}
+
+	/**
+	 * @return true if the exact scheduling is enabled
+	 */
+	public boolean isExactScheduling() {
+		return this.exactScheduling;
+	}
+
+	/**
+	 * Enables the prediction of the visibility windows of the access plan from the
+	 * ground-track repeat cycle of the orbit. It only applies to the
+	 * {@link VisibilityModel#CONE} visibility model of the detection profile, see
+	 * {@link MultiSiteAccessEngine#setRepeatCycleReuse(boolean)}. Disabled by
+	 * default.
+	 * 
+	 * @param repeatCycleReuse True to predict the windows from the repeat cycle
+	 */
+	public void setRepeatCycleReuse(final boolean repeatCycleReuse) {
+		this.repeatCycleReuse = repeatCycleReuse;
+	}
+
+	/**
+	 * @return true if the visibility windows are predicted from the repeat cycle
+	 */
+	public boolean isRepeatCycleReuse() {
+		return this.repeatCycleReuse;
+	}
+
+	/**
+	 * Enables the search of the access windows of the access plan inside the
+	 * passes predicted from the orbital motion. It only applies to the
+	 * {@link VisibilityModel#CONE} visibility model of the detection profile and
+	 * takes precedence over the repeat cycle reuse, see
+	 * {@link MultiSiteAccessEngine#setPassPrediction(boolean)}. Disabled by
+	 * default.
+	 * 
+	 * @param passPrediction True to search the windows inside the predicted
+	 *                       passes
+	 */
+	public void setPassPrediction(final boolean passPrediction) {
+		this.passPrediction = passPrediction;
+	}
+
+	/**
+	 * @return true if the access windows are searched inside the predicted passes
+	 */
+	public boolean isPassPrediction() {
+		return this.passPrediction;
+	}
+
+	/**
+	 * Gets the Sun ephemeris of a detection profile : the
+	 * {@link SunEphemerisTable} or the full Sun ephemeris.
+	 * 
+	 * @param profile Detection profile
+	 * @return the Sun coordinates provider
+	 */
+	PVCoordinatesProvider getSunCoordinates(final DetectionProfile profile) {
+		return profile.isTabulatedSun() ? this.sunEphemeris : this.getSun();
+	}
+
+	/**
+	 * Gets the coordinates of a site for a detection profile : its
+	 * {@link TopocentricFrame}, through the frames tree, for the exact geometry,
+	 * or its {@link SiteCoordinatesProvider} otherwise.
+	 * 
+	 * @param site    Input site
+	 * @param profile Detection profile
+	 * @return the site coordinates provider
+	 */
+	PVCoordinatesProvider getSiteCoordinates(final Site site, final DetectionProfile profile) {
+		final SiteGeometry geometry = this.siteGeometries.getGeometry(site);
+		return profile.isExactGeometry() ? geometry.getFrame() : geometry.getProvider();
+	}
+
+	/**
+	 * @return the cache of the Earth orientation over the mission horizon
+	 */
+	public EarthOrientationCache getEarthOrientation() {
+		return this.earthOrientation;
+	}
+
+	/**
+	 * @return the interpolated Sun ephemeris over the mission horizon
+	 */
+	public SunEphemerisTable getSunEphemeris() {
+		return this.sunEphemeris;
+	}
+
+	/**
+	 * @return the allocation-free propagator of the mission orbit
+	 */
+	public PlanningPropagator getPlanningPropagator() {
+		return this.planningPropagator;
+	}
+
+	/**
+	 * @return the registry of the site geometries shared by the detectors
+	 */
+	public SiteGeometryRegistry getSiteGeometries() {
+		return this.siteGeometries;
+	}
+
+	/**
+	 * Sets the on-disk cache of the access windows used by
+	 * {@link #computeAccessPlan()}.
+	 * 
+	 * @param accessPlanCache Cache of the access windows, null to always recompute
+	 *                        the access plan
+	 */
+	public void setAccessPlanCache(final AccessPlanCache accessPlanCache) {
+		this.accessPlanCache = accessPlanCache;
+	}
+
+	/**
+	 * @return the accessPlanCache, null if none is set
+	 */
+	public AccessPlanCache getAccessPlanCache() {
+		return this.accessPlanCache;
+	}
+
+	/**
+	 * @return the end date of the access plan
+	 */
+	public AbsoluteDate getAccessPlanEnd() {
+		return this.accessPlanEnd;
+	}
+
+	/**
+	 * @return the access windows of each site, as offsets from the mission start
+	 *         date
+	 */
+	public Map<Site, IntervalSet> getAccessWindows() {
+		return this.accessWindows;
+	}
+
 	/**
 	 * @return the accessPlan
 	 */
@@ -0,0 +1,129 @@
+package progmission;
+
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.propagation.SpacecraftState;
+import fr.cnes.sirius.patrius.propagation.events.AbstractDetector;
+import fr.cnes.sirius.patrius.propagation.events.EventDetector;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * Lightweight visibility detector of a ground site by a nadir pointing agile
+ * satellite.
+ *
+ * The site is visible when the off-nadir angle of the line of sight towards
+ * the site is lower than the pointing capacity of the satellite, and when the
+ * satellite is above the local horizon of the site (Earth line of sight). The g
+ * function is the minimum of the two margins :
+ *
+ * <pre>
+ * g = min(pointingCapacity - offNadirAngle, elevation)
+ * </pre>
+ *
+ * so that it is positive exactly when the site is visible. The angles are
+ * computed directly from the satellite position expressed in the Earth body
+ * frame, where the site position and zenith are constant, with an
+ * {@link EarthOrientationCache} : this is the
+ * constraint modelled by the {@link fr.cnes.sirius.patrius.assembly.models.SensorModel}
+ * of the {@link Satellite} (circular field of view of half-angle the pointing
+ * capacity around the nadir, masked by the Earth) without the assembly frames
+ * and the generic masking computations.
+ *
+ * @author agent
+ */
+public class ConeVisibilityDetector extends AbstractDetector {
+
+	/** Serial UID. */
+	private static final long serialVersionUID = 1L;
+
+	/** Cache of the Earth orientation. */
+	private final EarthOrientationCache earthOrientation;
+
+	/** Position of the site in the Earth body frame. */
+	private final Vector3D sitePosition;
+
+	/** Zenith of the site in the Earth body frame. */
+	private final Vector3D siteZenith;
+
+	/** Pointing capacity : maximum off-nadir angle (rad). */
+	private final double pointingCapacity;
+
+	/** Action performed at the start of the visibility. */
+	private final Action actionAtEntry;
+
+	/** Action performed at the end of the visibility. */
+	private final Action actionAtExit;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param earthOrientation Cache of the Earth orientation
+	 * @param sitePosition     Position of the site in the Earth body frame
+	 * @param siteZenith       Zenith of the site in the Earth body frame
+	 * @param pointingCapacity Maximum off-nadir angle (rad)
+	 * @param maxCheck         Maximum checking interval (s)
+	 * @param threshold        Convergence threshold (s)
+	 * @param actionAtEntry    Action performed at the start of the visibility
+	 * @param actionAtExit     Action performed at the end of the visibility
+	 */
+	public ConeVisibilityDetector(final EarthOrientationCache earthOrientation, final Vector3D sitePosition,
+			final Vector3D siteZenith, final double pointingCapacity, final double maxCheck, final double threshold,
+			final Action actionAtEntry, final Action actionAtExit) {
+		super(maxCheck, threshold);
+		this.earthOrientation = earthOrientation;
+		this.sitePosition = sitePosition;
+		this.siteZenith = siteZenith;
+		this.pointingCapacity = pointingCapacity;
+		this.actionAtEntry = actionAtEntry;
+		this.actionAtExit = actionAtExit;
+	}
+
+	@Override
+	public double g(final SpacecraftState s) throws PatriusException {
+		final Vector3D satellite = this.earthOrientation.toBody(s.getDate(),
+				s.getPVCoordinates(this.earthOrientation.getInertialFrame()).getPosition());
+
+		// Line of sight from the satellite to the site, compared to the nadir (the
+		// satellite points the Earth center)
+		final Vector3D lineOfSight = this.sitePosition.subtract(satellite);
+		final double offNadir = Vector3D.angle(lineOfSight, satellite.negate());
+
+		// Elevation of the satellite above the local horizon of the site
+		final double elevation = FastMath.asin(
+				FastMath.max(-1., FastMath.min(1., -Vector3D.dotProduct(lineOfSight, this.siteZenith)
+						/ lineOfSight.getNorm())));
+
+		return FastMath.min(this.pointingCapacity - offNadir, elevation);
+	}
+
+	@Override
+	public Action eventOccurred(final SpacecraftState s, final boolean increasing, final boolean forward)
+			throws PatriusException {
+		return increasing ? this.actionAtEntry : this.actionAtExit;
+	}
+
+	/**
+	 * @return false, the detector is never removed
+	 */
+	@Override
+	public boolean shouldBeRemoved() {
+		return false;
+	}
+
+	/**
+	 * @return a copy of this detector
+	 */
+	@Override
+	public EventDetector copy() {
+		return new ConeVisibilityDetector(this.earthOrientation, this.sitePosition, this.siteZenith,
+				this.pointingCapacity, this.getMaxCheckInterval(), this.getThreshold(), this.actionAtEntry,
+				this.actionAtExit);
+	}
+
+	/**
+	 * @return the pointing capacity (rad)
+	 */
+	public double getPointingCapacity() {
+		return this.pointingCapacity;
+	}
+}
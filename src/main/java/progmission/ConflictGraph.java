@@ -0,0 +1,240 @@
+package progmission;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sparse graph of the conflicts between {@link ObservationCandidate}s, built
+ * by a {@link ConflictGraphBuilder}.
+ *
+ * The candidates are sorted by start date and identified by their index. Two
+ * candidates are in conflict when they can't both be scheduled : they overlap,
+ * or the time between them is shorter than the slew from the first to the
+ * second. The candidates of a same site are not linked : their mutual
+ * exclusion (one observation per site) is given by
+ * {@link ObservationCandidate#getSite()}.
+ *
+ * The adjacency lists are stored in compressed rows : the neighbours of the
+ * candidate i, by increasing index, are neighbours[offsets[i]] to
+ * neighbours[offsets[i + 1] - 1].
+ *
+ * This class is immutable.
+ *
+ * @author agent
+ */
+public final class ConflictGraph {
+
+	/** Candidates, by start date. */
+	private final List<ObservationCandidate> candidates;
+
+	/** Start of the adjacency list of each candidate, plus the total size. */
+	private final int[] offsets;
+
+	/** Concatenated adjacency lists. */
+	private final int[] neighbours;
+
+	/** Index of the first candidate of each pass, plus the number of candidates. */
+	private final int[] passStarts;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param candidates Candidates, by start date
+	 * @param offsets    Start of the adjacency list of each candidate, plus the
+	 *                   total size
+	 * @param neighbours Concatenated and sorted adjacency lists
+	 * @param passStarts Index of the first candidate of each pass, plus the
+	 *                   number of candidates
+	 */
+	ConflictGraph(final List<ObservationCandidate> candidates, final int[] offsets, final int[] neighbours,
+			final int[] passStarts) {
+		this.candidates = Collections.unmodifiableList(new ArrayList<>(candidates));
+		this.offsets = offsets;
+		this.neighbours = neighbours;
+		this.passStarts = passStarts;
+	}
+
+	/**
+	 * Builds a graph from explicit conflicts, such as a small hand-built
+	 * instance. All the candidates are in a single pass.
+	 *
+	 * @param candidates Candidates, by start date
+	 * @param conflicts  Pairs of indices of the candidates in conflict
+	 * @return the conflict graph
+	 * @throws IllegalArgumentException if the candidates are not sorted by start
+	 *                                  date, or if a conflict is not a pair of
+	 *                                  candidates of different sites, or is
+	 *                                  given twice
+	 */
+	public static ConflictGraph fromConflicts(final List<ObservationCandidate> candidates, final int[][] conflicts) {
+		final int n = candidates.size();
+		for (int i = 1; i < n; i++) {
+			if (candidates.get(i).getStart().compareTo(candidates.get(i - 1).getStart()) < 0) {
+				throw new IllegalArgumentException("The candidates must be sorted by start date");
+			}
+		}
+		final int[] degrees = new int[n];
+		for (final int[] conflict : conflicts) {
+			if (conflict.length != 2 || conflict[0] < 0 || conflict[0] >= n || conflict[1] < 0 || conflict[1] >= n
+					|| candidates.get(conflict[0]).getSite() == candidates.get(conflict[1]).getSite()) {
+				throw new IllegalArgumentException("A conflict must link two candidates of different sites");
+			}
+			degrees[conflict[0]]++;
+			degrees[conflict[1]]++;
+		}
+
+		final int[] offsets = new int[n + 1];
+		for (int i = 0; i < n; i++) {
+			offsets[i + 1] = offsets[i] + degrees[i];
+		}
+		final int[] neighbours = new int[offsets[n]];
+		final int[] fill = Arrays.copyOf(offsets, n);
+		for (final int[] conflict : conflicts) {
+			neighbours[fill[conflict[0]]++] = conflict[1];
+			neighbours[fill[conflict[1]]++] = conflict[0];
+		}
+		for (int i = 0; i < n; i++) {
+			Arrays.sort(neighbours, offsets[i], offsets[i + 1]);
+			for (int k = offsets[i] + 1; k < offsets[i + 1]; k++) {
+				if (neighbours[k] == neighbours[k - 1]) {
+					throw new IllegalArgumentException("A conflict can't be given twice");
+				}
+			}
+		}
+		return new ConflictGraph(candidates, offsets, neighbours, n > 0 ? new int[] { 0, n } : new int[] { 0 });
+	}
+
+	/**
+	 * @return the number of candidates
+	 */
+	public int size() {
+		return this.candidates.size();
+	}
+
+	/**
+	 * @param index Index of a candidate
+	 * @return the candidate
+	 */
+	public ObservationCandidate getCandidate(final int index) {
+		return this.candidates.get(index);
+	}
+
+	/**
+	 * @return the candidates, by start date
+	 */
+	public List<ObservationCandidate> getCandidates() {
+		return this.candidates;
+	}
+
+	/**
+	 * @param index Index of a candidate
+	 * @return the number of candidates in conflict with it
+	 */
+	public int getDegree(final int index) {
+		return this.offsets[index + 1] - this.offsets[index];
+	}
+
+	/**
+	 * @param index Index of a candidate
+	 * @param k     Rank of the neighbour, lower than the degree of the candidate
+	 * @return the index of the k-th candidate in conflict with it, by increasing
+	 *         index
+	 */
+	public int getNeighbour(final int index, final int k) {
+		return this.neighbours[this.offsets[index] + k];
+	}
+
+	/**
+	 * Checks whether two candidates are in conflict, by a binary search in the
+	 * adjacency list of the first one.
+	 *
+	 * @param first  Index of the first candidate
+	 * @param second Index of the second candidate
+	 * @return true if the candidates can't both be scheduled
+	 */
+	public boolean areConflicting(final int first, final int second) {
+		return Arrays.binarySearch(this.neighbours, this.offsets[first], this.offsets[first + 1], second) >= 0;
+	}
+
+	/**
+	 * @return the number of conflicts
+	 */
+	public int getNbConflicts() {
+		return this.neighbours.length / 2;
+	}
+
+	/**
+	 * Gets the passes : the groups of consecutive candidates separated from the
+	 * others by more than the maximum slew duration, which can't be in conflict
+	 * with the candidates of another group.
+	 *
+	 * @return the number of passes
+	 */
+	public int getNbPasses() {
+		return this.passStarts.length - 1;
+	}
+
+	/**
+	 * @param pass Index of a pass
+	 * @return the index of the first candidate of the pass
+	 */
+	public int getPassStart(final int pass) {
+		return this.passStarts[pass];
+	}
+
+	/**
+	 * @param pass Index of a pass
+	 * @return the index following the last candidate of the pass
+	 */
+	public int getPassEnd(final int pass) {
+		return this.passStarts[pass + 1];
+	}
+
+	/**
+	 * Computes, for each pass, the size of a large clique of candidates in
+	 * conflict with each other : at most one of them can be scheduled, so the
+	 * ratio between the number of candidates and the clique size measures the
+	 * congestion of the pass.
+	 *
+	 * The maximum clique is NP-hard : the clique is grown greedily from each
+	 * candidate of the pass, adding its neighbours by decreasing degree. The
+	 * result is a lower bound of the maximum clique size.
+	 *
+	 * @return the clique size of each pass
+	 */
+	public int[] computeMaxCliqueSizes() {
+		final int[] sizes = new int[this.getNbPasses()];
+		final List<Integer> clique = new ArrayList<>();
+		final List<Integer> byDegree = new ArrayList<>();
+		for (int pass = 0; pass < sizes.length; pass++) {
+			int best = this.getPassEnd(pass) > this.getPassStart(pass) ? 1 : 0;
+			for (int i = this.getPassStart(pass); i < this.getPassEnd(pass); i++) {
+				if (this.getDegree(i) < best) {
+					// Can't improve on the current clique
+					continue;
+				}
+				byDegree.clear();
+				for (int k = 0; k < this.getDegree(i); k++) {
+					byDegree.add(this.getNeighbour(i, k));
+				}
+				byDegree.sort((a, b) -> Integer.compare(this.getDegree(b), this.getDegree(a)));
+				clique.clear();
+				clique.add(i);
+				for (final int candidate : byDegree) {
+					boolean linked = true;
+					for (int c = 0; c < clique.size() && linked; c++) {
+						linked = this.areConflicting(candidate, clique.get(c));
+					}
+					if (linked) {
+						clique.add(candidate);
+					}
+				}
+				best = Math.max(best, clique.size());
+			}
+			sizes[pass] = best;
+		}
+		return sizes;
+	}
+}
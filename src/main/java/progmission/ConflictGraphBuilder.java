@@ -0,0 +1,211 @@
+package progmission;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.slf4j.Logger;
+
+import fr.cnes.sirius.patrius.attitudes.AttitudeLaw;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.propagation.analytical.KeplerianPropagator;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import reader.Site;
+import utils.ConstantsBE;
+import utils.IntervalSet;
+import utils.LogUtils;
+
+/**
+ * Builds the {@link ConflictGraph} of the observation opportunities of the
+ * access plan.
+ *
+ * The candidates are sorted by start date, and a sweep line compares each
+ * candidate with the following ones only, as long as they start less than
+ * {@link Satellite#getMaxSlewDuration()} after its end : beyond, any slew is
+ * feasible. The cost is O(n log n + k), where k is the number of pairs inside
+ * the look-ahead, and the slew durations come from a
+ * {@link SlewDurationCache} that the schedulers using the graph can share.
+ *
+ * A builder is not thread-safe.
+ *
+ * @author agent
+ */
+public class ConflictGraphBuilder {
+
+	/** Default step between the candidates of an access window (s). */
+	public static final double DEFAULT_CANDIDATE_STEP = ConstantsBE.INTEGRATION_TIME;
+
+	/**
+	 * Logger for this class.
+	 */
+	private final Logger logger = LogUtils.GLOBAL_LOGGER;
+
+	/** Mission providing the satellite and the observation laws. */
+	private final CompleteMission mission;
+
+	/** Cache of the slew durations between the candidates. */
+	private final SlewDurationCache slewDurations;
+
+	/** Step between the candidates of an access window (s). */
+	private final double candidateStep;
+
+	/**
+	 * Constructor, with the {@link #DEFAULT_CANDIDATE_STEP}.
+	 *
+	 * @param mission       Mission providing the satellite and the observation
+	 *                      laws
+	 * @param slewDurations Cache of the slew durations between the candidates
+	 */
+	public ConflictGraphBuilder(final CompleteMission mission, final SlewDurationCache slewDurations) {
+		this(mission, slewDurations, DEFAULT_CANDIDATE_STEP);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param mission       Mission providing the satellite and the observation
+	 *                      laws
+	 * @param slewDurations Cache of the slew durations between the candidates
+	 * @param candidateStep Step between the candidates of an access window (s)
+	 */
+	public ConflictGraphBuilder(final CompleteMission mission, final SlewDurationCache slewDurations,
+			final double candidateStep) {
+		if (!(candidateStep > 0.)) {
+			throw new IllegalArgumentException("The candidate step must be strictly positive");
+		}
+		this.mission = mission;
+		this.slewDurations = slewDurations;
+		this.candidateStep = candidateStep;
+	}
+
+	/**
+	 * Creates the candidate observations of the access windows : one every
+	 * candidate step in each window, at least
+	 * {@link Satellite#getMaxSlewDuration()} away from the mission start date and
+	 * from the end of the access plan to leave room for the slews from and to the
+	 * nadir pointing law.
+	 *
+	 * @param accessWindows Access windows of each site, as offsets from the
+	 *                      mission start date
+	 * @return the candidates
+	 * @throws PatriusException if the attitudes can't be computed
+	 */
+	public List<ObservationCandidate> createCandidates(final Map<Site, IntervalSet> accessWindows)
+			throws PatriusException {
+		final KeplerianPropagator propagator = this.mission.createDefaultPropagator();
+		final double margin = this.mission.getSatellite().getMaxSlewDuration();
+		final double earliest = margin;
+		final double latest = this.mission.getAccessPlanEnd().durationFrom(this.mission.getStartDate()) - margin;
+
+		final List<ObservationCandidate> candidates = new ArrayList<>();
+		for (final Entry<Site, IntervalSet> entry : accessWindows.entrySet()) {
+			final IntervalSet windows = entry.getValue();
+			if (windows.isEmpty()) {
+				continue;
+			}
+			final AttitudeLaw law = this.mission.createObservationLaw(entry.getKey());
+			for (int j = 0; j < windows.size(); j++) {
+				final double lower = FastMath.max(windows.getLower(j), earliest);
+				final double upper = FastMath.min(windows.getUpper(j), latest) - ConstantsBE.INTEGRATION_TIME;
+				for (double offset = lower; offset <= upper; offset += this.candidateStep) {
+					candidates.add(new ObservationCandidate(entry.getKey(), law,
+							this.mission.getStartDate().shiftedBy(offset), propagator, this.mission.getEme2000()));
+				}
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * Builds the conflict graph of the candidates of the access windows.
+	 *
+	 * @param accessWindows Access windows of each site, as offsets from the
+	 *                      mission start date
+	 * @return the conflict graph
+	 * @throws PatriusException if the attitudes or the slew durations can't be
+	 *                          computed
+	 */
+	public ConflictGraph build(final Map<Site, IntervalSet> accessWindows) throws PatriusException {
+		return this.build(this.createCandidates(accessWindows));
+	}
+
+	/**
+	 * Builds the conflict graph of a set of candidates.
+	 *
+	 * @param candidates Input candidates, in any order
+	 * @return the conflict graph
+	 * @throws PatriusException if the slew durations can't be computed
+	 */
+	public ConflictGraph build(final List<ObservationCandidate> candidates) throws PatriusException {
+		final List<ObservationCandidate> sorted = new ArrayList<>(candidates);
+		sorted.sort((a, b) -> a.getStart().compareTo(b.getStart()));
+		final int n = sorted.size();
+		final AbsoluteDate epoch = this.mission.getStartDate();
+		final double[] starts = new double[n];
+		final double[] ends = new double[n];
+		for (int i = 0; i < n; i++) {
+			starts[i] = sorted.get(i).getStart().durationFrom(epoch);
+			ends[i] = sorted.get(i).getEnd().durationFrom(epoch);
+		}
+		final double lookAhead = this.mission.getSatellite().getMaxSlewDuration();
+
+		// Sweep line : forward conflicts (i < j) and passes
+		int[] pairs = new int[2 * FastMath.max(16, n)];
+		int nbPairs = 0;
+		final int[] degrees = new int[n];
+		final List<Integer> passStarts = new ArrayList<>();
+		double passEnd = Double.NEGATIVE_INFINITY;
+		long comparisons = 0;
+		for (int i = 0; i < n; i++) {
+			if (starts[i] >= passEnd + lookAhead) {
+				passStarts.add(i);
+			}
+			passEnd = FastMath.max(passEnd, ends[i]);
+			for (int j = i + 1; j < n && starts[j] < ends[i] + lookAhead; j++) {
+				comparisons++;
+				if (sorted.get(i).getSite() == sorted.get(j).getSite()
+						|| this.slewDurations.isSlewFeasible(sorted.get(i), sorted.get(j))) {
+					continue;
+				}
+				if (2 * nbPairs + 2 > pairs.length) {
+					pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+				}
+				pairs[2 * nbPairs] = i;
+				pairs[2 * nbPairs + 1] = j;
+				nbPairs++;
+				degrees[i]++;
+				degrees[j]++;
+			}
+		}
+		passStarts.add(n);
+
+		// Compressed rows, each adjacency list sorted by increasing index : the lower
+		// neighbours come from earlier sweep steps, the higher ones in order
+		final int[] offsets = new int[n + 1];
+		for (int i = 0; i < n; i++) {
+			offsets[i + 1] = offsets[i] + degrees[i];
+		}
+		final int[] neighbours = new int[offsets[n]];
+		final int[] fill = Arrays.copyOf(offsets, n);
+		for (int p = 0; p < nbPairs; p++) {
+			final int i = pairs[2 * p];
+			final int j = pairs[2 * p + 1];
+			neighbours[fill[i]++] = j;
+			neighbours[fill[j]++] = i;
+		}
+		for (int i = 0; i < n; i++) {
+			Arrays.sort(neighbours, offsets[i], offsets[i + 1]);
+		}
+
+		final int[] passes = new int[passStarts.size()];
+		for (int p = 0; p < passes.length; p++) {
+			passes[p] = passStarts.get(p);
+		}
+		logger.info("Conflict graph : " + n + " candidates, " + (passes.length - 1) + " passes, " + nbPairs
+				+ " conflicts out of " + comparisons + " compared pairs");
+		return new ConflictGraph(sorted, offsets, neighbours, passes);
+	}
+}
@@ -0,0 +1,181 @@
+package progmission;
+
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.propagation.Propagator;
+import fr.cnes.sirius.patrius.propagation.events.EventDetector;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import utils.IntervalSet;
+
+/**
+ * Evaluates the g function of an {@link EventDetector} inside given time
+ * windows only, instead of over the whole propagation horizon.
+ *
+ * Each window is sampled with a step not larger than the max check interval of
+ * the detectors, and each change of state of the constraint is located by
+ * bisection down to the convergence threshold of the detectors. The spacecraft
+ * states are computed on demand by a {@link Propagator} that must not have any
+ * detector attached.
+ *
+ * This is what makes the constraint chaining lazy : the illumination and
+ * dazzling constraints are only evaluated inside the visibility windows, which
+ * cover a few minutes per pass, and not at all for the sites with no
+ * visibility.
+ *
+ * A scanner is not thread-safe : use one scanner per thread.
+ *
+ * @author agent
+ */
+public class ConstraintWindowScanner {
+
+	/** Propagator computing the spacecraft states. */
+	private final Propagator propagator;
+
+	/** Reference date of the window offsets. */
+	private final AbsoluteDate epoch;
+
+	/** Maximum sampling step (s). */
+	private final double maxCheck;
+
+	/** Convergence threshold of the constraint changes (s). */
+	private final double threshold;
+
+	/** Number of g function evaluations so far. */
+	private long evaluationCount;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param propagator Propagator computing the spacecraft states, without any
+	 *                   detector attached
+	 * @param epoch      Reference date of the window offsets
+	 * @param maxCheck   Maximum sampling step (s)
+	 * @param threshold  Convergence threshold of the constraint changes (s)
+	 */
+	public ConstraintWindowScanner(final Propagator propagator, final AbsoluteDate epoch, final double maxCheck,
+			final double threshold) {
+		this.propagator = propagator;
+		this.epoch = epoch;
+		this.maxCheck = maxCheck;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Computes the sub-intervals of the input windows where the constraint of the
+	 * input detector is fulfilled. Nothing is evaluated if the windows are empty.
+	 *
+	 * @param detector          Detector of the constraint
+	 * @param increasingIsStart true if the constraint is fulfilled when the g
+	 *                          function is positive, false if it is fulfilled when
+	 *                          the g function is negative (same meaning as in the
+	 *                          {@link fr.cnes.sirius.patrius.events.GenericCodingEventDetector})
+	 * @param windows           Windows to scan, with the epoch of this scanner
+	 * @return the windows where the constraint is fulfilled
+	 * @throws PatriusException if the propagation or the g function evaluation
+	 *                          fails
+	 */
+	public IntervalSet scan(final EventDetector detector, final boolean increasingIsStart,
+			final IntervalSet windows) throws PatriusException {
+		final IntervalSet.Builder builder = new IntervalSet.Builder(this.epoch, windows.size());
+		for (int i = 0; i < windows.size(); i++) {
+			this.scan(detector, increasingIsStart, windows.getLower(i), windows.getUpper(i), builder);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Adds to the input builder the sub-intervals of the window [lower ; upper]
+	 * where the constraint of the input detector is fulfilled.
+	 *
+	 * @param detector          Detector of the constraint
+	 * @param increasingIsStart true if the constraint is fulfilled when the g
+	 *                          function is positive
+	 * @param lower             Lower bound of the window (s from the epoch)
+	 * @param upper             Upper bound of the window (s from the epoch)
+	 * @param builder           Builder receiving the sub-intervals, in
+	 *                          chronological order
+	 * @throws PatriusException if the propagation or the g function evaluation
+	 *                          fails
+	 */
+	public void scan(final EventDetector detector, final boolean increasingIsStart, final double lower,
+			final double upper, final IntervalSet.Builder builder) throws PatriusException {
+		final int nbSteps = (int) FastMath.max(1., FastMath.ceil((upper - lower) / this.maxCheck));
+		final double step = (upper - lower) / nbSteps;
+
+		double previousTime = lower;
+		boolean previousActive = this.isActive(detector, increasingIsStart, lower);
+		double start = previousActive ? lower : Double.NaN;
+		for (int k = 1; k <= nbSteps; k++) {
+			final double time = k == nbSteps ? upper : lower + k * step;
+			final boolean active = this.isActive(detector, increasingIsStart, time);
+			if (active != previousActive) {
+				final double change = this.locateChange(detector, increasingIsStart, previousTime, time,
+						previousActive);
+				if (active) {
+					start = change;
+				} else {
+					builder.add(start, change);
+				}
+			}
+			previousTime = time;
+			previousActive = active;
+		}
+		if (previousActive) {
+			builder.add(start, upper);
+		}
+	}
+
+	/**
+	 * Locates by bisection the change of state of the constraint between two
+	 * dates.
+	 *
+	 * @param detector          Detector of the constraint
+	 * @param increasingIsStart true if the constraint is fulfilled when the g
+	 *                          function is positive
+	 * @param before            Offset (s) before the change
+	 * @param after             Offset (s) after the change
+	 * @param activeBefore      State of the constraint before the change
+	 * @return the offset (s) of the change
+	 * @throws PatriusException if the propagation or the g function evaluation
+	 *                          fails
+	 */
+	private double locateChange(final EventDetector detector, final boolean increasingIsStart, final double before,
+			final double after, final boolean activeBefore) throws PatriusException {
+		double low = before;
+		double high = after;
+		while (high - low > this.threshold) {
+			final double middle = 0.5 * (low + high);
+			if (this.isActive(detector, increasingIsStart, middle) == activeBefore) {
+				low = middle;
+			} else {
+				high = middle;
+			}
+		}
+		return 0.5 * (low + high);
+	}
+
+	/**
+	 * Evaluates the state of the constraint at the input date.
+	 *
+	 * @param detector          Detector of the constraint
+	 * @param increasingIsStart true if the constraint is fulfilled when the g
+	 *                          function is positive
+	 * @param offset            Offset (s) from the epoch
+	 * @return true if the constraint is fulfilled
+	 * @throws PatriusException if the propagation or the g function evaluation
+	 *                          fails
+	 */
+	private boolean isActive(final EventDetector detector, final boolean increasingIsStart, final double offset)
+			throws PatriusException {
+		this.evaluationCount++;
+		final double g = detector.g(this.propagator.propagate(this.epoch.shiftedBy(offset)));
+		return increasingIsStart ? g > 0. : g < 0.;
+	}
+
+	/**
+	 * @return the number of g function evaluations so far
+	 */
+	public long getEvaluationCount() {
+		return this.evaluationCount;
+	}
+}
@@ -0,0 +1,116 @@
+package progmission;
+
+import fr.cnes.sirius.patrius.frames.TopocentricFrame;
+import fr.cnes.sirius.patrius.propagation.events.ThreeBodiesAngleDetector;
+
+/**
+ * Accuracy / speed profiles of the access computation, see
+ * {@link CompleteMission#setDetectionProfile(DetectionProfile)}.
+ *
+ * A profile sets together the max check interval and the convergence threshold
+ * of the event detection, the {@link VisibilityModel}, the Sun ephemeris and
+ * the site geometry used by the constraints. {@link #PRECISE} is the reference
+ * : it keeps the original detectors, with the exact frames and ephemerides.
+ * Use {@link DetectionProfileReport} to measure the window boundary errors of
+ * the other profiles with respect to it.
+ *
+ * @author agent
+ */
+public enum DetectionProfile {
+
+	/**
+	 * Reference profile : {@link VisibilityModel#SENSOR_MODEL}, full Sun
+	 * ephemeris, exact geometry and convergence threshold of 0.1 ms.
+	 */
+	PRECISE(CompleteMission.MAXCHECK_EVENTS, CompleteMission.TRESHOLD_EVENTS, VisibilityModel.SENSOR_MODEL,
+			false, true),
+
+	/**
+	 * Planning profile : {@link VisibilityModel#CONE}, tabulated Sun ephemeris and
+	 * convergence threshold of 10 ms, far below the integration time of an
+	 * observation.
+	 */
+	STANDARD(CompleteMission.MAXCHECK_EVENTS, 1.e-2, VisibilityModel.CONE, true, false),
+
+	/**
+	 * What-if profile : {@link VisibilityModel#CONE}, tabulated Sun ephemeris,
+	 * convergence threshold of 1 s and max check interval of 180 s. The passes
+	 * shorter than the max check interval at the edge of the agility cone may be
+	 * missed.
+	 */
+	FAST(180., 1., VisibilityModel.CONE, true, false);
+
+	/** Maximum checking interval of the event detection (s). */
+	private final double maxCheck;
+
+	/** Convergence threshold of the event detection (s). */
+	private final double threshold;
+
+	/** Model of the visibility constraint. */
+	private final VisibilityModel visibilityModel;
+
+	/** True to use the {@link SunEphemerisTable}, false for the full ephemeris. */
+	private final boolean tabulatedSun;
+
+	/** True for the exact geometry, false for the interpolated one. */
+	private final boolean exactGeometry;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maxCheck        Maximum checking interval of the event detection (s)
+	 * @param threshold       Convergence threshold of the event detection (s)
+	 * @param visibilityModel Model of the visibility constraint
+	 * @param tabulatedSun    True to use the {@link SunEphemerisTable}
+	 * @param exactGeometry   True for the exact geometry, see
+	 *                        {@link #isExactGeometry()}
+	 */
+	DetectionProfile(final double maxCheck, final double threshold, final VisibilityModel visibilityModel,
+			final boolean tabulatedSun, final boolean exactGeometry) {
+		this.maxCheck = maxCheck;
+		this.threshold = threshold;
+		this.visibilityModel = visibilityModel;
+		this.tabulatedSun = tabulatedSun;
+		this.exactGeometry = exactGeometry;
+	}
+
+	/**
+	 * @return the maximum checking interval of the event detection (s)
+	 */
+	public double getMaxCheck() {
+		return this.maxCheck;
+	}
+
+	/**
+	 * @return the convergence threshold of the event detection (s)
+	 */
+	public double getThreshold() {
+		return this.threshold;
+	}
+
+	/**
+	 * @return the model of the visibility constraint
+	 */
+	public VisibilityModel getVisibilityModel() {
+		return this.visibilityModel;
+	}
+
+	/**
+	 * @return true if the Sun ephemeris is tabulated, false if the full
+	 *         ephemeris is used
+	 */
+	public boolean isTabulatedSun() {
+		return this.tabulatedSun;
+	}
+
+	/**
+	 * @return true if the site coordinates are computed through the frames tree
+	 *         with the {@link TopocentricFrame} of the site and the illumination
+	 *         with its {@link ThreeBodiesAngleDetector}, false if they come from
+	 *         the {@link EarthOrientationCache} and the
+	 *         {@link IlluminationWindowCalculator}
+	 */
+	public boolean isExactGeometry() {
+		return this.exactGeometry;
+	}
+}
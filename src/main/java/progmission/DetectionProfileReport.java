@@ -0,0 +1,214 @@
+package progmission;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.time.AbsoluteDateInterval;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import reader.Site;
+import utils.IntervalSet;
+
+/**
+ * Errors of the access windows computed with a {@link DetectionProfile} with
+ * respect to the {@link DetectionProfile#PRECISE} reference, and computation
+ * times of both. The reference keeps the original detectors : sensor model,
+ * illumination detector, exact frames and full Sun ephemeris.
+ *
+ * The boundary error of a reference window bound is its distance to the
+ * closest bound of the windows of the profile. The windows found by only one of
+ * the two computations are counted separately, and the total duration where
+ * the two computations disagree is given as well.
+ *
+ * @author agent
+ */
+public final class DetectionProfileReport {
+
+	/** Compared profile. */
+	private final DetectionProfile profile;
+
+	/** Number of compared sites. */
+	private int nbSites;
+
+	/** Number of compared window bounds. */
+	private int nbBounds;
+
+	/** Maximum boundary error (s). */
+	private double maxBoundaryError;
+
+	/** Sum of the boundary errors (s). */
+	private double sumBoundaryError;
+
+	/** Sum over the sites of the differences of window counts. */
+	private int windowCountDifference;
+
+	/** Total duration where the two computations disagree (s). */
+	private double disagreementDuration;
+
+	/** Computation time of the reference (ms). */
+	private long referenceTime;
+
+	/** Computation time of the profile (ms). */
+	private long profileTime;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param profile Compared profile
+	 */
+	private DetectionProfileReport(final DetectionProfile profile) {
+		this.profile = profile;
+	}
+
+	/**
+	 * Computes the access windows of the input sites over the mission horizon
+	 * with the {@link DetectionProfile#PRECISE} profile and with the input
+	 * profile, and compares them. Both profiles are run once before being timed,
+	 * so that both timed runs find the shared caches of the mission warm.
+	 *
+	 * @param mission Input mission
+	 * @param profile Compared profile
+	 * @param sites   Input sites, a sample of the mission sites is enough
+	 * @return the report
+	 * @throws PatriusException if a {@link PatriusException} occurs during the
+	 *                          computations
+	 */
+	public static DetectionProfileReport compute(final CompleteMission mission, final DetectionProfile profile,
+			final List<Site> sites) throws PatriusException {
+		final AbsoluteDateInterval horizon = new AbsoluteDateInterval(mission.getStartDate(), mission.getEndDate());
+		final DetectionProfileReport report = new DetectionProfileReport(profile);
+
+		// Warm-up runs, not timed : the first run of a profile fills the caches
+		// shared by the mission (site geometries, ephemerides, JIT compilation),
+		// which would otherwise only benefit the second timed run
+		new MultiSiteAccessEngine(mission, horizon, DetectionProfile.PRECISE).computeAccessWindows(sites);
+		new MultiSiteAccessEngine(mission, horizon, profile).computeAccessWindows(sites);
+
+		long start = System.currentTimeMillis();
+		final Map<Site, IntervalSet> reference = new MultiSiteAccessEngine(mission, horizon,
+				DetectionProfile.PRECISE).computeAccessWindows(sites);
+		report.referenceTime = System.currentTimeMillis() - start;
+
+		start = System.currentTimeMillis();
+		final Map<Site, IntervalSet> compared = new MultiSiteAccessEngine(mission, horizon, profile)
+				.computeAccessWindows(sites);
+		report.profileTime = System.currentTimeMillis() - start;
+
+		for (final Site site : sites) {
+			report.addSite(reference.get(site), compared.get(site));
+		}
+		return report;
+	}
+
+	/**
+	 * Adds the comparison of the windows of one site.
+	 *
+	 * @param reference Reference windows
+	 * @param compared  Windows of the compared profile
+	 */
+	private void addSite(final IntervalSet reference, final IntervalSet compared) {
+		this.nbSites++;
+		this.windowCountDifference += FastMath.abs(reference.size() - compared.size());
+		this.disagreementDuration += reference.or(compared).getDuration() - reference.and(compared).getDuration();
+		if (compared.isEmpty()) {
+			return;
+		}
+		final double[] comparedBounds = compared.getBounds();
+		for (final double bound : reference.getBounds()) {
+			final double error = distanceToClosest(comparedBounds, bound);
+			this.nbBounds++;
+			this.sumBoundaryError += error;
+			this.maxBoundaryError = FastMath.max(this.maxBoundaryError, error);
+		}
+	}
+
+	/**
+	 * Computes the distance of a value to the closest value of a sorted array.
+	 *
+	 * @param sorted Sorted, non empty array
+	 * @param value  Input value
+	 * @return the distance to the closest value
+	 */
+	private static double distanceToClosest(final double[] sorted, final double value) {
+		final int index = Arrays.binarySearch(sorted, value);
+		if (index >= 0) {
+			return 0.;
+		}
+		final int insertion = -index - 1;
+		double distance = Double.POSITIVE_INFINITY;
+		if (insertion > 0) {
+			distance = value - sorted[insertion - 1];
+		}
+		if (insertion < sorted.length) {
+			distance = FastMath.min(distance, sorted[insertion] - value);
+		}
+		return distance;
+	}
+
+	/**
+	 * @return the compared profile
+	 */
+	public DetectionProfile getProfile() {
+		return this.profile;
+	}
+
+	/**
+	 * @return the number of compared sites
+	 */
+	public int getNbSites() {
+		return this.nbSites;
+	}
+
+	/**
+	 * @return the maximum boundary error (s)
+	 */
+	public double getMaxBoundaryError() {
+		return this.maxBoundaryError;
+	}
+
+	/**
+	 * @return the mean boundary error (s)
+	 */
+	public double getMeanBoundaryError() {
+		return this.nbBounds == 0 ? 0. : this.sumBoundaryError / this.nbBounds;
+	}
+
+	/**
+	 * @return the sum over the sites of the differences of window counts
+	 */
+	public int getWindowCountDifference() {
+		return this.windowCountDifference;
+	}
+
+	/**
+	 * @return the total duration where the two computations disagree (s)
+	 */
+	public double getDisagreementDuration() {
+		return this.disagreementDuration;
+	}
+
+	/**
+	 * @return the computation time of the reference (ms)
+	 */
+	public long getReferenceTime() {
+		return this.referenceTime;
+	}
+
+	/**
+	 * @return the computation time of the profile (ms)
+	 */
+	public long getProfileTime() {
+		return this.profileTime;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT,
+				"%s vs PRECISE on %d sites : max boundary error %.3g s, mean %.3g s, %d windows differing, "
+						+ "%.1f s of disagreement, %d ms vs %d ms",
+				this.profile, this.nbSites, this.maxBoundaryError, this.getMeanBoundaryError(),
+				this.windowCountDifference, this.disagreementDuration, this.profileTime, this.referenceTime);
+	}
+}
@@ -0,0 +1,345 @@
+package progmission;
+
+import java.util.Arrays;
+
+import fr.cnes.sirius.patrius.frames.Frame;
+import fr.cnes.sirius.patrius.frames.transformations.Transform;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.orbits.pvcoordinates.PVCoordinates;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.time.AbsoluteDateInterval;
+import fr.cnes.sirius.patrius.utils.Constants;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * Cache of the orientation of the Earth body frame (ITRF) with respect to an
+ * inertial frame (EME2000) over the mission horizon.
+ *
+ * Each transform between the two frames walks the frames tree and computes the
+ * precession, nutation, Earth rotation and pole motion at the requested date.
+ * This cache computes the rotation matrix on a regular time grid once, and
+ * then interpolates its coefficients with a Lagrange polynomial on the
+ * {@link #INTERPOLATION_POINTS} closest nodes.
+ *
+ * The coefficients are sinusoids of the Earth rotation angle : with the
+ * {@link #DEFAULT_STEP} of 60 s, the interpolation error is below 1e-15 rad,
+ * within the double precision of the matrix itself. The velocities are
+ * transformed with the Earth rotation rate
+ * {@link Constants#WGS84_EARTH_ANGULAR_VELOCITY} around the body Z axis,
+ * neglecting the pole motion, the length of day variations and the precession
+ * and nutation rates : the velocity error is a few mm/s for a low Earth orbit,
+ * below 1e-2 m/s. The dates outside of the grid are computed by Patrius.
+ *
+ * This class is immutable and thread-safe.
+ *
+ * @author agent
+ */
+public class EarthOrientationCache {
+
+	/** Default step of the time grid (s). */
+	public static final double DEFAULT_STEP = 60.;
+
+	/** Number of nodes of the interpolation polynomials. */
+	public static final int INTERPOLATION_POINTS = 6;
+
+	/** Earth body frame. */
+	private final Frame bodyFrame;
+
+	/** Inertial frame. */
+	private final Frame inertialFrame;
+
+	/** Date of the first node. */
+	private final AbsoluteDate epoch;
+
+	/** Step of the time grid (s). */
+	private final double step;
+
+	/** Number of nodes. */
+	private final int nbNodes;
+
+	/**
+	 * Rotation matrices from the body frame to the inertial frame, 9 coefficients
+	 * per node in row-major order.
+	 */
+	private final double[] matrices;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param bodyFrame     Earth body frame
+	 * @param inertialFrame Inertial frame
+	 * @param horizon       Horizon covered by the grid
+	 * @param step          Step of the time grid (s)
+	 * @throws PatriusException if a transform between the frames can't be
+	 *                          computed
+	 */
+	public EarthOrientationCache(final Frame bodyFrame, final Frame inertialFrame,
+			final AbsoluteDateInterval horizon, final double step) throws PatriusException {
+		if (!(step > 0.)) {
+			throw new IllegalArgumentException("The step of the Earth orientation grid must be strictly positive");
+		}
+		this.bodyFrame = bodyFrame;
+		this.inertialFrame = inertialFrame;
+		this.step = step;
+		// Half of the interpolation nodes before the horizon start, the others after
+		// the horizon end, so that the interpolation is centered everywhere
+		final int margin = INTERPOLATION_POINTS / 2;
+		this.epoch = horizon.getLowerData().shiftedBy(-margin * step);
+		final double duration = horizon.getUpperData().durationFrom(horizon.getLowerData());
+		this.nbNodes = (int) FastMath.ceil(duration / step) + 2 * margin + 1;
+
+		this.matrices = new double[9 * this.nbNodes];
+		for (int k = 0; k < this.nbNodes; k++) {
+			final Transform transform = bodyFrame.getTransformTo(inertialFrame, this.epoch.shiftedBy(k * step));
+			final Vector3D i = transform.transformVector(Vector3D.PLUS_I);
+			final Vector3D j = transform.transformVector(Vector3D.PLUS_J);
+			final Vector3D l = transform.transformVector(Vector3D.PLUS_K);
+			final int offset = 9 * k;
+			this.matrices[offset] = i.getX();
+			this.matrices[offset + 1] = j.getX();
+			this.matrices[offset + 2] = l.getX();
+			this.matrices[offset + 3] = i.getY();
+			this.matrices[offset + 4] = j.getY();
+			this.matrices[offset + 5] = l.getY();
+			this.matrices[offset + 6] = i.getZ();
+			this.matrices[offset + 7] = j.getZ();
+			this.matrices[offset + 8] = l.getZ();
+		}
+	}
+
+	/**
+	 * Interpolates the rotation matrix from the body frame to the inertial frame.
+	 *
+	 * @param date Input date
+	 * @return the 9 coefficients of the matrix in row-major order, or null if the
+	 *         date is outside of the grid
+	 */
+	private double[] interpolate(final AbsoluteDate date) {
+		final double[] matrix = new double[9];
+		return this.interpolate(date, matrix) ? matrix : null;
+	}
+
+	/**
+	 * Interpolates the rotation matrix from the body frame to the inertial frame
+	 * into a caller-provided array.
+	 *
+	 * @param date   Input date
+	 * @param matrix Output array of the 9 coefficients of the matrix in
+	 *               row-major order
+	 * @return false if the date is outside of the grid, the array is then left
+	 *         unchanged
+	 */
+	private boolean interpolate(final AbsoluteDate date, final double[] matrix) {
+		final double x = date.durationFrom(this.epoch) / this.step;
+		if (!(x >= 0. && x <= this.nbNodes - 1)) {
+			return false;
+		}
+		final int first = FastMath.max(0, FastMath.min((int) FastMath.floor(x) - INTERPOLATION_POINTS / 2 + 1,
+				this.nbNodes - INTERPOLATION_POINTS));
+
+		Arrays.fill(matrix, 0, 9, 0.);
+		for (int j = 0; j < INTERPOLATION_POINTS; j++) {
+			// Lagrange basis polynomial of the node j
+			double weight = 1.;
+			for (int m = 0; m < INTERPOLATION_POINTS; m++) {
+				if (m != j) {
+					weight *= (x - first - m) / (j - m);
+				}
+			}
+			final int offset = 9 * (first + j);
+			for (int e = 0; e < 9; e++) {
+				matrix[e] += weight * this.matrices[offset + e];
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Transforms a vector from the body frame to the inertial frame.
+	 *
+	 * @param date   Input date
+	 * @param vector Vector in the body frame
+	 * @return the vector in the inertial frame
+	 * @throws PatriusException if the date is outside of the grid and the
+	 *                          transform can't be computed
+	 */
+	public Vector3D toInertial(final AbsoluteDate date, final Vector3D vector) throws PatriusException {
+		final double[] m = this.interpolate(date);
+		if (m == null) {
+			return this.bodyFrame.getTransformTo(this.inertialFrame, date).transformVector(vector);
+		}
+		return multiply(m, vector);
+	}
+
+	/**
+	 * Transforms a vector from the body frame to the inertial frame, in
+	 * caller-provided arrays.
+	 *
+	 * @param date   Input date
+	 * @param vector Vector in the body frame, 3 elements
+	 * @param result Output vector in the inertial frame, 3 elements, may be the
+	 *               input array
+	 * @param matrix Work array of at least 9 elements
+	 * @throws PatriusException if the date is outside of the grid and the
+	 *                          transform can't be computed
+	 */
+	public void toInertial(final AbsoluteDate date, final double[] vector, final double[] result,
+			final double[] matrix) throws PatriusException {
+		if (!this.interpolate(date, matrix)) {
+			final Vector3D transformed = this.toInertial(date, new Vector3D(vector[0], vector[1], vector[2]));
+			result[0] = transformed.getX();
+			result[1] = transformed.getY();
+			result[2] = transformed.getZ();
+			return;
+		}
+		final double x = vector[0];
+		final double y = vector[1];
+		final double z = vector[2];
+		result[0] = matrix[0] * x + matrix[1] * y + matrix[2] * z;
+		result[1] = matrix[3] * x + matrix[4] * y + matrix[5] * z;
+		result[2] = matrix[6] * x + matrix[7] * y + matrix[8] * z;
+	}
+
+	/**
+	 * Transforms a vector from the inertial frame to the body frame.
+	 *
+	 * @param date   Input date
+	 * @param vector Vector in the inertial frame
+	 * @return the vector in the body frame
+	 * @throws PatriusException if the date is outside of the grid and the
+	 *                          transform can't be computed
+	 */
+	public Vector3D toBody(final AbsoluteDate date, final Vector3D vector) throws PatriusException {
+		final double[] m = this.interpolate(date);
+		if (m == null) {
+			return this.inertialFrame.getTransformTo(this.bodyFrame, date).transformVector(vector);
+		}
+		return multiplyTransposed(m, vector);
+	}
+
+	/**
+	 * Transforms a vector from the inertial frame to the body frame, in
+	 * caller-provided arrays.
+	 *
+	 * @param date   Input date
+	 * @param vector Vector in the inertial frame, 3 elements
+	 * @param result Output vector in the body frame, 3 elements, may be the
+	 *               input array
+	 * @param matrix Work array of at least 9 elements
+	 * @throws PatriusException if the date is outside of the grid and the
+	 *                          transform can't be computed
+	 */
+	public void toBody(final AbsoluteDate date, final double[] vector, final double[] result, final double[] matrix)
+			throws PatriusException {
+		if (!this.interpolate(date, matrix)) {
+			final Vector3D transformed = this.toBody(date, new Vector3D(vector[0], vector[1], vector[2]));
+			result[0] = transformed.getX();
+			result[1] = transformed.getY();
+			result[2] = transformed.getZ();
+			return;
+		}
+		final double x = vector[0];
+		final double y = vector[1];
+		final double z = vector[2];
+		result[0] = matrix[0] * x + matrix[3] * y + matrix[6] * z;
+		result[1] = matrix[1] * x + matrix[4] * y + matrix[7] * z;
+		result[2] = matrix[2] * x + matrix[5] * y + matrix[8] * z;
+	}
+
+	/**
+	 * Transforms coordinates from the body frame to the inertial frame.
+	 *
+	 * @param date Input date
+	 * @param pv   Coordinates in the body frame
+	 * @return the coordinates in the inertial frame
+	 * @throws PatriusException if the date is outside of the grid and the
+	 *                          transform can't be computed
+	 */
+	public PVCoordinates toInertial(final AbsoluteDate date, final PVCoordinates pv) throws PatriusException {
+		final double[] m = this.interpolate(date);
+		if (m == null) {
+			return this.bodyFrame.getTransformTo(this.inertialFrame, date).transformPVCoordinates(pv);
+		}
+		// Inertial velocity : relative velocity plus the entrainment by the rotation
+		final Vector3D position = pv.getPosition();
+		final Vector3D velocity = new Vector3D(
+				pv.getVelocity().getX() - Constants.WGS84_EARTH_ANGULAR_VELOCITY * position.getY(),
+				pv.getVelocity().getY() + Constants.WGS84_EARTH_ANGULAR_VELOCITY * position.getX(),
+				pv.getVelocity().getZ());
+		return new PVCoordinates(multiply(m, position), multiply(m, velocity));
+	}
+
+	/**
+	 * Transforms coordinates from the inertial frame to the body frame.
+	 *
+	 * @param date Input date
+	 * @param pv   Coordinates in the inertial frame
+	 * @return the coordinates in the body frame
+	 * @throws PatriusException if the date is outside of the grid and the
+	 *                          transform can't be computed
+	 */
+	public PVCoordinates toBody(final AbsoluteDate date, final PVCoordinates pv) throws PatriusException {
+		final double[] m = this.interpolate(date);
+		if (m == null) {
+			return this.inertialFrame.getTransformTo(this.bodyFrame, date).transformPVCoordinates(pv);
+		}
+		final Vector3D position = multiplyTransposed(m, pv.getPosition());
+		final Vector3D velocity = multiplyTransposed(m, pv.getVelocity());
+		return new PVCoordinates(position,
+				new Vector3D(velocity.getX() + Constants.WGS84_EARTH_ANGULAR_VELOCITY * position.getY(),
+						velocity.getY() - Constants.WGS84_EARTH_ANGULAR_VELOCITY * position.getX(),
+						velocity.getZ()));
+	}
+
+	/**
+	 * Multiplies a vector by a matrix.
+	 *
+	 * @param m      Matrix coefficients in row-major order
+	 * @param vector Input vector
+	 * @return the product
+	 */
+	private static Vector3D multiply(final double[] m, final Vector3D vector) {
+		final double x = vector.getX();
+		final double y = vector.getY();
+		final double z = vector.getZ();
+		return new Vector3D(m[0] * x + m[1] * y + m[2] * z, m[3] * x + m[4] * y + m[5] * z,
+				m[6] * x + m[7] * y + m[8] * z);
+	}
+
+	/**
+	 * Multiplies a vector by the transpose of a matrix.
+	 *
+	 * @param m      Matrix coefficients in row-major order
+	 * @param vector Input vector
+	 * @return the product
+	 */
+	private static Vector3D multiplyTransposed(final double[] m, final Vector3D vector) {
+		final double x = vector.getX();
+		final double y = vector.getY();
+		final double z = vector.getZ();
+		return new Vector3D(m[0] * x + m[3] * y + m[6] * z, m[1] * x + m[4] * y + m[7] * z,
+				m[2] * x + m[5] * y + m[8] * z);
+	}
+
+	/**
+	 * @return the Earth body frame
+	 */
+	public Frame getBodyFrame() {
+		return this.bodyFrame;
+	}
+
+	/**
+	 * @return the inertial frame
+	 */
+	public Frame getInertialFrame() {
+		return this.inertialFrame;
+	}
+
+	/**
+	 * @return the step of the time grid (s)
+	 */
+	public double getStep() {
+		return this.step;
+	}
+}
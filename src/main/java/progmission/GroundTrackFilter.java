@@ -0,0 +1,179 @@
+package progmission;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.cnes.sirius.patrius.bodies.GeodeticPoint;
+import fr.cnes.sirius.patrius.frames.Frame;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.propagation.analytical.KeplerianPropagator;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.time.AbsoluteDateInterval;
+import fr.cnes.sirius.patrius.utils.Constants;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import reader.Site;
+import utils.ConstantsBE;
+
+/**
+ * Cheap geometric pre-filter of the target sites.
+ *
+ * The sub-satellite ground track is sampled over the mission horizon, and a
+ * site is reachable only if it lies, at some point of the horizon, within the
+ * ground swath of the satellite agility cone (see
+ * {@link ConstantsBE#POINTING_CAPACITY}). The sites that are never inside the
+ * swath can't have any access window : they don't need any detector nor any
+ * propagation.
+ *
+ * The test is conservative : the swath half-angle is widened by the angle
+ * travelled by the sub-satellite point during half a sampling step, so that no
+ * reachable site is ever rejected.
+ *
+ * @author agent
+ */
+public class GroundTrackFilter {
+
+	/** Sampling step (s) of the sub-satellite ground track. */
+	public static final double SAMPLING_STEP = 60.;
+
+	/** Earth equatorial radius (m), the mission uses a spherical Earth. */
+	private static final double EARTH_RADIUS = Constants.WGS84_EARTH_EQUATORIAL_RADIUS;
+
+	/** X coordinates of the sampled sub-satellite unit vectors (Earth frame). */
+	private final double[] trackX;
+
+	/** Y coordinates of the sampled sub-satellite unit vectors (Earth frame). */
+	private final double[] trackY;
+
+	/** Z coordinates of the sampled sub-satellite unit vectors (Earth frame). */
+	private final double[] trackZ;
+
+	/** Earth central angle (rad) under which a site is considered reachable. */
+	private final double reachAngle;
+
+	/** Cosine of the reach angle. */
+	private final double cosReachAngle;
+
+	/**
+	 * Samples the ground track of the mission satellite over the mission horizon.
+	 *
+	 * @param mission Input mission
+	 * @throws PatriusException if the propagation or the frame conversions fail
+	 */
+	public GroundTrackFilter(final SimpleMission mission) throws PatriusException {
+		this(mission, new AbsoluteDateInterval(mission.getStartDate(), mission.getEndDate()));
+	}
+
+	/**
+	 * Samples the ground track of the mission satellite over the input horizon.
+	 *
+	 * @param mission  Input mission
+	 * @param interval Sampled horizon
+	 * @throws PatriusException if the propagation or the frame conversions fail
+	 */
+	public GroundTrackFilter(final SimpleMission mission, final AbsoluteDateInterval interval)
+			throws PatriusException {
+
+		final KeplerianPropagator propagator = mission.createDefaultPropagator();
+		final Frame earthFrame = mission.getEarth().getBodyFrame();
+		final AbsoluteDate start = interval.getLowerData();
+		final double horizon = interval.getUpperData().durationFrom(start);
+		final int nbSamples = (int) FastMath.ceil(horizon / SAMPLING_STEP) + 1;
+
+		this.trackX = new double[nbSamples];
+		this.trackY = new double[nbSamples];
+		this.trackZ = new double[nbSamples];
+		for (int k = 0; k < nbSamples; k++) {
+			final double dt = FastMath.min(k * SAMPLING_STEP, horizon);
+			final Vector3D position = propagator.getPVCoordinates(start.shiftedBy(dt), earthFrame).getPosition();
+			final double norm = position.getNorm();
+			this.trackX[k] = position.getX() / norm;
+			this.trackY[k] = position.getY() / norm;
+			this.trackZ[k] = position.getZ() / norm;
+		}
+
+		// Angular speed of the sub-satellite point with respect to the Earth, bounded
+		// by the sum of the orbital and Earth rotation rates
+		final double groundRate = mission.getSatellite().getInitialOrbit().getKeplerianMeanMotion()
+				+ Constants.WGS84_EARTH_ANGULAR_VELOCITY;
+		this.reachAngle = computeSwathHalfAngle() + 0.5 * groundRate * SAMPLING_STEP;
+		this.cosReachAngle = FastMath.cos(FastMath.min(this.reachAngle, FastMath.PI));
+	}
+
+	/**
+	 * Computes the Earth central angle between the sub-satellite point and the
+	 * edge of the ground swath of the agility cone, using
+	 * {@link ConstantsBE#ALTITUDE} and {@link ConstantsBE#POINTING_CAPACITY}. If
+	 * the cone goes beyond the Earth limb, the swath is limited by the horizon.
+	 *
+	 * @return the swath half-angle (rad)
+	 */
+	public static double computeSwathHalfAngle() {
+		final double orbitRadius = EARTH_RADIUS + ConstantsBE.ALTITUDE;
+		final double offNadir = FastMath.toRadians(ConstantsBE.POINTING_CAPACITY);
+		final double sinEarthAngle = orbitRadius / EARTH_RADIUS * FastMath.sin(offNadir);
+		if (sinEarthAngle >= 1.) {
+			// The cone sees the whole visible cap of the Earth
+			return FastMath.acos(EARTH_RADIUS / orbitRadius);
+		}
+		return FastMath.asin(sinEarthAngle) - offNadir;
+	}
+
+	/**
+	 * Checks whether the input {@link Site} can fall inside the ground swath
+	 * during the mission horizon.
+	 *
+	 * @param site Input {@link Site}
+	 * @return true if the site may be reachable, false if it is never reachable
+	 */
+	public boolean isReachable(final Site site) {
+		final GeodeticPoint point = site.getPoint();
+		final double cosLat = FastMath.cos(point.getLatitude());
+		final double x = cosLat * FastMath.cos(point.getLongitude());
+		final double y = cosLat * FastMath.sin(point.getLongitude());
+		final double z = FastMath.sin(point.getLatitude());
+		for (int k = 0; k < this.trackX.length; k++) {
+			if (x * this.trackX[k] + y * this.trackY[k] + z * this.trackZ[k] >= this.cosReachAngle) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Splits the input sites between the reachable and the unreachable ones.
+	 *
+	 * The sites are indexed in a {@link SiteGridIndex} : each ground track sample
+	 * only visits the sites lying under its swath, instead of the whole list.
+	 *
+	 * @param sites       Input sites
+	 * @param unreachable List filled with the sites that are never reachable
+	 * @return the sites that may be reachable, in the input order
+	 */
+	public List<Site> filter(final List<Site> sites, final List<Site> unreachable) {
+		final SiteGridIndex index = new SiteGridIndex(sites);
+		final boolean[] reached = new boolean[index.size()];
+		for (int k = 0; k < this.trackX.length; k++) {
+			final double latitude = FastMath.asin(FastMath.max(-1., FastMath.min(1., this.trackZ[k])));
+			final double longitude = FastMath.atan2(this.trackY[k], this.trackX[k]);
+			index.forEachSiteWithin(latitude, longitude, this.reachAngle, i -> reached[i] = true);
+		}
+
+		final List<Site> reachable = new ArrayList<>(sites.size());
+		for (int i = 0; i < index.size(); i++) {
+			if (reached[i]) {
+				reachable.add(index.getSite(i));
+			} else {
+				unreachable.add(index.getSite(i));
+			}
+		}
+		return reachable;
+	}
+
+	/**
+	 * @return the reachAngle (rad)
+	 */
+	public double getReachAngle() {
+		return this.reachAngle;
+	}
+}
@@ -0,0 +1,258 @@
+package progmission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import fr.cnes.sirius.patrius.bodies.GeodeticPoint;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.time.AbsoluteDateInterval;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import reader.Site;
+import utils.ConstantsBE;
+import utils.IntervalSet;
+
+/**
+ * Computes the illumination windows of the {@link Site}s, when the Sun
+ * incidence at the site is below {@link ConstantsBE#MAX_SUN_INCIDENCE_ANGLE},
+ * without the satellite.
+ *
+ * The illumination only depends on the site and on the Sun : it is computed
+ * from the {@link SunEphemerisTable} and the {@link EarthOrientationCache} of
+ * the mission, by sampling the angle Earth center - site - Sun every
+ * {@link #SAMPLING_STEP} and locating its crossings of the threshold by
+ * bisection down to the convergence threshold of the {@link DetectionProfile}. It is the
+ * constraint of the illumination detector of the {@link CompleteMission}.
+ *
+ * Nearby sites share the sampling work : the windows are first computed at the
+ * center of the latitude / longitude cell of the site, once per cell, and each
+ * bound is then refined for the site itself by a bisection in a bracket of
+ * {@link #REFINEMENT_MARGIN} around the bound of the cell. If a bound can't be
+ * bracketed (the site and the cell center don't have the same number of
+ * windows, near the polar days and nights), the windows of the site are
+ * sampled directly. A window of the site that has no counterpart at the cell
+ * center, which requires a maximum Sun elevation within the cell size of the
+ * threshold, is not detected.
+ *
+ * This class is thread-safe.
+ *
+ * @author agent
+ */
+public class IlluminationWindowCalculator {
+
+	/** Default size of the cells sharing the sampling work (deg). */
+	public static final double DEFAULT_CELL_SIZE = 0.1;
+
+	/** Sampling step of the illumination constraint (s). */
+	public static final double SAMPLING_STEP = 300.;
+
+	/**
+	 * Half-width of the bracket refining the bounds of a cell for a site of the
+	 * cell (s). The Earth rotates by one degree of longitude in 240 s.
+	 */
+	public static final double REFINEMENT_MARGIN = 600.;
+
+	/** Mission whose Earth and Sun models are used. */
+	private final CompleteMission mission;
+
+	/** Lower bound of the horizon (s from the mission start). */
+	private final double lower;
+
+	/** Upper bound of the horizon (s from the mission start). */
+	private final double upper;
+
+	/** Detection profile setting the Sun ephemeris and the threshold. */
+	private final DetectionProfile profile;
+
+	/** Size of the cells (deg). */
+	private final double cellSize;
+
+	/** Cosine of the minimum angle Earth center - site - Sun. */
+	private final double cosIllumination;
+
+	/** Illumination windows of the cell centers already computed. */
+	private final ConcurrentMap<Long, IntervalSet> cellWindows = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor with the {@link #DEFAULT_CELL_SIZE}.
+	 *
+	 * @param mission Mission whose Earth and Sun models are used
+	 * @param horizon Horizon of the windows
+	 * @param profile Detection profile setting the Sun ephemeris and the
+	 *                convergence threshold
+	 */
+	public IlluminationWindowCalculator(final CompleteMission mission, final AbsoluteDateInterval horizon,
+			final DetectionProfile profile) {
+		this(mission, horizon, profile, DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param mission  Mission whose Earth and Sun models are used
+	 * @param horizon  Horizon of the windows
+	 * @param profile  Detection profile setting the Sun ephemeris and the
+	 *                 convergence threshold
+	 * @param cellSize Size of the cells sharing the sampling work (deg)
+	 */
+	public IlluminationWindowCalculator(final CompleteMission mission, final AbsoluteDateInterval horizon,
+			final DetectionProfile profile, final double cellSize) {
+		if (!(cellSize > 0.)) {
+			throw new IllegalArgumentException("The cell size must be strictly positive");
+		}
+		this.mission = mission;
+		this.lower = horizon.getLowerData().durationFrom(mission.getStartDate());
+		this.upper = horizon.getUpperData().durationFrom(mission.getStartDate());
+		this.profile = profile;
+		this.cellSize = cellSize;
+		this.cosIllumination = FastMath.cos(FastMath.toRadians(180. - ConstantsBE.MAX_SUN_INCIDENCE_ANGLE));
+	}
+
+	/**
+	 * Computes the illumination windows of a site over the horizon.
+	 *
+	 * @param site Input site
+	 * @return the illumination windows, as offsets from the mission start date
+	 * @throws PatriusException if the Sun position can't be computed
+	 */
+	public IntervalSet computeWindows(final Site site) throws PatriusException {
+		final Vector3D position = this.mission.getSiteGeometries().getGeometry(site).getPosition();
+		final IntervalSet cell = this.getCellWindows(site.getPoint());
+
+		// Refining each bound of the cell for the site
+		final double[] bounds = cell.getBounds();
+		for (int i = 0; i < bounds.length; i++) {
+			final boolean rising = i % 2 == 0;
+			final double bound = bounds[i];
+			if (bound == this.lower || bound == this.upper) {
+				// Bound of the horizon : the site must be illuminated at it too
+				if (!this.isIlluminated(position, bound)) {
+					return this.sampleWindows(position);
+				}
+				continue;
+			}
+			final double before = FastMath.max(this.lower, bound - REFINEMENT_MARGIN);
+			final double after = FastMath.min(this.upper, bound + REFINEMENT_MARGIN);
+			if (this.isIlluminated(position, before) == rising || this.isIlluminated(position, after) != rising) {
+				return this.sampleWindows(position);
+			}
+			bounds[i] = this.locateChange(position, before, after, !rising);
+			if (i > 0 && !(bounds[i] > bounds[i - 1])) {
+				return this.sampleWindows(position);
+			}
+		}
+		return IntervalSet.of(this.mission.getStartDate(), bounds);
+	}
+
+	/**
+	 * Gets the illumination windows of the center of the cell of a point,
+	 * computed on the first request.
+	 *
+	 * @param point Input point
+	 * @return the windows of the center of the cell
+	 * @throws PatriusException if the Sun position can't be computed
+	 */
+	private IntervalSet getCellWindows(final GeodeticPoint point) throws PatriusException {
+		final long latIndex = (long) FastMath.floor(FastMath.toDegrees(point.getLatitude()) / this.cellSize);
+		final long lonIndex = (long) FastMath.floor(FastMath.toDegrees(point.getLongitude()) / this.cellSize);
+		final Long key = (latIndex << 32) | (lonIndex & 0xffffffffL);
+		IntervalSet windows = this.cellWindows.get(key);
+		if (windows == null) {
+			final GeodeticPoint center = new GeodeticPoint(FastMath.toRadians((latIndex + 0.5) * this.cellSize),
+					FastMath.toRadians((lonIndex + 0.5) * this.cellSize), 0.);
+			windows = this.sampleWindows(this.mission.getEarth().transform(center));
+			final IntervalSet previous = this.cellWindows.putIfAbsent(key, windows);
+			if (previous != null) {
+				windows = previous;
+			}
+		}
+		return windows;
+	}
+
+	/**
+	 * Computes the illumination windows of a point by sampling the constraint
+	 * over the horizon.
+	 *
+	 * @param position Position of the point in the Earth body frame
+	 * @return the illumination windows, as offsets from the mission start date
+	 * @throws PatriusException if the Sun position can't be computed
+	 */
+	private IntervalSet sampleWindows(final Vector3D position) throws PatriusException {
+		final IntervalSet.Builder builder = new IntervalSet.Builder(this.mission.getStartDate());
+		final int nbSteps = (int) FastMath.max(1., FastMath.ceil((this.upper - this.lower) / SAMPLING_STEP));
+		final double step = (this.upper - this.lower) / nbSteps;
+
+		double previousTime = this.lower;
+		boolean previousActive = this.isIlluminated(position, this.lower);
+		double start = this.lower;
+		for (int k = 1; k <= nbSteps; k++) {
+			final double time = k == nbSteps ? this.upper : this.lower + k * step;
+			final boolean active = this.isIlluminated(position, time);
+			if (active != previousActive) {
+				final double change = this.locateChange(position, previousTime, time, previousActive);
+				if (active) {
+					start = change;
+				} else {
+					builder.add(start, change);
+				}
+			}
+			previousTime = time;
+			previousActive = active;
+		}
+		if (previousActive) {
+			builder.add(start, this.upper);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Locates by bisection the change of illumination of a point between two
+	 * dates.
+	 *
+	 * @param position     Position of the point in the Earth body frame
+	 * @param before       Offset (s) before the change
+	 * @param after        Offset (s) after the change
+	 * @param activeBefore Illumination of the point before the change
+	 * @return the offset (s) of the change
+	 * @throws PatriusException if the Sun position can't be computed
+	 */
+	private double locateChange(final Vector3D position, final double before, final double after,
+			final boolean activeBefore) throws PatriusException {
+		double low = before;
+		double high = after;
+		while (high - low > this.profile.getThreshold()) {
+			final double middle = 0.5 * (low + high);
+			if (this.isIlluminated(position, middle) == activeBefore) {
+				low = middle;
+			} else {
+				high = middle;
+			}
+		}
+		return 0.5 * (low + high);
+	}
+
+	/**
+	 * Evaluates the illumination of a point.
+	 *
+	 * @param position Position of the point in the Earth body frame
+	 * @param offset   Offset (s) from the mission start date
+	 * @return true if the angle Earth center - point - Sun is above its minimum
+	 * @throws PatriusException if the Sun position can't be computed
+	 */
+	private boolean isIlluminated(final Vector3D position, final double offset) throws PatriusException {
+		final AbsoluteDate date = this.mission.getStartDate().shiftedBy(offset);
+		final EarthOrientationCache earthOrientation = this.mission.getEarthOrientation();
+		final Vector3D sun = earthOrientation.toBody(date, this.mission.getSunCoordinates(this.profile)
+				.getPVCoordinates(date, earthOrientation.getInertialFrame()).getPosition());
+		final Vector3D toSun = sun.subtract(position);
+		return -Vector3D.dotProduct(position, toSun) / (position.getNorm() * toSun.getNorm()) < this.cosIllumination;
+	}
+
+	/**
+	 * @return the number of cells computed so far
+	 */
+	public int getCellCount() {
+		return this.cellWindows.size();
+	}
+}
@@ -0,0 +1,431 @@
+package progmission;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+
+import fr.cnes.sirius.patrius.attitudes.AttitudeLawLeg;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import progmission.SiteGeometryRegistry.SiteGeometry;
+import reader.Site;
+import utils.ConstantsBE;
+import utils.LogUtils;
+
+/**
+ * Scheduler of the observations as a longest path in the directed acyclic
+ * graph of the candidates of a {@link ConflictGraph}.
+ *
+ * The candidates are sorted by start date, and a candidate can follow another
+ * one if it starts after its end and they are not in conflict. The weight of a
+ * candidate is the score of its site times the quality factor of
+ * {@link SimpleMission#computeFinalScore(Map)}, the cosine of the incidence
+ * angle at the middle of the observation. Without the one observation per
+ * site constraint, the best plan is a longest path, found by dynamic
+ * programming in one pass over the candidates : the predecessors further than
+ * {@link Satellite#getMaxSlewDuration()} are summarized by their best path,
+ * and a closer predecessor is only checked if its path is better, the other
+ * ones being dominated.
+ *
+ * The one observation per site constraint is relaxed with a Lagrangian
+ * penalty per site, subtracted from the weights of its candidates and updated
+ * by subgradient steps. Each path gives an upper bound of the best plan, and
+ * is repaired into a feasible plan, a lower bound, by keeping the best
+ * candidate of each site. The iterations stop when the gap between both
+ * bounds is within the tolerance : the plan is then optimal up to the
+ * tolerance, and the upper bound measures the quality of any other plan, such
+ * as the one of the {@link ObservationScheduler}.
+ *
+ * A scheduler is not thread-safe.
+ *
+ * @author agent
+ */
+public class LongestPathScheduler {
+
+	/** Default maximum number of subgradient iterations. */
+	public static final int DEFAULT_MAX_ITERATIONS = 200;
+
+	/** Default relative gap between the bounds to stop the iterations. */
+	public static final double DEFAULT_TOLERANCE = 1.e-3;
+
+	/** Number of iterations without improvement of the upper bound before halving the step. */
+	private static final int STALL_ITERATIONS = 10;
+
+	/**
+	 * Logger for this class.
+	 */
+	private final Logger logger = LogUtils.GLOBAL_LOGGER;
+
+	/** Mission providing the orbit and the site geometries, null for explicit weights. */
+	private final CompleteMission mission;
+
+	/** Maximum slew duration (s) : the candidates further apart can't be in conflict. */
+	private final double maxSlewDuration;
+
+	/** Conflict graph of the candidates. */
+	private final ConflictGraph graph;
+
+	/** Sites of the candidates. */
+	private final List<Site> sites = new ArrayList<>();
+
+	/** Index of the site of each candidate. */
+	private final int[] siteIndices;
+
+	/** Weight of each candidate. */
+	private final double[] weights;
+
+	/** Start of each candidate (s from the mission start). */
+	private final double[] starts;
+
+	/** End of each candidate (s from the mission start). */
+	private final double[] ends;
+
+	/** Maximum number of subgradient iterations. */
+	private int maxIterations = DEFAULT_MAX_ITERATIONS;
+
+	/** Relative gap between the bounds to stop the iterations. */
+	private double tolerance = DEFAULT_TOLERANCE;
+
+	/** Best upper bound of the plan weight. */
+	private double upperBound = Double.POSITIVE_INFINITY;
+
+	/** Weight of the best feasible plan. */
+	private double lowerBound;
+
+	/** Candidates of the best feasible plan, by increasing index. */
+	private int[] bestPlan = new int[0];
+
+	/**
+	 * Constructor : computes the weights of the candidates.
+	 *
+	 * @param mission Mission providing the orbit and the site geometries
+	 * @param graph   Conflict graph of the candidates
+	 * @throws PatriusException if the Earth orientation can't be computed
+	 */
+	public LongestPathScheduler(final CompleteMission mission, final ConflictGraph graph) throws PatriusException {
+		this(mission, graph, new double[graph.size()], mission.getSatellite().getMaxSlewDuration());
+		for (int i = 0; i < graph.size(); i++) {
+			this.weights[i] = this.computeWeight(graph.getCandidate(i));
+		}
+	}
+
+	/**
+	 * Constructor with explicit weights, such as a small hand-built instance.
+	 * The weights of other plans can't be computed.
+	 *
+	 * @param graph           Conflict graph of the candidates
+	 * @param weights         Weight of each candidate
+	 * @param maxSlewDuration Maximum slew duration (s) : the candidates further
+	 *                        apart must not be in conflict
+	 * @throws IllegalArgumentException if the number of weights doesn't match the
+	 *                                  number of candidates
+	 */
+	public LongestPathScheduler(final ConflictGraph graph, final double[] weights, final double maxSlewDuration) {
+		this(null, graph, weights.clone(), maxSlewDuration);
+		if (weights.length != graph.size()) {
+			throw new IllegalArgumentException("The number of weights must match the number of candidates");
+		}
+	}
+
+	/**
+	 * Constructor : indexes the sites and the dates of the candidates.
+	 *
+	 * @param mission         Mission providing the orbit and the site
+	 *                        geometries, null for explicit weights
+	 * @param graph           Conflict graph of the candidates
+	 * @param weights         Weight of each candidate, kept by reference
+	 * @param maxSlewDuration Maximum slew duration (s)
+	 */
+	private LongestPathScheduler(final CompleteMission mission, final ConflictGraph graph, final double[] weights,
+			final double maxSlewDuration) {
+		this.mission = mission;
+		this.graph = graph;
+		this.weights = weights;
+		this.maxSlewDuration = maxSlewDuration;
+		final int n = graph.size();
+		this.siteIndices = new int[n];
+		this.starts = new double[n];
+		this.ends = new double[n];
+		final Map<Site, Integer> indices = new HashMap<>();
+		for (int i = 0; i < n; i++) {
+			final ObservationCandidate candidate = graph.getCandidate(i);
+			Integer index = indices.get(candidate.getSite());
+			if (index == null) {
+				index = this.sites.size();
+				indices.put(candidate.getSite(), index);
+				this.sites.add(candidate.getSite());
+			}
+			this.siteIndices[i] = index;
+			this.starts[i] = candidate.getStart().durationFrom(graph.getCandidate(0).getStart());
+			this.ends[i] = candidate.getEnd().durationFrom(graph.getCandidate(0).getStart());
+		}
+	}
+
+	/**
+	 * Schedules at most one observation per site, maximizing the weight of the
+	 * plan.
+	 *
+	 * @return the observation leg of each scheduled site, in chronological order
+	 */
+	public Map<Site, AttitudeLawLeg> schedule() {
+		final int n = this.graph.size();
+		final double[] penalties = new double[this.sites.size()];
+		final int[] counts = new int[this.sites.size()];
+		final int[] path = new int[n];
+		final double[] best = new double[n];
+		final int[] previous = new int[n];
+		this.upperBound = Double.POSITIVE_INFINITY;
+		this.lowerBound = 0.;
+		this.bestPlan = new int[0];
+
+		double step = 2.;
+		int stall = 0;
+		int iteration = 0;
+		while (iteration < this.maxIterations) {
+			iteration++;
+			final int length = this.computeLongestPath(penalties, best, previous, path);
+			double bound = length > 0 ? best[path[length - 1]] : 0.;
+			for (final double penalty : penalties) {
+				bound += penalty;
+			}
+			if (bound < this.upperBound) {
+				this.upperBound = bound;
+				stall = 0;
+			} else if (++stall >= STALL_ITERATIONS) {
+				step *= 0.5;
+				stall = 0;
+			}
+			this.repair(path, length);
+			if (this.upperBound - this.lowerBound <= this.tolerance * this.upperBound) {
+				break;
+			}
+
+			// Subgradient of the relaxed constraints : 1 - number of visits of each site
+			Arrays.fill(counts, 0);
+			for (int k = 0; k < length; k++) {
+				counts[this.siteIndices[path[k]]]++;
+			}
+			double norm = 0.;
+			for (int s = 0; s < counts.length; s++) {
+				if (counts[s] > 1 || penalties[s] > 0. && counts[s] == 0) {
+					norm += (1 - counts[s]) * (1 - counts[s]);
+				}
+			}
+			if (norm == 0.) {
+				// The path visits each site once and the penalties are tight : optimal
+				this.upperBound = FastMath.min(this.upperBound, this.lowerBound);
+				break;
+			}
+			final double stepLength = step * (bound - this.lowerBound) / norm;
+			for (int s = 0; s < counts.length; s++) {
+				penalties[s] = FastMath.max(0., penalties[s] - stepLength * (1 - counts[s]));
+			}
+		}
+		logger.info("Longest path scheduling : " + this.bestPlan.length + " observations out of " + n
+				+ " candidates, weight " + this.lowerBound + ", upper bound " + this.upperBound + " after "
+				+ iteration + " iterations");
+
+		final Map<Site, AttitudeLawLeg> legs = new LinkedHashMap<>();
+		for (final int index : this.bestPlan) {
+			legs.put(this.graph.getCandidate(index).getSite(), this.graph.getCandidate(index).createLeg());
+		}
+		return legs;
+	}
+
+	/**
+	 * Computes the longest path of the candidates with the penalized weights, by
+	 * dynamic programming over the candidates sorted by start date. As all the
+	 * candidates have the same duration, they are sorted by end date too.
+	 *
+	 * @param penalties Penalty of each site
+	 * @param best      Output weight of the best path ending at each candidate
+	 * @param previous  Output predecessor of each candidate in its best path, -1
+	 *                  for none
+	 * @param path      Output path, by increasing index
+	 * @return the number of candidates in the path
+	 */
+	private int computeLongestPath(final double[] penalties, final double[] best, final int[] previous,
+			final int[] path) {
+		final int n = this.graph.size();
+		final double lookAhead = this.maxSlewDuration;
+		// Best path among the predecessors which can't be in conflict
+		double farBest = 0.;
+		int farArg = -1;
+		int far = 0;
+		int last = -1;
+		for (int j = 0; j < n; j++) {
+			while (this.ends[far] + lookAhead <= this.starts[j]) {
+				if (best[far] > farBest) {
+					farBest = best[far];
+					farArg = far;
+				}
+				far++;
+			}
+			double predecessorBest = farBest;
+			int predecessor = farArg;
+			for (int i = far; i < j && this.ends[i] <= this.starts[j]; i++) {
+				// Dominated predecessors are not checked
+				if (best[i] > predecessorBest && !this.graph.areConflicting(i, j)) {
+					predecessorBest = best[i];
+					predecessor = i;
+				}
+			}
+			best[j] = this.weights[j] - penalties[this.siteIndices[j]] + predecessorBest;
+			previous[j] = predecessor;
+			if (last < 0 || best[j] > best[last]) {
+				last = j;
+			}
+		}
+		if (last < 0 || best[last] <= 0.) {
+			return 0;
+		}
+
+		int length = 0;
+		for (int k = last; k >= 0; k = previous[k]) {
+			path[length++] = k;
+		}
+		for (int k = 0; k < length / 2; k++) {
+			final int swap = path[k];
+			path[k] = path[length - 1 - k];
+			path[length - 1 - k] = swap;
+		}
+		return length;
+	}
+
+	/**
+	 * Repairs a path into a feasible plan : the best candidate of each site is
+	 * kept, then the candidates in conflict with the previous kept one are
+	 * removed. The plan replaces the best plan if its weight is higher.
+	 *
+	 * @param path   Input path, by increasing index
+	 * @param length Number of candidates in the path
+	 */
+	private void repair(final int[] path, final int length) {
+		final Map<Integer, Integer> kept = new HashMap<>();
+		for (int k = 0; k < length; k++) {
+			final Integer current = kept.get(this.siteIndices[path[k]]);
+			if (current == null || this.weights[path[k]] > this.weights[current]) {
+				kept.put(this.siteIndices[path[k]], path[k]);
+			}
+		}
+		final int[] plan = new int[kept.size()];
+		int size = 0;
+		double weight = 0.;
+		for (int k = 0; k < length; k++) {
+			final int index = path[k];
+			if (kept.get(this.siteIndices[index]) != index) {
+				continue;
+			}
+			if (size > 0 && this.graph.areConflicting(plan[size - 1], index)) {
+				continue;
+			}
+			plan[size++] = index;
+			weight += this.weights[index];
+		}
+		if (weight > this.lowerBound) {
+			this.lowerBound = weight;
+			this.bestPlan = Arrays.copyOf(plan, size);
+		}
+	}
+
+	/**
+	 * Computes the weight of a candidate : the score of its site times the cosine
+	 * of the incidence angle at the middle of the observation.
+	 *
+	 * @param candidate Input candidate
+	 * @return the weight
+	 * @throws PatriusException     if the Earth orientation can't be computed
+	 * @throws IllegalStateException if the scheduler has explicit weights
+	 */
+	public double computeWeight(final ObservationCandidate candidate) throws PatriusException {
+		if (this.mission == null) {
+			throw new IllegalStateException("The weights of a scheduler without mission can't be computed");
+		}
+		final AbsoluteDate middle = candidate.getStart().shiftedBy(0.5 * ConstantsBE.INTEGRATION_TIME);
+		final double[] satellite = new double[3];
+		this.mission.getPlanningPropagator().propagate(middle, satellite, null);
+		this.mission.getEarthOrientation().toBody(middle, satellite, satellite, new double[9]);
+		final SiteGeometry geometry = this.mission.getSiteGeometries().getGeometry(candidate.getSite());
+		final Vector3D line = new Vector3D(satellite[0], satellite[1], satellite[2])
+				.subtract(geometry.getPosition());
+		return candidate.getSite().getScore() * Vector3D.dotProduct(geometry.getZenith(), line)
+				/ (geometry.getZenith().getNorm() * line.getNorm());
+	}
+
+	/**
+	 * Computes the weight of a plan, to compare it with the bounds.
+	 *
+	 * @param plan Observations of the plan, one per site
+	 * @return the sum of the weights of the observations
+	 * @throws PatriusException     if the Earth orientation can't be computed
+	 * @throws IllegalStateException if the scheduler has explicit weights
+	 */
+	public double computeWeight(final Collection<ObservationCandidate> plan) throws PatriusException {
+		double weight = 0.;
+		for (final ObservationCandidate candidate : plan) {
+			weight += this.computeWeight(candidate);
+		}
+		return weight;
+	}
+
+	/**
+	 * Sets the maximum number of subgradient iterations.
+	 *
+	 * @param maxIterations Maximum number of iterations
+	 * @throws IllegalArgumentException if the number is not strictly positive
+	 */
+	public void setMaxIterations(final int maxIterations) {
+		if (maxIterations < 1) {
+			throw new IllegalArgumentException("The maximum number of iterations must be strictly positive");
+		}
+		this.maxIterations = maxIterations;
+	}
+
+	/**
+	 * Sets the relative gap between the bounds to stop the iterations.
+	 *
+	 * @param tolerance Relative gap, 0 to iterate until the maximum number of
+	 *                  iterations unless the plan is proven optimal
+	 * @throws IllegalArgumentException if the tolerance is negative
+	 */
+	public void setTolerance(final double tolerance) {
+		if (tolerance < 0.) {
+			throw new IllegalArgumentException("The tolerance must be positive");
+		}
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * @return the candidates of the best feasible plan, in chronological order,
+	 *         after {@link #schedule()}
+	 */
+	public List<ObservationCandidate> getPlan() {
+		final List<ObservationCandidate> plan = new ArrayList<>(this.bestPlan.length);
+		for (final int index : this.bestPlan) {
+			plan.add(this.graph.getCandidate(index));
+		}
+		return plan;
+	}
+
+	/**
+	 * @return the best upper bound of the plan weight, after {@link #schedule()}
+	 */
+	public double getUpperBound() {
+		return this.upperBound;
+	}
+
+	/**
+	 * @return the weight of the best feasible plan, after {@link #schedule()}
+	 */
+	public double getLowerBound() {
+		return this.lowerBound;
+	}
+}
@@ -0,0 +1,989 @@
+package progmission;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.slf4j.Logger;
+
+import fr.cnes.sirius.patrius.events.CodedEventsLogger;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.time.AbsoluteDateInterval;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import reader.Site;
+import utils.IntervalSet;
+import utils.LogUtils;
+
+/**
+ * Access engine computing the access windows of many {@link Site} objects with
+ * a single orbit propagation. The windows are {@link IntervalSet} objects,
+ * offsets from the mission start date.
+ *
+ * The visibility detectors of every site are added to one
+ * {@link PropagationSession}, each of them monitored by its own
+ * {@link CodedEventsLogger}. The orbit is then propagated once over the mission
+ * horizon : the cost of the computation is one orbit sweep plus the evaluation
+ * of the g functions of each site, instead of one full propagation per site.
+ * The illumination windows don't depend on the satellite and are computed
+ * separately, see {@link IlluminationWindowCalculator}. The dazzling
+ * constraint is only evaluated inside the visible and illuminated windows, see
+ * {@link ConstraintWindowScanner}.
+ *
+ * The sites can also be split across a {@link ForkJoinPool}, see
+ * {@link #computeAccessWindows(List, ForkJoinPool)}, and the windows can be
+ * streamed to an {@link AccessPlanListener} instead of being gathered in a map,
+ * see {@link #streamAccessWindows(List, AccessPlanListener)}.
+ *
+ * Before any detector is built, the sites are pre-filtered with a
+ * {@link GroundTrackFilter} : the sites the satellite can never reach get an
+ * empty set of access windows without any propagation work.
+ *
+ * With the {@link VisibilityModel#CONE} visibility model, no detector is built
+ * at all : the orbit is sampled once and all the constraints of all the sites
+ * are evaluated together at each sample by a {@link SiteBatchEvaluator}. On
+ * long horizons, the ground-track repeat cycle of the orbit can then be
+ * exploited, see {@link #setRepeatCycleReuse(boolean)}. Alternatively, the
+ * passes of the satellite over each site can be predicted from the orbital
+ * motion, and the constraints only evaluated inside them, see
+ * {@link #setPassPrediction(boolean)}.
+ *
+ * @author agent
+ */
+public class MultiSiteAccessEngine {
+
+	/**
+	 * Number of chunks given to each worker thread on average when computing in
+	 * parallel. A few chunks per thread balance the load when some sites are more
+	 * expensive than others.
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/**
+	 * Maximum number of sites propagated together when streaming the access
+	 * windows. It bounds the memory used by the detectors and loggers.
+	 */
+	public static final int STREAMING_CHUNK_SIZE = 512;
+
+	/**
+	 * Half-width of the bracket refining the visibility window bounds predicted
+	 * from the previous repeat cycle (s). It covers the shift of the bounds due to
+	 * the ground track drift over one cycle.
+	 */
+	public static final double REPEAT_REFINEMENT_MARGIN = 300.;
+
+	/** Inverse of the golden ratio, reduction factor of the golden-section search. */
+	private static final double GOLDEN_SECTION = 0.5 * (FastMath.sqrt(5.) - 1.);
+
+	/**
+	 * Logger for this class.
+	 */
+	private final Logger logger = LogUtils.GLOBAL_LOGGER;
+
+	/** Mission providing the detectors. */
+	private final CompleteMission mission;
+
+	/** Propagation horizon. */
+	private final AbsoluteDateInterval horizon;
+
+	/** Detection profile of the constraints. */
+	private final DetectionProfile profile;
+
+	/** Calculator of the illumination windows over the horizon. */
+	private final IlluminationWindowCalculator illumination;
+
+	/** True to predict the visibility windows from the ground-track repeat cycle. */
+	private boolean repeatCycleReuse = false;
+
+	/** True to search the access windows inside the predicted passes only. */
+	private boolean passPrediction = false;
+
+	/**
+	 * Constructor for the {@link MultiSiteAccessEngine} class, propagating over
+	 * the mission horizon.
+	 *
+	 * @param mission Mission providing the detectors and the mission horizon
+	 */
+	public MultiSiteAccessEngine(final CompleteMission mission) {
+		this(mission, new AbsoluteDateInterval(mission.getStartDate(), mission.getEndDate()));
+	}
+
+	/**
+	 * Constructor for the {@link MultiSiteAccessEngine} class, propagating over
+	 * the input horizon with the detection profile of the mission. The access
+	 * windows are still given as offsets from the mission start date.
+	 *
+	 * @param mission Mission providing the detectors
+	 * @param horizon Propagation horizon, for instance an extension of the
+	 *                mission horizon
+	 */
+	public MultiSiteAccessEngine(final CompleteMission mission, final AbsoluteDateInterval horizon) {
+		this(mission, horizon, mission.getDetectionProfile());
+	}
+
+	/**
+	 * Constructor for the {@link MultiSiteAccessEngine} class, propagating over
+	 * the input horizon with the input detection profile.
+	 *
+	 * @param mission Mission providing the detectors
+	 * @param horizon Propagation horizon
+	 * @param profile Detection profile of the constraints
+	 */
+	public MultiSiteAccessEngine(final CompleteMission mission, final AbsoluteDateInterval horizon,
+			final DetectionProfile profile) {
+		this.mission = mission;
+		this.horizon = horizon;
+		this.profile = profile;
+		this.illumination = new IlluminationWindowCalculator(mission, horizon, profile);
+	}
+
+	/**
+	 * Computes the access windows of all the input sites with one
+	 * propagation over the mission horizon.
+	 *
+	 * @param sites Input target sites
+	 * @return the access windows of each {@link Site}
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          propagation or the post-processing
+	 */
+	public Map<Site, IntervalSet> computeAccessWindows(final List<Site> sites) throws PatriusException {
+		final Map<Site, IntervalSet> windows = new LinkedHashMap<>();
+		final List<Site> reachableSites = this.filterReachableSites(sites, windows::put);
+		this.computeAccessWindows(reachableSites, this.mission.getSatellite(), windows::put);
+		return windows;
+	}
+
+	/**
+	 * Computes the access windows of all the input sites and pushes them to the
+	 * input listener as soon as they are available, without keeping them.
+	 *
+	 * The sites are propagated by chunks of {@link #STREAMING_CHUNK_SIZE} sites :
+	 * the memory used by the detectors and loggers is bounded by the chunk size,
+	 * whatever the number of sites.
+	 *
+	 * @param sites    Input target sites
+	 * @param listener Listener receiving the access windows of each {@link Site}
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          propagation or the post-processing
+	 */
+	public void streamAccessWindows(final List<Site> sites, final AccessPlanListener listener)
+			throws PatriusException {
+		final List<Site> reachableSites = this.filterReachableSites(sites, listener);
+		for (int from = 0; from < reachableSites.size(); from += STREAMING_CHUNK_SIZE) {
+			final int to = Math.min(from + STREAMING_CHUNK_SIZE, reachableSites.size());
+			this.computeAccessWindows(reachableSites.subList(from, to), this.mission.getSatellite(), listener);
+		}
+	}
+
+	/**
+	 * Computes the access windows of all the input sites in parallel.
+	 *
+	 * The site list is split recursively across the input {@link ForkJoinPool}.
+	 * Each chunk is computed with a single propagation by a worker owning its own
+	 * {@link Satellite} (and thus its own {@link fr.cnes.sirius.patrius.assembly.Assembly}
+	 * used by the sensor models), {@link PropagationSession} and detectors. The
+	 * results are merged into a concurrent map.
+	 *
+	 * @param sites Input target sites
+	 * @param pool  Pool running the computation
+	 * @return the access windows of each {@link Site}
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          propagation or the post-processing
+	 */
+	public ConcurrentMap<Site, IntervalSet> computeAccessWindows(final List<Site> sites, final ForkJoinPool pool)
+			throws PatriusException {
+		final ConcurrentMap<Site, IntervalSet> windows = new ConcurrentHashMap<>();
+		this.streamAccessWindows(sites, pool, Integer.MAX_VALUE, windows::put);
+		return windows;
+	}
+
+	/**
+	 * Computes the access windows of all the input sites in parallel and pushes
+	 * them to the input listener as soon as they are available, without keeping
+	 * them.
+	 *
+	 * The listener is called concurrently by the worker threads : it must be
+	 * thread-safe. The chunks never exceed {@link #STREAMING_CHUNK_SIZE} sites.
+	 *
+	 * @param sites    Input target sites
+	 * @param pool     Pool running the computation
+	 * @param listener Thread-safe listener receiving the access windows of each
+	 *                 {@link Site}
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          propagation or the post-processing
+	 */
+	public void streamAccessWindows(final List<Site> sites, final ForkJoinPool pool,
+			final AccessPlanListener listener) throws PatriusException {
+		this.streamAccessWindows(sites, pool, STREAMING_CHUNK_SIZE, listener);
+	}
+
+	/**
+	 * Computes the access windows of all the input sites in parallel.
+	 *
+	 * @param sites        Input target sites
+	 * @param pool         Pool running the computation
+	 * @param maxChunkSize Maximum number of sites of a chunk
+	 * @param listener     Thread-safe listener receiving the access windows
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          propagation or the post-processing
+	 */
+	private void streamAccessWindows(final List<Site> sites, final ForkJoinPool pool, final int maxChunkSize,
+			final AccessPlanListener listener) throws PatriusException {
+
+		// The ephemeris and Earth orientation data are loaded lazily by Patrius : we
+		// load them once here so that the workers only read them
+		this.mission.getSun().getPVCoordinates(this.horizon.getLowerData(), this.mission.getEme2000());
+		this.mission.getEarth().getBodyFrame().getTransformTo(this.mission.getEme2000(),
+				this.horizon.getLowerData());
+
+		final List<Site> reachableSites = this.filterReachableSites(sites, listener);
+		final int chunkSize = Math.min(maxChunkSize,
+				Math.max(1, reachableSites.size() / (pool.getParallelism() * CHUNKS_PER_THREAD)));
+		logger.info("Parallel access computation for " + reachableSites.size() + " sites on "
+				+ pool.getParallelism() + " threads");
+		try {
+			pool.invoke(new AccessTask(reachableSites, chunkSize, listener));
+		} catch (final IllegalStateException e) {
+			// Unwrapping the Patrius exception raised by a worker : the pool rethrows the
+			// exception of a worker thread wrapped in a copy of it, so it is searched
+			// along the cause chain
+			for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+				if (cause instanceof PatriusException) {
+					throw (PatriusException) cause;
+				}
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Pre-filters the input sites with a {@link GroundTrackFilter}. The sites that
+	 * are never reachable get an empty set of access windows.
+	 *
+	 * @param sites    Input target sites
+	 * @param listener Listener receiving the empty access windows of the
+	 *                 unreachable sites
+	 * @return the sites that may be reachable
+	 * @throws PatriusException if the ground track sampling fails
+	 */
+	private List<Site> filterReachableSites(final List<Site> sites, final AccessPlanListener listener)
+			throws PatriusException {
+		final GroundTrackFilter filter = new GroundTrackFilter(this.mission, this.horizon);
+		final List<Site> unreachableSites = new ArrayList<>();
+		final List<Site> reachableSites = filter.filter(sites, unreachableSites);
+		for (final Site site : unreachableSites) {
+			listener.siteAccessComputed(site, IntervalSet.empty(this.mission.getStartDate()));
+		}
+		logger.info("Ground track filter : " + reachableSites.size() + " reachable sites out of " + sites.size());
+		return reachableSites;
+	}
+
+	/**
+	 * Computes the access windows of the input sites with one propagation
+	 * of the orbit of the input {@link Satellite}.
+	 *
+	 * Only the visibility detectors are propagated. The visibility windows are
+	 * then intersected with the illumination windows, and the dazzling constraint
+	 * is evaluated inside the remaining windows only, by a
+	 * {@link ConstraintWindowScanner} using the same propagator once the
+	 * visibility detectors are detached.
+	 *
+	 * @param sites     Input target sites
+	 * @param satellite {@link Satellite} used to build the propagator and the
+	 *                  sensor models
+	 * @param listener  Listener receiving the access windows of each site
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          propagation or the post-processing
+	 */
+	private void computeAccessWindows(final List<Site> sites, final Satellite satellite,
+			final AccessPlanListener listener) throws PatriusException {
+		if (sites.isEmpty()) {
+			return;
+		}
+		if (this.profile.getVisibilityModel() == VisibilityModel.CONE) {
+			if (this.passPrediction) {
+				this.computePassAccessWindows(sites, listener);
+			} else {
+				this.computeBatchAccessWindows(sites, listener);
+			}
+			return;
+		}
+
+		// One visibility logger per site, all of them filled during the same
+		// propagation
+		final Map<Site, CodedEventsLogger> visibilityLoggers = new LinkedHashMap<>();
+		try (final PropagationSession session = new PropagationSession(satellite)) {
+			for (final Site site : sites) {
+				visibilityLoggers.put(site, this.mission.addVisibilityDetector(site, session, this.profile));
+			}
+
+			logger.info("Single-pass visibility propagation for " + sites.size() + " sites");
+			session.propagate(this.horizon.getLowerData(), this.horizon.getUpperData());
+
+			// Detaching the visibility detectors : the propagator now only computes the
+			// states requested by the scanner
+			session.clearDetectors();
+			final ConstraintWindowScanner scanner = new ConstraintWindowScanner(session.getPropagator(),
+					this.mission.getStartDate(), this.profile.getMaxCheck(), this.profile.getThreshold());
+
+			// Post-processing of the visibility windows, site by site
+			for (final Entry<Site, CodedEventsLogger> entry : visibilityLoggers.entrySet()) {
+				listener.siteAccessComputed(entry.getKey(), this.mission.createSiteAccessIntervals(entry.getKey(),
+						entry.getValue(), satellite, this.illumination, scanner, this.horizon, this.profile));
+			}
+
+			// Number of samples needed to detect the constraint over the whole horizon,
+			// for comparison
+			final double duration = this.horizon.getUpperData().durationFrom(this.horizon.getLowerData());
+			final long fullHorizonSamples = sites.size() * (long) (duration / this.profile.getMaxCheck());
+			logger.info("Lazy dazzling constraint : " + scanner.getEvaluationCount() + " g evaluations ("
+					+ fullHorizonSamples + " samples over the whole horizon), " + this.illumination.getCellCount()
+					+ " illumination cells");
+		}
+	}
+
+	/**
+	 * Computes the access windows of the input sites by sampling the orbit of the
+	 * mission and evaluating all the constraints of all the sites at each sample
+	 * with a {@link SiteBatchEvaluator}.
+	 *
+	 * If the repeat cycle reuse is enabled and a {@link RepeatCycle} fits at
+	 * least twice in the horizon, only the visibility over the first cycle is
+	 * sampled. The visibility only depends on the ground track, which repeats
+	 * with the cycle, whereas the illumination and dazzling constraints follow
+	 * the Sun : the visibility windows of each following cycle are predicted
+	 * from the windows of the previous one, see
+	 * {@link WindowSearch#predictVisibilityWindows}, and the access windows are
+	 * then searched inside them as inside the predicted passes, see
+	 * {@link WindowSearch#computeAccessWindows}. The sites whose visibility
+	 * can't be predicted are sampled over the whole horizon.
+	 *
+	 * @param sites    Input target sites
+	 * @param listener Listener receiving the access windows of each site
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          Sun or Earth orientation computations
+	 */
+	private void computeBatchAccessWindows(final List<Site> sites, final AccessPlanListener listener)
+			throws PatriusException {
+		final SiteBatchEvaluator evaluator = new SiteBatchEvaluator(sites, this.mission.getSiteGeometries());
+		final double lower = this.horizon.getLowerData().durationFrom(this.mission.getStartDate());
+		final double upper = this.horizon.getUpperData().durationFrom(this.mission.getStartDate());
+
+		RepeatCycle cycle = null;
+		if (this.repeatCycleReuse) {
+			cycle = RepeatCycle.detect(this.mission.getPlanningPropagator(), 0.5 * (upper - lower),
+					RepeatCycle.DEFAULT_MAX_DRIFT);
+			logger.info("Repeat cycle : " + (cycle == null ? "none within half of the horizon" : cycle));
+		}
+		if (cycle == null) {
+			final IntervalSet[] windows = this.sampleBatchWindows(evaluator, lower, upper, false);
+			for (int i = 0; i < windows.length; i++) {
+				listener.siteAccessComputed(sites.get(i), windows[i]);
+			}
+			return;
+		}
+
+		// Sampling the visibility over the first cycle only, and predicting the
+		// following cycles
+		final IntervalSet[] reference = this.sampleBatchWindows(evaluator, lower, lower + cycle.getPeriod(), true);
+		final WindowSearch search = new WindowSearch(evaluator);
+		final List<Site> unpredictedSites = new ArrayList<>();
+		for (int i = 0; i < reference.length; i++) {
+			final IntervalSet visibility = search.predictVisibilityWindows(i, reference[i], cycle.getPeriod(), lower,
+					upper);
+			if (visibility == null) {
+				unpredictedSites.add(sites.get(i));
+			} else {
+				listener.siteAccessComputed(sites.get(i), search.computeAccessWindows(i, sites.get(i), visibility));
+			}
+		}
+		logger.info("Repeat cycle prediction : " + (sites.size() - unpredictedSites.size()) + " sites predicted, "
+				+ unpredictedSites.size() + " sites sampled over the whole horizon, " + search.evaluations
+				+ " constraint evaluations");
+
+		if (!unpredictedSites.isEmpty()) {
+			final IntervalSet[] windows = this.sampleBatchWindows(
+					new SiteBatchEvaluator(unpredictedSites, this.mission.getSiteGeometries()), lower, upper, false);
+			for (int i = 0; i < windows.length; i++) {
+				listener.siteAccessComputed(unpredictedSites.get(i), windows[i]);
+			}
+		}
+	}
+
+	/**
+	 * Computes the access windows of the input sites inside the passes predicted
+	 * by a {@link PassPredictor}.
+	 *
+	 * A visible date of each site is searched inside each predicted pass, from
+	 * the closest approach, and the bounds of the visibility are located by
+	 * bisection on both sides : the passes contain every visible time and the
+	 * visibility is unimodal inside a pass, so that no visibility window is
+	 * missed, see {@link WindowSearch#computeVisibilityWindows}. The access
+	 * windows are then searched inside the visibility windows, see
+	 * {@link WindowSearch#computeAccessWindows}.
+	 *
+	 * @param sites    Input target sites
+	 * @param listener Listener receiving the access windows of each site
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          Sun or Earth orientation computations
+	 */
+	private void computePassAccessWindows(final List<Site> sites, final AccessPlanListener listener)
+			throws PatriusException {
+		final PassPredictor predictor = new PassPredictor(this.mission, this.horizon);
+		final WindowSearch search = new WindowSearch(new SiteBatchEvaluator(sites, this.mission.getSiteGeometries()));
+		long nbPasses = 0;
+		for (int i = 0; i < sites.size(); i++) {
+			final Site site = sites.get(i);
+			final List<PassPredictor.Pass> passes = predictor.predictPasses(site);
+			nbPasses += passes.size();
+			listener.siteAccessComputed(site,
+					search.computeAccessWindows(i, site, search.computeVisibilityWindows(i, passes)));
+		}
+		logger.info("Pass prediction for " + sites.size() + " sites : " + nbPasses + " predicted passes, "
+				+ search.evaluations + " constraint evaluations ("
+				+ search.evaluations / FastMath.max(1, sites.size()) + " per site)");
+	}
+
+	/**
+	 * Computes the access windows, or the visibility windows only, of the sites
+	 * of an evaluator between two dates by sampling the orbit of the mission.
+	 *
+	 * The interval is sampled with the max check interval of the detectors. The
+	 * changes of each site between two samples are then located by bisection
+	 * down to the convergence threshold of the detectors. The satellite
+	 * positions are computed in place by the {@link PlanningPropagator} of the
+	 * mission.
+	 *
+	 * @param evaluator      Evaluator of the site constraints
+	 * @param lower          Offset (s) from the mission start of the first sample
+	 * @param upper          Offset (s) from the mission start of the last sample
+	 * @param visibilityOnly True for the visibility windows, false for the access
+	 *                       windows
+	 * @return the windows of each site of the evaluator
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          Sun or Earth orientation computations
+	 */
+	private IntervalSet[] sampleBatchWindows(final SiteBatchEvaluator evaluator, final double lower,
+			final double upper, final boolean visibilityOnly) throws PatriusException {
+		final int nbSites = evaluator.size();
+		final WindowSearch search = new WindowSearch(evaluator);
+		final double[] visibility = new double[nbSites];
+		final double[] illumination = new double[nbSites];
+		final double[] dazzling = new double[nbSites];
+		final boolean[] accessible = new boolean[nbSites];
+		final double[] starts = new double[nbSites];
+		final IntervalSet.Builder[] builders = new IntervalSet.Builder[nbSites];
+		for (int i = 0; i < nbSites; i++) {
+			builders[i] = new IntervalSet.Builder(this.mission.getStartDate());
+		}
+
+		final int nbSteps = (int) FastMath.max(1., FastMath.ceil((upper - lower) / this.profile.getMaxCheck()));
+		final double step = (upper - lower) / nbSteps;
+
+		logger.info("Batch " + (visibilityOnly ? "visibility" : "access") + " sampling for " + nbSites
+				+ " sites : " + (nbSteps + 1) + " samples");
+		final double[] satellitePosition = new double[3];
+		final double[] sunPosition = new double[3];
+		final double[] matrix = new double[9];
+		long refinements = 0;
+		double previousTime = lower;
+		for (int k = 0; k <= nbSteps; k++) {
+			final double time = k == nbSteps ? upper : lower + k * step;
+			if (visibilityOnly) {
+				this.computeSatellitePosition(time, satellitePosition, matrix);
+			} else {
+				this.computePositions(time, satellitePosition, sunPosition, matrix);
+				evaluator.evaluate(satellitePosition, sunPosition, visibility, illumination, dazzling);
+			}
+			for (int i = 0; i < nbSites; i++) {
+				final boolean active = visibilityOnly ? evaluator.isVisible(i, satellitePosition)
+						: visibility[i] > 0. && illumination[i] > 0. && dazzling[i] < 0.;
+				if (k == 0) {
+					starts[i] = lower;
+				} else if (active != accessible[i]) {
+					final double change = search.locateChange(i, previousTime, time, accessible[i], visibilityOnly);
+					refinements++;
+					if (active) {
+						starts[i] = change;
+					} else {
+						builders[i].add(starts[i], change);
+					}
+				}
+				accessible[i] = active;
+			}
+			previousTime = time;
+		}
+
+		final IntervalSet[] windows = new IntervalSet[nbSites];
+		for (int i = 0; i < nbSites; i++) {
+			if (accessible[i]) {
+				builders[i].add(starts[i], upper);
+			}
+			windows[i] = builders[i].build();
+		}
+		logger.info("Batch sampling : " + refinements + " changes located");
+		return windows;
+	}
+
+	/**
+	 * Computes the satellite and Sun positions in the Earth body frame.
+	 *
+	 * @param offset    Offset (s) from the mission start date
+	 * @param satellite Output satellite position, 3 elements
+	 * @param sun       Output Sun position, 3 elements
+	 * @param matrix    Work array of 9 elements
+	 * @throws PatriusException if the Sun or Earth orientation computation fails
+	 */
+	private void computePositions(final double offset, final double[] satellite, final double[] sun,
+			final double[] matrix) throws PatriusException {
+		final AbsoluteDate date = this.mission.getStartDate().shiftedBy(offset);
+		final EarthOrientationCache earthOrientation = this.mission.getEarthOrientation();
+		this.computeSatellitePosition(offset, satellite, matrix);
+
+		final Vector3D sunPosition = this.mission.getSunCoordinates(this.profile)
+				.getPVCoordinates(date, earthOrientation.getInertialFrame()).getPosition();
+		sun[0] = sunPosition.getX();
+		sun[1] = sunPosition.getY();
+		sun[2] = sunPosition.getZ();
+		earthOrientation.toBody(date, sun, sun, matrix);
+	}
+
+	/**
+	 * Computes the satellite position in the Earth body frame.
+	 *
+	 * @param offset    Offset (s) from the mission start date
+	 * @param satellite Output satellite position, 3 elements
+	 * @param matrix    Work array of 9 elements
+	 * @throws PatriusException if the Earth orientation computation fails
+	 */
+	private void computeSatellitePosition(final double offset, final double[] satellite, final double[] matrix)
+			throws PatriusException {
+		final AbsoluteDate date = this.mission.getStartDate().shiftedBy(offset);
+		this.mission.getPlanningPropagator().propagate(date, satellite, null);
+		this.mission.getEarthOrientation().toBody(date, satellite, satellite, matrix);
+	}
+
+	/**
+	 * Enables or disables the prediction of the visibility windows from the
+	 * ground-track repeat cycle of the orbit. It only applies to the
+	 * {@link VisibilityModel#CONE} visibility model, when a {@link RepeatCycle}
+	 * with a drift below {@link RepeatCycle#DEFAULT_MAX_DRIFT} fits at least
+	 * twice in the horizon : multi-week horizons then cost little more than the
+	 * visibility sampling of one cycle, the other constraints being only
+	 * evaluated inside the visibility windows. Disabled by default.
+	 *
+	 * @param repeatCycleReuse True to predict the windows from the repeat cycle
+	 */
+	public void setRepeatCycleReuse(final boolean repeatCycleReuse) {
+		this.repeatCycleReuse = repeatCycleReuse;
+	}
+
+	/**
+	 * @return true if the visibility windows are predicted from the repeat cycle
+	 */
+	public boolean isRepeatCycleReuse() {
+		return this.repeatCycleReuse;
+	}
+
+	/**
+	 * Enables or disables the search of the access windows inside the passes
+	 * predicted from the orbital motion, see {@link PassPredictor}. It only
+	 * applies to the {@link VisibilityModel#CONE} visibility model and takes
+	 * precedence over the repeat cycle reuse : instead of sampling the horizon
+	 * every max check interval, the constraints of a site are only evaluated a
+	 * few dozen times per visible pass. Disabled by default.
+	 *
+	 * @param passPrediction True to search the windows inside the predicted
+	 *                       passes
+	 */
+	public void setPassPrediction(final boolean passPrediction) {
+		this.passPrediction = passPrediction;
+	}
+
+	/**
+	 * @return true if the access windows are searched inside the predicted passes
+	 */
+	public boolean isPassPrediction() {
+		return this.passPrediction;
+	}
+
+	/**
+	 * Search of the windows of the sites of an evaluator, one site at a time,
+	 * inside predicted passes or from the windows of a previous repeat cycle. It
+	 * owns its work arrays and counts the constraint evaluations.
+	 */
+	private final class WindowSearch {
+
+		/** Evaluator of the site constraints. */
+		private final SiteBatchEvaluator evaluator;
+
+		/** Satellite position work array. */
+		private final double[] satellite = new double[3];
+
+		/** Sun position work array. */
+		private final double[] sun = new double[3];
+
+		/** Rotation matrix work array. */
+		private final double[] matrix = new double[9];
+
+		/** Number of constraint evaluations. */
+		private long evaluations;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param evaluator Evaluator of the site constraints
+		 */
+		private WindowSearch(final SiteBatchEvaluator evaluator) {
+			this.evaluator = evaluator;
+		}
+
+		/**
+		 * Computes the access windows of a site inside its visibility windows : the
+		 * visibility windows are intersected with the illumination windows, and
+		 * all the constraints are sampled inside the remaining windows, which
+		 * locates the dazzling changes.
+		 *
+		 * @param index      Index of the site in the evaluator
+		 * @param site       Input site
+		 * @param visibility Visibility windows of the site
+		 * @return the access windows
+		 * @throws PatriusException if the Sun or Earth orientation computation fails
+		 */
+		private IntervalSet computeAccessWindows(final int index, final Site site, final IntervalSet visibility)
+				throws PatriusException {
+			final IntervalSet candidates = visibility.isEmpty() ? visibility
+					: visibility.and(illumination.computeWindows(site));
+			final IntervalSet.Builder builder = new IntervalSet.Builder(mission.getStartDate());
+			for (int j = 0; j < candidates.size(); j++) {
+				this.scanAccessWindows(index, candidates.getLower(j), candidates.getUpper(j), builder);
+			}
+			return builder.build();
+		}
+
+		/**
+		 * Predicts the visibility windows of a site over the horizon from its
+		 * windows over the first repeat cycle.
+		 *
+		 * The windows of each cycle are the windows of the previous cycle shifted by
+		 * the cycle period. Each shifted bound is refined by a bisection in a
+		 * bracket of {@link #REPEAT_REFINEMENT_MARGIN} around it, and the refined
+		 * windows are used to predict the next cycle, so that the drift doesn't
+		 * accumulate. The bounds cut by the limits of a cycle must be visible. If a
+		 * bound can't be bracketed, the prediction is abandoned. A window of a cycle
+		 * that has no counterpart in the previous cycle, which requires a pass at
+		 * the very edge of the agility cone, is not detected.
+		 *
+		 * @param index     Index of the site in the evaluator
+		 * @param reference Visibility windows of the site over the first cycle
+		 * @param period    Duration of the cycle (s)
+		 * @param lower     Offset (s) from the mission start of the horizon start
+		 * @param upper     Offset (s) from the mission start of the horizon end
+		 * @return the visibility windows of the site, or null if they can't be
+		 *         predicted
+		 * @throws PatriusException if the Earth orientation computation fails
+		 */
+		private IntervalSet predictVisibilityWindows(final int index, final IntervalSet reference,
+				final double period, final double lower, final double upper) throws PatriusException {
+			final IntervalSet.Builder builder = new IntervalSet.Builder(mission.getStartDate());
+			final double[] referenceBounds = reference.getBounds();
+			for (int j = 0; j < referenceBounds.length; j += 2) {
+				builder.add(referenceBounds[j], referenceBounds[j + 1]);
+			}
+
+			double[] previous = referenceBounds;
+			for (double cycleStart = lower + period; cycleStart < upper; cycleStart += period) {
+				final double cycleEnd = FastMath.min(cycleStart + period, upper);
+				final IntervalSet.Builder cycleBuilder = new IntervalSet.Builder(mission.getStartDate());
+				double lastEnd = cycleStart;
+				for (int j = 0; j < previous.length && previous[j] + period < cycleEnd; j += 2) {
+					final double start = previous[j] + period;
+					final double end = FastMath.min(previous[j + 1] + period, cycleEnd);
+					final double refinedStart;
+					final double refinedEnd;
+					if (start == cycleStart) {
+						refinedStart = this.isActive(index, start, true) ? start : Double.NaN;
+					} else {
+						refinedStart = this.refineBound(index, start, cycleStart, cycleEnd, true);
+					}
+					if (end == cycleEnd) {
+						refinedEnd = this.isActive(index, end, true) ? end : Double.NaN;
+					} else {
+						refinedEnd = this.refineBound(index, end, cycleStart, cycleEnd, false);
+					}
+					if (!(refinedStart >= lastEnd && refinedEnd > refinedStart)) {
+						// Unbracketed bound, or windows merged or swapped by the refinement
+						return null;
+					}
+					cycleBuilder.add(refinedStart, refinedEnd);
+					lastEnd = refinedEnd;
+				}
+				final IntervalSet cycleWindows = cycleBuilder.build();
+				previous = cycleWindows.getBounds();
+				for (int j = 0; j < previous.length; j += 2) {
+					builder.add(previous[j], previous[j + 1]);
+				}
+			}
+			return builder.build();
+		}
+
+		/**
+		 * Refines a predicted bound of a visibility window of a site by bisection
+		 * in a bracket of {@link #REPEAT_REFINEMENT_MARGIN} around it.
+		 *
+		 * @param index  Index of the site in the evaluator
+		 * @param bound  Predicted bound (s from the mission start)
+		 * @param min    Minimum of the bracket (s from the mission start)
+		 * @param max    Maximum of the bracket (s from the mission start)
+		 * @param rising True for the start of a window, false for its end
+		 * @return the refined bound, or NaN if the site visibility doesn't change in
+		 *         the expected direction over the bracket
+		 * @throws PatriusException if the Earth orientation computation fails
+		 */
+		private double refineBound(final int index, final double bound, final double min, final double max,
+				final boolean rising) throws PatriusException {
+			final double before = FastMath.max(min, bound - REPEAT_REFINEMENT_MARGIN);
+			final double after = FastMath.min(max, bound + REPEAT_REFINEMENT_MARGIN);
+			if (this.isActive(index, before, true) == rising || this.isActive(index, after, true) != rising) {
+				return Double.NaN;
+			}
+			return this.locateChange(index, before, after, !rising, true);
+		}
+
+		/**
+		 * Computes the visibility windows of a site inside predicted passes.
+		 *
+		 * The closest approach of a pass is where the satellite crosses the
+		 * meridian plane of the site, not exactly where the site is the closest to
+		 * the cone axis : a pass grazing the edge of the agility cone can be visible
+		 * only on one side of it. The maximum of the visibility value is then
+		 * searched over the pass, see {@link #locateVisibleDate}.
+		 *
+		 * @param index  Index of the site in the evaluator
+		 * @param passes Predicted passes over the site
+		 * @return the visibility windows
+		 * @throws PatriusException if the Earth orientation computation fails
+		 */
+		private IntervalSet computeVisibilityWindows(final int index, final List<PassPredictor.Pass> passes)
+				throws PatriusException {
+			final IntervalSet.Builder builder = new IntervalSet.Builder(mission.getStartDate());
+			for (final PassPredictor.Pass pass : passes) {
+				final double visible = this.locateVisibleDate(index, pass);
+				if (Double.isNaN(visible)) {
+					continue;
+				}
+				final double rise = this.isActive(index, pass.getStart(), true) ? pass.getStart()
+						: this.locateChange(index, pass.getStart(), visible, false, true);
+				final double set = this.isActive(index, pass.getEnd(), true) ? pass.getEnd()
+						: this.locateChange(index, visible, pass.getEnd(), true, true);
+				builder.add(rise, set);
+			}
+			return builder.build();
+		}
+
+		/**
+		 * Searches a date of a pass where a site is visible : the closest approach
+		 * first, then a golden-section search of the maximum of the visibility
+		 * value over the pass, down to the convergence threshold of the detectors.
+		 * The search stops at the first visible date.
+		 *
+		 * @param index Index of the site in the evaluator
+		 * @param pass  Predicted pass over the site
+		 * @return a visible date (s from the mission start), or NaN if the site is
+		 *         not visible during the pass
+		 * @throws PatriusException if the Earth orientation computation fails
+		 */
+		private double locateVisibleDate(final int index, final PassPredictor.Pass pass) throws PatriusException {
+			final double closestApproach = FastMath.min(pass.getEnd(),
+					FastMath.max(pass.getStart(), pass.getClosestApproach()));
+			if (this.isActive(index, closestApproach, true)) {
+				return closestApproach;
+			}
+			double low = pass.getStart();
+			double high = pass.getEnd();
+			double left = high - GOLDEN_SECTION * (high - low);
+			double right = low + GOLDEN_SECTION * (high - low);
+			double leftValue = this.computeVisibility(index, left);
+			double rightValue = this.computeVisibility(index, right);
+			while (high - low > profile.getThreshold()) {
+				if (leftValue > 0.) {
+					return left;
+				}
+				if (rightValue > 0.) {
+					return right;
+				}
+				if (leftValue > rightValue) {
+					high = right;
+					right = left;
+					rightValue = leftValue;
+					left = high - GOLDEN_SECTION * (high - low);
+					leftValue = this.computeVisibility(index, left);
+				} else {
+					low = left;
+					left = right;
+					leftValue = rightValue;
+					right = low + GOLDEN_SECTION * (high - low);
+					rightValue = this.computeVisibility(index, right);
+				}
+			}
+			return Double.NaN;
+		}
+
+		/**
+		 * Samples all the constraints of a site between two dates, and adds its
+		 * access windows to a builder.
+		 *
+		 * @param index   Index of the site in the evaluator
+		 * @param lower   Offset (s) from the mission start of the first sample
+		 * @param upper   Offset (s) from the mission start of the last sample
+		 * @param builder Builder receiving the access windows
+		 * @throws PatriusException if the Sun or Earth orientation computation fails
+		 */
+		private void scanAccessWindows(final int index, final double lower, final double upper,
+				final IntervalSet.Builder builder) throws PatriusException {
+			final int nbSteps = (int) FastMath.max(1., FastMath.ceil((upper - lower) / profile.getMaxCheck()));
+			final double step = (upper - lower) / nbSteps;
+			boolean previousActive = this.isActive(index, lower, false);
+			double previousTime = lower;
+			double start = lower;
+			for (int k = 1; k <= nbSteps; k++) {
+				final double time = k == nbSteps ? upper : lower + k * step;
+				final boolean active = this.isActive(index, time, false);
+				if (active != previousActive) {
+					final double change = this.locateChange(index, previousTime, time, previousActive, false);
+					if (active) {
+						start = change;
+					} else {
+						builder.add(start, change);
+					}
+				}
+				previousTime = time;
+				previousActive = active;
+			}
+			if (previousActive) {
+				builder.add(start, upper);
+			}
+		}
+
+		/**
+		 * Locates by bisection a change of a constraint of a site between two
+		 * dates.
+		 *
+		 * @param index          Index of the site in the evaluator
+		 * @param before         Offset (s) from the mission start before the change
+		 * @param after          Offset (s) from the mission start after the change
+		 * @param activeBefore   Value of the constraint before the change
+		 * @param visibilityOnly True for the visibility only, false for all the
+		 *                       constraints
+		 * @return the offset (s) of the change
+		 * @throws PatriusException if the Sun or Earth orientation computation fails
+		 */
+		private double locateChange(final int index, final double before, final double after,
+				final boolean activeBefore, final boolean visibilityOnly) throws PatriusException {
+			double low = before;
+			double high = after;
+			while (high - low > profile.getThreshold()) {
+				final double middle = 0.5 * (low + high);
+				if (this.isActive(index, middle, visibilityOnly) == activeBefore) {
+					low = middle;
+				} else {
+					high = middle;
+				}
+			}
+			return 0.5 * (low + high);
+		}
+
+		/**
+		 * Evaluates a constraint of a site.
+		 *
+		 * @param index          Index of the site in the evaluator
+		 * @param offset         Offset (s) from the mission start date
+		 * @param visibilityOnly True for the visibility only, false for all the
+		 *                       constraints
+		 * @return true if the constraint is fulfilled
+		 * @throws PatriusException if the Sun or Earth orientation computation fails
+		 */
+		private boolean isActive(final int index, final double offset, final boolean visibilityOnly)
+				throws PatriusException {
+			this.evaluations++;
+			if (visibilityOnly) {
+				computeSatellitePosition(offset, this.satellite, this.matrix);
+				return this.evaluator.isVisible(index, this.satellite);
+			}
+			computePositions(offset, this.satellite, this.sun, this.matrix);
+			return this.evaluator.isAccessible(index, this.satellite, this.sun);
+		}
+
+		/**
+		 * Evaluates the visibility value of a site, positive when visible.
+		 *
+		 * @param index  Index of the site in the evaluator
+		 * @param offset Offset (s) from the mission start date
+		 * @return the visibility value
+		 * @throws PatriusException if the Earth orientation computation fails
+		 */
+		private double computeVisibility(final int index, final double offset) throws PatriusException {
+			this.evaluations++;
+			computeSatellitePosition(offset, this.satellite, this.matrix);
+			return this.evaluator.computeVisibility(index, this.satellite);
+		}
+	}
+
+	/**
+	 * Fork/join task computing the access windows of a sub-list of sites.
+	 */
+	private final class AccessTask extends RecursiveAction {
+
+		/** Serial UID. */
+		private static final long serialVersionUID = 1L;
+
+		/** Sites of this task. */
+		private final List<Site> sites;
+
+		/** Maximum number of sites computed without splitting the task. */
+		private final int chunkSize;
+
+		/** Thread-safe listener receiving the results. */
+		private final AccessPlanListener listener;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param sites     Sites of this task
+		 * @param chunkSize Maximum number of sites computed without splitting
+		 * @param listener  Thread-safe listener receiving the results
+		 */
+		private AccessTask(final List<Site> sites, final int chunkSize, final AccessPlanListener listener) {
+			this.sites = sites;
+			this.chunkSize = chunkSize;
+			this.listener = listener;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.sites.size() <= this.chunkSize) {
+				try {
+					// The worker owns its satellite : the sensor models update the satellite
+					// Assembly during the detection, it can't be shared between threads
+					final Satellite workerSatellite = new Satellite(mission, mission.getSatellite().getName(),
+							mission.getSatellite().getInitialOrbit());
+					computeAccessWindows(this.sites, workerSatellite, this.listener);
+				} catch (final PatriusException e) {
+					throw new IllegalStateException(e);
+				}
+			} else {
+				final int middle = this.sites.size() / 2;
+				invokeAll(new AccessTask(this.sites.subList(0, middle), this.chunkSize, this.listener),
+						new AccessTask(this.sites.subList(middle, this.sites.size()), this.chunkSize,
+								this.listener));
+			}
+		}
+	}
+}
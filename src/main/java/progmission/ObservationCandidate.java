@@ -0,0 +1,121 @@
+package progmission;
+
+import fr.cnes.sirius.patrius.attitudes.Attitude;
+import fr.cnes.sirius.patrius.attitudes.AttitudeLaw;
+import fr.cnes.sirius.patrius.attitudes.AttitudeLawLeg;
+import fr.cnes.sirius.patrius.frames.Frame;
+import fr.cnes.sirius.patrius.orbits.pvcoordinates.PVCoordinatesProvider;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.time.AbsoluteDateInterval;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import reader.Site;
+import utils.ConstantsBE;
+
+/**
+ * Candidate observation of a {@link Site} : an observation interval of
+ * {@link ConstantsBE#INTEGRATION_TIME} inside one of its access windows, with
+ * the {@link Attitude}s of the satellite at the start and at the end of the
+ * observation, used to check the slews with the neighbouring observations.
+ *
+ * This class is immutable.
+ *
+ * @author agent
+ */
+public final class ObservationCandidate {
+
+	/** Observed site. */
+	private final Site site;
+
+	/** Observation law pointing the site. */
+	private final AttitudeLaw law;
+
+	/** Start of the observation. */
+	private final AbsoluteDate start;
+
+	/** End of the observation. */
+	private final AbsoluteDate end;
+
+	/** Attitude at the start of the observation. */
+	private final Attitude startAttitude;
+
+	/** Attitude at the end of the observation. */
+	private final Attitude endAttitude;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param site       Observed site
+	 * @param law        Observation law pointing the site
+	 * @param start      Start of the observation
+	 * @param propagator Propagator of the satellite orbit, used to compute the
+	 *                   attitudes
+	 * @param frame      Frame of the attitudes
+	 * @throws PatriusException if the attitudes can't be computed
+	 */
+	public ObservationCandidate(final Site site, final AttitudeLaw law, final AbsoluteDate start,
+			final PVCoordinatesProvider propagator, final Frame frame) throws PatriusException {
+		this.site = site;
+		this.law = law;
+		this.start = start;
+		this.end = start.shiftedBy(ConstantsBE.INTEGRATION_TIME);
+		this.startAttitude = law.getAttitude(propagator, this.start, frame);
+		this.endAttitude = law.getAttitude(propagator, this.end, frame);
+	}
+
+	/**
+	 * Builds the observation leg of this candidate, named after the site.
+	 *
+	 * @return the observation leg
+	 */
+	public AttitudeLawLeg createLeg() {
+		return new AttitudeLawLeg(this.law, new AbsoluteDateInterval(this.start, this.end),
+				"OBS_" + this.site.getName());
+	}
+
+	/**
+	 * @return the observed site
+	 */
+	public Site getSite() {
+		return this.site;
+	}
+
+	/**
+	 * @return the observation law pointing the site
+	 */
+	public AttitudeLaw getLaw() {
+		return this.law;
+	}
+
+	/**
+	 * @return the start of the observation
+	 */
+	public AbsoluteDate getStart() {
+		return this.start;
+	}
+
+	/**
+	 * @return the end of the observation
+	 */
+	public AbsoluteDate getEnd() {
+		return this.end;
+	}
+
+	/**
+	 * @return the attitude at the start of the observation
+	 */
+	public Attitude getStartAttitude() {
+		return this.startAttitude;
+	}
+
+	/**
+	 * @return the attitude at the end of the observation
+	 */
+	public Attitude getEndAttitude() {
+		return this.endAttitude;
+	}
+
+	@Override
+	public String toString() {
+		return "OBS_" + this.site.getName() + " [" + this.start + " ; " + this.end + "]";
+	}
+}
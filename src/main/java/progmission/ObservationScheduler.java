@@ -0,0 +1,212 @@
+package progmission;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+
+import fr.cnes.sirius.patrius.attitudes.AttitudeLaw;
+import fr.cnes.sirius.patrius.attitudes.AttitudeLawLeg;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.propagation.analytical.KeplerianPropagator;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import reader.Site;
+import utils.BusyTimeBitmap;
+import utils.ConstantsBE;
+import utils.IntervalSet;
+import utils.LogUtils;
+
+/**
+ * Greedy scheduler of the observations of the {@link CompleteMission}.
+ *
+ * The scheduled observations are kept in a {@link TreeMap} keyed by their
+ * start date. The sites are taken by decreasing score, and for each site the
+ * candidate observations of its access windows are tried one after the other :
+ * a candidate is inserted if it fits between its two neighbours in the plan,
+ * that is if the slew from the previous observation to the candidate and from
+ * the candidate to the next observation is shorter than the time available,
+ * see {@link SlewDurationCache}. Finding the neighbours costs O(log n) :
+ * the plan is feasible by construction and thousands of candidates are
+ * scheduled in a few seconds, the cost being dominated by the attitude
+ * computations.
+ *
+ * The scheduled observations are also marked in a {@link BusyTimeBitmap} of
+ * the access plan horizon. A candidate overlapping a scheduled observation is
+ * rejected before its attitudes are computed, and a candidate with no
+ * observation within {@link Satellite#getMaxSlewDuration()} on either side is
+ * inserted without looking for its neighbours.
+ *
+ * The first and last observations are kept at least
+ * {@link Satellite#getMaxSlewDuration()} away from the mission start date and
+ * from the end of the access plan ({@link CompleteMission#getAccessPlanEnd()}),
+ * to leave room for the slews from and to the nadir pointing law.
+ *
+ * A scheduler is not thread-safe.
+ *
+ * @author agent
+ */
+public class ObservationScheduler {
+
+	/**
+	 * Step between the candidate observations of an access window (s). The
+	 * candidates are tried from the middle of the window outwards.
+	 */
+	public static final double CANDIDATE_STEP = ConstantsBE.INTEGRATION_TIME;
+
+	/**
+	 * Logger for this class.
+	 */
+	private final Logger logger = LogUtils.GLOBAL_LOGGER;
+
+	/** Mission providing the satellite and the observation laws. */
+	private final CompleteMission mission;
+
+	/** Propagator used to compute the attitudes. */
+	private final KeplerianPropagator propagator;
+
+	/** Scheduled observations, keyed by start date. */
+	private final TreeMap<AbsoluteDate, ObservationCandidate> plan = new TreeMap<>();
+
+	/** Occupancy of the access plan horizon by the scheduled observations. */
+	private final BusyTimeBitmap busyTime;
+
+	/** Earliest start of an observation. */
+	private final AbsoluteDate earliestStart;
+
+	/** Latest end of an observation. */
+	private final AbsoluteDate latestEnd;
+
+	/** Cache of the slew durations between the candidates. */
+	private final SlewDurationCache slewDurations;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param mission Mission providing the satellite and the observation laws
+	 * @throws PatriusException if the propagator can't be built
+	 */
+	public ObservationScheduler(final CompleteMission mission) throws PatriusException {
+		this.mission = mission;
+		this.propagator = mission.createDefaultPropagator();
+		final double margin = mission.getSatellite().getMaxSlewDuration();
+		this.earliestStart = mission.getStartDate().shiftedBy(margin);
+		this.latestEnd = mission.getAccessPlanEnd().shiftedBy(-margin);
+		this.slewDurations = new SlewDurationCache(mission.getSatellite());
+		this.busyTime = new BusyTimeBitmap(mission.getAccessPlanEnd().durationFrom(mission.getStartDate()));
+	}
+
+	/**
+	 * Schedules one observation per site, by decreasing score, in the input
+	 * access windows.
+	 *
+	 * @param accessWindows Access windows of each site, as offsets from the
+	 *                      mission start date
+	 * @return the observation leg of each scheduled site, in chronological order
+	 * @throws PatriusException if an attitude or a slew duration can't be
+	 *                          computed
+	 */
+	public Map<Site, AttitudeLawLeg> schedule(final Map<Site, IntervalSet> accessWindows)
+			throws PatriusException {
+		final List<Site> sites = new ArrayList<>(accessWindows.keySet());
+		// Highest scores first, see Site#compareTo
+		Collections.sort(sites);
+
+		int nbCandidates = 0;
+		for (final Site site : sites) {
+			final IntervalSet windows = accessWindows.get(site);
+			final AttitudeLaw law = this.mission.createObservationLaw(site);
+			boolean scheduled = false;
+			for (int j = 0; j < windows.size() && !scheduled; j++) {
+				final double lower = FastMath.max(windows.getLower(j),
+						this.earliestStart.durationFrom(this.mission.getStartDate()));
+				final double upper = FastMath.min(windows.getUpper(j),
+						this.latestEnd.durationFrom(this.mission.getStartDate()));
+				final double slack = upper - lower - ConstantsBE.INTEGRATION_TIME;
+				if (slack < 0.) {
+					continue;
+				}
+				// Candidates from the middle of the window outwards
+				final double middle = lower + 0.5 * slack;
+				final int nbShifts = (int) FastMath.floor(0.5 * slack / CANDIDATE_STEP);
+				for (int k = 0; k <= 2 * nbShifts && !scheduled; k++) {
+					final double offset = middle + (k % 2 == 0 ? 1 : -1) * ((k + 1) / 2) * CANDIDATE_STEP;
+					if (!this.busyTime.isFree(offset, offset + ConstantsBE.INTEGRATION_TIME)) {
+						// Overlapping a scheduled observation
+						continue;
+					}
+					final AbsoluteDate start = this.mission.getStartDate().shiftedBy(offset);
+					nbCandidates++;
+					scheduled = this.insert(new ObservationCandidate(site, law, start, this.propagator,
+							this.mission.getEme2000()));
+				}
+			}
+		}
+		logger.info("Observation scheduling : " + this.plan.size() + " observations out of " + sites.size()
+				+ " sites, " + nbCandidates + " candidates and " + this.slewDurations.getNbDurations()
+				+ " slews computed");
+
+		final Map<Site, AttitudeLawLeg> legs = new LinkedHashMap<>();
+		for (final ObservationCandidate observation : this.plan.values()) {
+			legs.put(observation.getSite(), observation.createLeg());
+		}
+		return legs;
+	}
+
+	/**
+	 * Inserts a candidate in the plan if the slews from its previous neighbour and
+	 * to its next neighbour are feasible.
+	 *
+	 * @param candidate Candidate observation
+	 * @return true if the candidate was inserted
+	 * @throws PatriusException if a slew duration can't be computed
+	 */
+	public boolean insert(final ObservationCandidate candidate) throws PatriusException {
+		if (candidate.getStart().compareTo(this.earliestStart) < 0
+				|| candidate.getEnd().compareTo(this.latestEnd) > 0) {
+			return false;
+		}
+		final double lower = candidate.getStart().durationFrom(this.mission.getStartDate());
+		final double upper = candidate.getEnd().durationFrom(this.mission.getStartDate());
+		if (this.busyTime.isFree(lower, upper, this.mission.getSatellite().getMaxSlewDuration())) {
+			// No neighbour close enough to constrain the slews
+			this.add(candidate, lower, upper);
+			return true;
+		}
+		final Entry<AbsoluteDate, ObservationCandidate> previous = this.plan.floorEntry(candidate.getStart());
+		if (previous != null && !this.slewDurations.isSlewFeasible(previous.getValue(), candidate)) {
+			return false;
+		}
+		final Entry<AbsoluteDate, ObservationCandidate> next = this.plan.higherEntry(candidate.getStart());
+		if (next != null && !this.slewDurations.isSlewFeasible(candidate, next.getValue())) {
+			return false;
+		}
+		this.add(candidate, lower, upper);
+		return true;
+	}
+
+	/**
+	 * Adds a candidate to the plan.
+	 *
+	 * @param candidate Candidate observation
+	 * @param lower     Start of the observation (s from the mission start)
+	 * @param upper     End of the observation (s from the mission start)
+	 */
+	private void add(final ObservationCandidate candidate, final double lower, final double upper) {
+		this.plan.put(candidate.getStart(), candidate);
+		this.busyTime.mark(lower, upper);
+	}
+
+	/**
+	 * @return the scheduled observations, keyed by start date
+	 */
+	public NavigableMap<AbsoluteDate, ObservationCandidate> getPlan() {
+		return Collections.unmodifiableNavigableMap(this.plan);
+	}
+}
@@ -0,0 +1,251 @@
+package progmission;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.time.AbsoluteDateInterval;
+import fr.cnes.sirius.patrius.utils.Constants;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import reader.Site;
+import utils.ConstantsBE;
+
+/**
+ * Predicts the passes of the satellite over a {@link Site} from the orbital
+ * motion, without evaluating any constraint.
+ *
+ * The site is seen from the Earth center at an angle beta from the orbital
+ * plane and at an angle delta along the plane from the satellite. The Earth
+ * central angle psi between the satellite and the site then verifies cos(psi)
+ * = cos(beta) cos(delta). The site can only be visible if psi is below the
+ * central angle lambda of the edge of the agility cone, which implies |delta|
+ * below lambda and |beta| below lambda. Delta decreases by about 2 pi per
+ * orbit : the times where it is zero are the closest approaches of the
+ * satellite, found by a few fixed-point iterations from one orbit to the next.
+ * Around each closest approach where beta is below lambda, |delta| stays below
+ * lambda for at most lambda / (n - omega / cos(lambda)), where n is the mean
+ * motion and omega the Earth rotation rate : this bracket contains every
+ * visible time of the pass. The visibility is unimodal inside a bracket : it
+ * is maximum near the closest approach and decreases on both sides. The
+ * maximum is shifted from the closest approach by the Earth rotation when the
+ * site is away from the ground track.
+ *
+ * This class is thread-safe.
+ *
+ * @author agent
+ */
+public class PassPredictor {
+
+	/** Margin added to the maximum central angle of the visibility (rad). */
+	public static final double ANGLE_MARGIN = FastMath.toRadians(0.5);
+
+	/** Margin added to the half-width of the brackets (s). */
+	public static final double TIME_MARGIN = 10.;
+
+	/** Maximum number of fixed-point iterations on a closest approach. */
+	private static final int MAX_ITERATIONS = 8;
+
+	/** Convergence threshold of the closest approaches (rad). */
+	private static final double ANGLE_THRESHOLD = 1.e-9;
+
+	/** Mission whose orbit and Earth model are used. */
+	private final CompleteMission mission;
+
+	/** Lower bound of the horizon (s from the mission start). */
+	private final double lower;
+
+	/** Upper bound of the horizon (s from the mission start). */
+	private final double upper;
+
+	/** Unit normal of the orbital plane in the inertial frame. */
+	private final double[] normal;
+
+	/** Maximum distance of the satellite to the Earth center (m). */
+	private final double maxRadius;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param mission Mission whose orbit and Earth model are used
+	 * @param horizon Horizon of the predicted passes
+	 */
+	public PassPredictor(final CompleteMission mission, final AbsoluteDateInterval horizon) {
+		this.mission = mission;
+		this.lower = horizon.getLowerData().durationFrom(mission.getStartDate());
+		this.upper = horizon.getUpperData().durationFrom(mission.getStartDate());
+
+		final PlanningPropagator propagator = mission.getPlanningPropagator();
+		final double[] position = new double[3];
+		final double[] velocity = new double[3];
+		propagator.propagate(0., position, velocity);
+		this.normal = new double[] { position[1] * velocity[2] - position[2] * velocity[1],
+				position[2] * velocity[0] - position[0] * velocity[2],
+				position[0] * velocity[1] - position[1] * velocity[0] };
+		final double norm = FastMath.sqrt(dot(this.normal, this.normal));
+		for (int c = 0; c < 3; c++) {
+			this.normal[c] /= norm;
+		}
+		this.maxRadius = propagator.getSemiMajorAxis() * (1. + propagator.getEccentricity());
+	}
+
+	/**
+	 * Computes the maximum Earth central angle between the satellite and a
+	 * visible site : the site must be inside the agility cone and above the
+	 * horizon of the satellite.
+	 *
+	 * @param siteRadius Distance of the site to the Earth center (m)
+	 * @return the maximum central angle (rad)
+	 */
+	public double getMaxCentralAngle(final double siteRadius) {
+		final double pointing = FastMath.toRadians(ConstantsBE.POINTING_CAPACITY);
+		final double horizonAngle = FastMath.acos(FastMath.min(1., siteRadius / this.maxRadius));
+		final double sinEdge = this.maxRadius / siteRadius * FastMath.sin(pointing);
+		if (sinEdge >= 1.) {
+			// The agility cone contains the whole Earth disk
+			return horizonAngle;
+		}
+		return FastMath.min(horizonAngle, FastMath.asin(sinEdge) - pointing);
+	}
+
+	/**
+	 * Predicts the passes of the satellite over a site in the horizon.
+	 *
+	 * @param site Input site
+	 * @return the passes that may contain visibility windows, by increasing date
+	 * @throws PatriusException if the Earth orientation can't be computed
+	 */
+	public List<Pass> predictPasses(final Site site) throws PatriusException {
+		final Vector3D position = this.mission.getSiteGeometries().getGeometry(site).getPosition();
+		final double[] sitePosition = { position.getX(), position.getY(), position.getZ() };
+		final double[] satellite = new double[3];
+		final double[] work = new double[3];
+		final double[] matrix = new double[9];
+		final double[] angles = new double[2];
+
+		final double n = this.mission.getPlanningPropagator().getMeanMotion();
+		final double omega = Constants.WGS84_EARTH_ANGULAR_VELOCITY;
+		final double lambda = this.getMaxCentralAngle(position.getNorm()) + ANGLE_MARGIN;
+		final double halfWidth = lambda / (n - omega / FastMath.cos(lambda)) + TIME_MARGIN;
+		// Cross-track angle variation between the closest approach and the bracket
+		// bounds
+		final double maxBeta = lambda + omega * halfWidth;
+
+		final List<Pass> passes = new ArrayList<>();
+		this.computeAngles(this.lower, sitePosition, satellite, work, matrix, angles);
+		double closestApproach = this.lower + angles[0] / n;
+		while (closestApproach - halfWidth < this.upper) {
+			for (int k = 0; k < MAX_ITERATIONS; k++) {
+				this.computeAngles(closestApproach, sitePosition, satellite, work, matrix, angles);
+				closestApproach += angles[0] / n;
+				if (FastMath.abs(angles[0]) < ANGLE_THRESHOLD) {
+					break;
+				}
+			}
+			final double start = FastMath.max(this.lower, closestApproach - halfWidth);
+			final double end = FastMath.min(this.upper, closestApproach + halfWidth);
+			if (FastMath.abs(angles[1]) <= maxBeta && end > start) {
+				passes.add(new Pass(closestApproach, start, end));
+			}
+			closestApproach += 2. * FastMath.PI / n;
+		}
+		return passes;
+	}
+
+	/**
+	 * Computes the angles of a site with respect to the satellite.
+	 *
+	 * @param offset    Offset (s) from the mission start date
+	 * @param site      Site position in the Earth body frame, 3 elements
+	 * @param satellite Work array of 3 elements
+	 * @param work      Work array of 3 elements
+	 * @param matrix    Work array of 9 elements
+	 * @param angles    Output angles : the angle delta (rad) from the satellite
+	 *                  to the projection of the site on the orbital plane, in
+	 *                  [-pi, pi] and positive ahead of the satellite, and the
+	 *                  angle beta (rad) of the site from the orbital plane
+	 * @throws PatriusException if the Earth orientation can't be computed
+	 */
+	private void computeAngles(final double offset, final double[] site, final double[] satellite,
+			final double[] work, final double[] matrix, final double[] angles) throws PatriusException {
+		final double[] w = this.normal;
+		this.mission.getPlanningPropagator().propagate(offset, satellite, null);
+		this.mission.getEarthOrientation().toInertial(this.mission.getStartDate().shiftedBy(offset), site, work,
+				matrix);
+
+		// Projection of the site on the orbital plane
+		final double siteRadius = FastMath.sqrt(dot(work, work));
+		final double normalComponent = dot(work, w);
+		final double px = work[0] - normalComponent * w[0];
+		final double py = work[1] - normalComponent * w[1];
+		final double pz = work[2] - normalComponent * w[2];
+
+		// (satellite x projection) . normal and satellite . projection
+		final double sine = (satellite[1] * pz - satellite[2] * py) * w[0]
+				+ (satellite[2] * px - satellite[0] * pz) * w[1] + (satellite[0] * py - satellite[1] * px) * w[2];
+		final double cosine = satellite[0] * px + satellite[1] * py + satellite[2] * pz;
+		angles[0] = FastMath.atan2(sine, cosine);
+		angles[1] = FastMath.asin(normalComponent / siteRadius);
+	}
+
+	/**
+	 * Dot product of two arrays of 3 elements.
+	 *
+	 * @param u First array
+	 * @param v Second array
+	 * @return the dot product
+	 */
+	private static double dot(final double[] u, final double[] v) {
+		return u[0] * v[0] + u[1] * v[1] + u[2] * v[2];
+	}
+
+	/**
+	 * Predicted pass of the satellite over a site.
+	 */
+	public static final class Pass {
+
+		/** Closest approach (s from the mission start). */
+		private final double closestApproach;
+
+		/** Start of the bracket (s from the mission start). */
+		private final double start;
+
+		/** End of the bracket (s from the mission start). */
+		private final double end;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param closestApproach Closest approach (s from the mission start)
+		 * @param start           Start of the bracket (s from the mission start)
+		 * @param end             End of the bracket (s from the mission start)
+		 */
+		private Pass(final double closestApproach, final double start, final double end) {
+			this.closestApproach = closestApproach;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * @return the closest approach of the satellite (s from the mission start),
+		 *         possibly outside of the bracket when it is cut by the horizon
+		 */
+		public double getClosestApproach() {
+			return this.closestApproach;
+		}
+
+		/**
+		 * @return the start of the bracket (s from the mission start)
+		 */
+		public double getStart() {
+			return this.start;
+		}
+
+		/**
+		 * @return the end of the bracket (s from the mission start)
+		 */
+		public double getEnd() {
+			return this.end;
+		}
+	}
+}
@@ -0,0 +1,289 @@
+package progmission;
+
+import fr.cnes.sirius.patrius.frames.Frame;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.orbits.Orbit;
+import fr.cnes.sirius.patrius.orbits.pvcoordinates.PVCoordinates;
+import fr.cnes.sirius.patrius.orbits.pvcoordinates.PVCoordinatesProvider;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.time.AbsoluteDateInterval;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * Allocation-free propagator of the two-body motion of the mission orbit, for
+ * the planning inner loops.
+ *
+ * The initial position and velocity are converted once into the orbital plane
+ * basis and the mean motion. The position and velocity at a date are then
+ * computed in closed form and written into caller-provided arrays : no
+ * {@link fr.cnes.sirius.patrius.propagation.SpacecraftState},
+ * {@link PVCoordinates} nor {@link Vector3D} is allocated. The Kepler equation
+ * is solved by Newton iterations, which converge in two iterations for the
+ * near-circular mission orbit.
+ *
+ * This is the motion computed by the
+ * {@link fr.cnes.sirius.patrius.propagation.analytical.KeplerianPropagator} of
+ * the mission, which remains the reference : see
+ * {@link #computeMaxPositionError(PVCoordinatesProvider, AbsoluteDateInterval, double)}.
+ *
+ * This class is immutable and thread-safe.
+ *
+ * @author agent
+ */
+public class PlanningPropagator {
+
+	/** Maximum number of Newton iterations on the Kepler equation. */
+	private static final int MAX_ITERATIONS = 10;
+
+	/** Eccentricity below which the orbit is propagated as circular. */
+	private static final double CIRCULAR_ECCENTRICITY = 1.e-12;
+
+	/** Date of the initial state. */
+	private final AbsoluteDate epoch;
+
+	/** Frame of the positions and velocities. */
+	private final Frame frame;
+
+	/** Semi-major axis (m). */
+	private final double a;
+
+	/** Eccentricity. */
+	private final double e;
+
+	/** Square root of 1 - e². */
+	private final double sqrtOneMinusE2;
+
+	/** Mean motion (rad/s). */
+	private final double n;
+
+	/** Mean anomaly at the epoch (rad). */
+	private final double meanAnomaly0;
+
+	/** X coordinate of the periapsis direction. */
+	private final double px;
+
+	/** Y coordinate of the periapsis direction. */
+	private final double py;
+
+	/** Z coordinate of the periapsis direction. */
+	private final double pz;
+
+	/** X coordinate of the in-plane direction orthogonal to the periapsis. */
+	private final double qx;
+
+	/** Y coordinate of the in-plane direction orthogonal to the periapsis. */
+	private final double qy;
+
+	/** Z coordinate of the in-plane direction orthogonal to the periapsis. */
+	private final double qz;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param epoch    Date of the initial state
+	 * @param frame    Inertial frame of the initial state
+	 * @param position Initial position (m)
+	 * @param velocity Initial velocity (m/s)
+	 * @param mu       Gravitational parameter (m³/s²)
+	 * @throws IllegalArgumentException if the orbit is not elliptic
+	 */
+	public PlanningPropagator(final AbsoluteDate epoch, final Frame frame, final double[] position,
+			final double[] velocity, final double mu) {
+		this.epoch = epoch;
+		this.frame = frame;
+
+		final double r = FastMath.sqrt(dot(position, position));
+		final double v2 = dot(velocity, velocity);
+		final double rv = dot(position, velocity);
+		this.a = 1. / (2. / r - v2 / mu);
+		if (!(this.a > 0.)) {
+			throw new IllegalArgumentException("The planning propagator needs an elliptic orbit");
+		}
+		this.n = FastMath.sqrt(mu / (this.a * this.a * this.a));
+
+		// Orbital plane normal
+		final double hx = position[1] * velocity[2] - position[2] * velocity[1];
+		final double hy = position[2] * velocity[0] - position[0] * velocity[2];
+		final double hz = position[0] * velocity[1] - position[1] * velocity[0];
+		final double h = FastMath.sqrt(hx * hx + hy * hy + hz * hz);
+		final double wx = hx / h;
+		final double wy = hy / h;
+		final double wz = hz / h;
+
+		// Eccentricity vector
+		final double ex = ((v2 - mu / r) * position[0] - rv * velocity[0]) / mu;
+		final double ey = ((v2 - mu / r) * position[1] - rv * velocity[1]) / mu;
+		final double ez = ((v2 - mu / r) * position[2] - rv * velocity[2]) / mu;
+		final double eNorm = FastMath.sqrt(ex * ex + ey * ey + ez * ez);
+
+		if (eNorm < CIRCULAR_ECCENTRICITY) {
+			// Circular orbit : the anomalies are counted from the initial position
+			this.e = 0.;
+			this.px = position[0] / r;
+			this.py = position[1] / r;
+			this.pz = position[2] / r;
+		} else {
+			this.e = eNorm;
+			this.px = ex / eNorm;
+			this.py = ey / eNorm;
+			this.pz = ez / eNorm;
+		}
+		this.qx = wy * this.pz - wz * this.py;
+		this.qy = wz * this.px - wx * this.pz;
+		this.qz = wx * this.py - wy * this.px;
+		this.sqrtOneMinusE2 = FastMath.sqrt(1. - this.e * this.e);
+
+		// Initial mean anomaly
+		final double cosNu = (this.px * position[0] + this.py * position[1] + this.pz * position[2]) / r;
+		final double sinNu = (this.qx * position[0] + this.qy * position[1] + this.qz * position[2]) / r;
+		final double eccentricAnomaly0 = FastMath.atan2(this.sqrtOneMinusE2 * sinNu, this.e + cosNu);
+		this.meanAnomaly0 = eccentricAnomaly0 - this.e * FastMath.sin(eccentricAnomaly0);
+	}
+
+	/**
+	 * Builds the planning propagator of an orbit.
+	 *
+	 * @param orbit Initial orbit
+	 * @param frame Inertial frame of the propagated positions and velocities
+	 * @return the planning propagator
+	 * @throws PatriusException if the orbit can't be expressed in the frame
+	 */
+	public static PlanningPropagator of(final Orbit orbit, final Frame frame) throws PatriusException {
+		final PVCoordinates pv = orbit.getPVCoordinates(orbit.getDate(), frame);
+		return new PlanningPropagator(orbit.getDate(), frame, pv.getPosition().toArray(),
+				pv.getVelocity().toArray(), orbit.getMu());
+	}
+
+	/**
+	 * Computes the position and velocity at a date.
+	 *
+	 * @param date     Input date
+	 * @param position Output position (m), at least 3 elements
+	 * @param velocity Output velocity (m/s), at least 3 elements, or null if not
+	 *                 needed
+	 */
+	public void propagate(final AbsoluteDate date, final double[] position, final double[] velocity) {
+		this.propagate(date.durationFrom(this.epoch), position, velocity);
+	}
+
+	/**
+	 * Computes the position and velocity at an offset from the epoch.
+	 *
+	 * @param dt       Offset from the date of the initial state (s)
+	 * @param position Output position (m), at least 3 elements
+	 * @param velocity Output velocity (m/s), at least 3 elements, or null if not
+	 *                 needed
+	 */
+	public void propagate(final double dt, final double[] position, final double[] velocity) {
+		final double meanAnomaly = this.meanAnomaly0 + this.n * dt;
+
+		// Kepler equation
+		double eccentricAnomaly = meanAnomaly;
+		for (int k = 0; k < MAX_ITERATIONS; k++) {
+			final double delta = (eccentricAnomaly - this.e * FastMath.sin(eccentricAnomaly) - meanAnomaly)
+					/ (1. - this.e * FastMath.cos(eccentricAnomaly));
+			eccentricAnomaly -= delta;
+			if (FastMath.abs(delta) < 1.e-15) {
+				break;
+			}
+		}
+		final double cosE = FastMath.cos(eccentricAnomaly);
+		final double sinE = FastMath.sin(eccentricAnomaly);
+
+		final double x = this.a * (cosE - this.e);
+		final double y = this.a * this.sqrtOneMinusE2 * sinE;
+		position[0] = x * this.px + y * this.qx;
+		position[1] = x * this.py + y * this.qy;
+		position[2] = x * this.pz + y * this.qz;
+
+		if (velocity != null) {
+			final double factor = this.n * this.a / (1. - this.e * cosE);
+			final double vx = -factor * sinE;
+			final double vy = factor * this.sqrtOneMinusE2 * cosE;
+			velocity[0] = vx * this.px + vy * this.qx;
+			velocity[1] = vx * this.py + vy * this.qy;
+			velocity[2] = vx * this.pz + vy * this.qz;
+		}
+	}
+
+	/**
+	 * Computes the maximum distance between the positions of this propagator and
+	 * of a reference propagator, for validation.
+	 *
+	 * @param reference Reference propagator, for instance the
+	 *                  {@link fr.cnes.sirius.patrius.propagation.analytical.KeplerianPropagator}
+	 *                  of the mission
+	 * @param interval  Compared interval
+	 * @param step      Comparison step (s)
+	 * @return the maximum position error (m)
+	 * @throws PatriusException if the reference propagation fails
+	 */
+	public double computeMaxPositionError(final PVCoordinatesProvider reference, final AbsoluteDateInterval interval,
+			final double step) throws PatriusException {
+		final double[] position = new double[3];
+		final double duration = interval.getUpperData().durationFrom(interval.getLowerData());
+		double maxError = 0.;
+		for (double t = 0.; t <= duration; t += step) {
+			final AbsoluteDate date = interval.getLowerData().shiftedBy(t);
+			this.propagate(date, position, null);
+			final Vector3D expected = reference.getPVCoordinates(date, this.frame).getPosition();
+			maxError = FastMath.max(maxError,
+					Vector3D.distance(expected, new Vector3D(position[0], position[1], position[2])));
+		}
+		return maxError;
+	}
+
+	/**
+	 * Dot product of two arrays of 3 elements.
+	 *
+	 * @param u First array
+	 * @param v Second array
+	 * @return the dot product
+	 */
+	private static double dot(final double[] u, final double[] v) {
+		return u[0] * v[0] + u[1] * v[1] + u[2] * v[2];
+	}
+
+	/**
+	 * @return the date of the initial state
+	 */
+	public AbsoluteDate getEpoch() {
+		return this.epoch;
+	}
+
+	/**
+	 * @return the inertial frame of the positions and velocities
+	 */
+	public Frame getFrame() {
+		return this.frame;
+	}
+
+	/**
+	 * @return the semi-major axis (m)
+	 */
+	public double getSemiMajorAxis() {
+		return this.a;
+	}
+
+	/**
+	 * @return the eccentricity
+	 */
+	public double getEccentricity() {
+		return this.e;
+	}
+
+	/**
+	 * @return the Keplerian period (s)
+	 */
+	public double getPeriod() {
+		return 2. * FastMath.PI / this.n;
+	}
+
+	/**
+	 * @return the mean motion (rad/s)
+	 */
+	public double getMeanMotion() {
+		return this.n;
+	}
+}
@@ -0,0 +1,105 @@
+package progmission;
+
+import fr.cnes.sirius.patrius.propagation.SpacecraftState;
+import fr.cnes.sirius.patrius.propagation.analytical.KeplerianPropagator;
+import fr.cnes.sirius.patrius.propagation.events.EventDetector;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PropagationException;
+
+/**
+ * Isolated propagation context used by the access computation.
+ *
+ * A session owns its own {@link KeplerianPropagator}, built from the initial
+ * {@link fr.cnes.sirius.patrius.orbits.Orbit} and the default attitude law of a
+ * {@link Satellite}. The detectors added for one computation therefore never
+ * leak into another one, and closing the session detaches all of them. This
+ * keeps the cost of each propagation proportional to the detectors it actually
+ * needs, whereas the shared {@link Satellite#getPropagator()} accumulates every
+ * detector ever added to it.
+ *
+ * Typical use :
+ *
+ * <pre>
+ * try (final PropagationSession session = mission.openPropagationSession()) {
+ * 	session.addEventDetector(detector);
+ * 	session.propagate(start, end);
+ * }
+ * </pre>
+ *
+ * A session is not thread-safe : use one session per thread.
+ *
+ * @author agent
+ */
+public class PropagationSession implements AutoCloseable {
+
+	/** {@link Satellite} whose orbit is propagated. */
+	private final Satellite satellite;
+
+	/** Propagator owned by this session. */
+	private final KeplerianPropagator propagator;
+
+	/**
+	 * Opens a new session for the input {@link Satellite}.
+	 *
+	 * @param satellite {@link Satellite} whose orbit and default attitude law are
+	 *                  used to build the propagator
+	 * @throws PropagationException if the initial attitude cannot be computed
+	 */
+	public PropagationSession(final Satellite satellite) throws PropagationException {
+		this.satellite = satellite;
+		this.propagator = new KeplerianPropagator(satellite.getInitialOrbit(), satellite.getDefaultAttitudeLaw());
+	}
+
+	/**
+	 * Adds an {@link EventDetector} to the propagator of this session.
+	 *
+	 * @param detector {@link EventDetector} to add
+	 */
+	public void addEventDetector(final EventDetector detector) {
+		this.propagator.addEventDetector(detector);
+	}
+
+	/**
+	 * Propagates the orbit between the two input dates, triggering all the
+	 * detectors of this session.
+	 *
+	 * @param start Propagation start date
+	 * @param end   Propagation end date
+	 * @return the {@link SpacecraftState} at the end date
+	 * @throws PropagationException if the propagation fails
+	 */
+	public SpacecraftState propagate(final AbsoluteDate start, final AbsoluteDate end) throws PropagationException {
+		return this.propagator.propagate(start, end);
+	}
+
+	/**
+	 * Detaches all the detectors of this session, which stays open : the
+	 * propagator can then be used to compute states without triggering them.
+	 */
+	public void clearDetectors() {
+		this.propagator.clearEventsDetectors();
+	}
+
+	/**
+	 * Detaches all the detectors of this session. The session can be reused
+	 * afterwards.
+	 */
+	@Override
+	public void close() {
+		this.clearDetectors();
+	}
+
+	/**
+	 * @return the satellite
+	 */
+	public Satellite getSatellite() {
+		return this.satellite;
+	}
+
+	/**
+	 * @return the propagator
+	 */
+	public KeplerianPropagator getPropagator() {
+		return this.propagator;
+	}
+}
@@ -0,0 +1,117 @@
+package progmission;
+
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.utils.Constants;
+
+/**
+ * Ground-track repeat cycle of an orbit : after {@link #getNbOrbits()} orbits,
+ * the Earth has made {@link #getNbDays()} revolutions and the satellite flies
+ * over the same ground track again, shifted in longitude by
+ * {@link #getDrift()}.
+ *
+ * The cycle is detected on the two-body motion of the
+ * {@link PlanningPropagator}, without the nodal precession : the satellite
+ * position in the inertial frame is the same after a whole number of orbits,
+ * and the drift is the Earth rotation during these orbits in excess of a whole
+ * number of revolutions.
+ *
+ * This class is immutable.
+ *
+ * @author agent
+ */
+public final class RepeatCycle {
+
+	/** Default maximum longitude drift of an accepted cycle (rad), about 11 km. */
+	public static final double DEFAULT_MAX_DRIFT = FastMath.toRadians(0.1);
+
+	/** Number of orbits of the cycle. */
+	private final int nbOrbits;
+
+	/** Number of Earth revolutions of the cycle. */
+	private final int nbDays;
+
+	/** Duration of the cycle (s). */
+	private final double period;
+
+	/** Longitude drift of the ground track after one cycle (rad). */
+	private final double drift;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param nbOrbits Number of orbits of the cycle
+	 * @param nbDays   Number of Earth revolutions of the cycle
+	 * @param period   Duration of the cycle (s)
+	 * @param drift    Longitude drift of the ground track after one cycle (rad)
+	 */
+	private RepeatCycle(final int nbOrbits, final int nbDays, final double period, final double drift) {
+		this.nbOrbits = nbOrbits;
+		this.nbDays = nbDays;
+		this.period = period;
+		this.drift = drift;
+	}
+
+	/**
+	 * Detects the shortest repeat cycle of an orbit whose ground track drift is
+	 * below a maximum.
+	 *
+	 * @param propagator  Planning propagator of the orbit
+	 * @param maxDuration Maximum duration of the cycle (s)
+	 * @param maxDrift    Maximum longitude drift of the ground track after one
+	 *                    cycle (rad)
+	 * @return the repeat cycle, or null if no cycle shorter than the maximum
+	 *         duration has a drift below the maximum
+	 */
+	public static RepeatCycle detect(final PlanningPropagator propagator, final double maxDuration,
+			final double maxDrift) {
+		final double orbitPeriod = propagator.getPeriod();
+		final double siderealDay = 2. * FastMath.PI / Constants.WGS84_EARTH_ANGULAR_VELOCITY;
+		for (int nbDays = 1; nbDays * siderealDay <= maxDuration + orbitPeriod; nbDays++) {
+			final int nbOrbits = (int) FastMath.round(nbDays * siderealDay / orbitPeriod);
+			final double period = nbOrbits * orbitPeriod;
+			if (nbOrbits == 0 || period > maxDuration) {
+				continue;
+			}
+			final double drift = (period - nbDays * siderealDay) * Constants.WGS84_EARTH_ANGULAR_VELOCITY;
+			if (FastMath.abs(drift) <= maxDrift) {
+				return new RepeatCycle(nbOrbits, nbDays, period, drift);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the number of orbits of the cycle
+	 */
+	public int getNbOrbits() {
+		return this.nbOrbits;
+	}
+
+	/**
+	 * @return the number of Earth revolutions of the cycle
+	 */
+	public int getNbDays() {
+		return this.nbDays;
+	}
+
+	/**
+	 * @return the duration of the cycle (s)
+	 */
+	public double getPeriod() {
+		return this.period;
+	}
+
+	/**
+	 * @return the longitude drift of the ground track after one cycle (rad),
+	 *         positive westwards
+	 */
+	public double getDrift() {
+		return this.drift;
+	}
+
+	@Override
+	public String toString() {
+		return this.nbOrbits + " orbits in " + this.nbDays + " days (" + this.period + " s, drift "
+				+ FastMath.toDegrees(this.drift) + " deg)";
+	}
+}
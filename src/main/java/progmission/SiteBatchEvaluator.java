@@ -0,0 +1,223 @@
+package progmission;
+
+import java.util.List;
+
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import progmission.SiteGeometryRegistry.SiteGeometry;
+import reader.Site;
+import utils.ConstantsBE;
+
+/**
+ * Evaluates the access constraints of many {@link Site}s at one date.
+ *
+ * At a given date, the satellite position, the Sun position and the Earth
+ * orientation are the same for all the sites. Once the satellite and the Sun
+ * are expressed in the Earth body frame, the constraints of all the sites are
+ * computed in one loop over the site coordinates, stored as a structure of
+ * arrays. The loop only contains multiplications, additions, square roots and
+ * minimums on primitive arrays, with no call and no allocation, so that the JIT
+ * compiler can unroll and vectorize it.
+ *
+ * The values have the same sign as the g functions of the detectors of the
+ * {@link CompleteMission} (and therefore the same roots), but they are built on
+ * the cosines of the angles instead of the angles themselves, to avoid the
+ * inverse trigonometric functions in the loop :
+ * <ul>
+ * <li>visibility : positive when the site is inside the pointing cone of the
+ * nadir pointing satellite and the satellite is above the horizon of the site,
+ * like the {@link ConeVisibilityDetector};</li>
+ * <li>illumination : positive when the Sun incidence at the site is below
+ * {@link ConstantsBE#MAX_SUN_INCIDENCE_ANGLE};</li>
+ * <li>dazzling : negative when the phase angle satellite - site - Sun is below
+ * {@link ConstantsBE#MAX_SUN_PHASE_ANGLE}.</li>
+ * </ul>
+ *
+ * An evaluator is not thread-safe : use one evaluator per thread.
+ *
+ * @author agent
+ */
+public class SiteBatchEvaluator {
+
+	/** Number of sites. */
+	private final int size;
+
+	/** X coordinates of the sites in the Earth body frame (m). */
+	private final double[] x;
+
+	/** Y coordinates of the sites in the Earth body frame (m). */
+	private final double[] y;
+
+	/** Z coordinates of the sites in the Earth body frame (m). */
+	private final double[] z;
+
+	/** Distances of the sites to the Earth center (m). */
+	private final double[] radius;
+
+	/** X coordinates of the zenith of the sites. */
+	private final double[] zenithX;
+
+	/** Y coordinates of the zenith of the sites. */
+	private final double[] zenithY;
+
+	/** Z coordinates of the zenith of the sites. */
+	private final double[] zenithZ;
+
+	/** Cosine of the pointing capacity. */
+	private final double cosPointing;
+
+	/** Cosine of the minimum angle Earth center - site - Sun. */
+	private final double cosIllumination;
+
+	/** Cosine of the maximum phase angle. */
+	private final double cosPhase;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param sites      Input sites, in the order of the evaluated values
+	 * @param geometries Registry of the site geometries
+	 */
+	public SiteBatchEvaluator(final List<Site> sites, final SiteGeometryRegistry geometries) {
+		this.size = sites.size();
+		this.x = new double[this.size];
+		this.y = new double[this.size];
+		this.z = new double[this.size];
+		this.radius = new double[this.size];
+		this.zenithX = new double[this.size];
+		this.zenithY = new double[this.size];
+		this.zenithZ = new double[this.size];
+		for (int i = 0; i < this.size; i++) {
+			final SiteGeometry geometry = geometries.getGeometry(sites.get(i));
+			this.x[i] = geometry.getPosition().getX();
+			this.y[i] = geometry.getPosition().getY();
+			this.z[i] = geometry.getPosition().getZ();
+			this.radius[i] = geometry.getPosition().getNorm();
+			this.zenithX[i] = geometry.getZenith().getX();
+			this.zenithY[i] = geometry.getZenith().getY();
+			this.zenithZ[i] = geometry.getZenith().getZ();
+		}
+		this.cosPointing = FastMath.cos(FastMath.toRadians(ConstantsBE.POINTING_CAPACITY));
+		this.cosIllumination = FastMath.cos(FastMath.toRadians(180. - ConstantsBE.MAX_SUN_INCIDENCE_ANGLE));
+		this.cosPhase = FastMath.cos(FastMath.toRadians(ConstantsBE.MAX_SUN_PHASE_ANGLE));
+	}
+
+	/**
+	 * Evaluates the constraints of all the sites.
+	 *
+	 * @param satellite    Satellite position in the Earth body frame, 3 elements
+	 * @param sun          Sun position in the Earth body frame, 3 elements
+	 * @param visibility   Output visibility values, positive when visible
+	 * @param illumination Output illumination values, positive when illuminated
+	 * @param dazzling     Output dazzling values, negative when not dazzled
+	 */
+	public void evaluate(final double[] satellite, final double[] sun, final double[] visibility,
+			final double[] illumination, final double[] dazzling) {
+		final double sx = satellite[0];
+		final double sy = satellite[1];
+		final double sz = satellite[2];
+		final double satelliteNorm = Math.sqrt(sx * sx + sy * sy + sz * sz);
+		final double ux = sun[0];
+		final double uy = sun[1];
+		final double uz = sun[2];
+
+		for (int i = 0; i < this.size; i++) {
+			// Site to satellite and site to Sun vectors
+			final double dx = sx - this.x[i];
+			final double dy = sy - this.y[i];
+			final double dz = sz - this.z[i];
+			final double d = Math.sqrt(dx * dx + dy * dy + dz * dz);
+			final double lx = ux - this.x[i];
+			final double ly = uy - this.y[i];
+			final double lz = uz - this.z[i];
+			final double l = Math.sqrt(lx * lx + ly * ly + lz * lz);
+
+			// Visibility : cosine of the off-nadir angle above the cosine of the pointing
+			// capacity, and satellite above the horizon
+			final double cosOffNadir = (dx * sx + dy * sy + dz * sz) / (d * satelliteNorm);
+			final double sinElevation = (dx * this.zenithX[i] + dy * this.zenithY[i] + dz * this.zenithZ[i]) / d;
+			visibility[i] = Math.min(cosOffNadir - this.cosPointing, sinElevation);
+
+			// Illumination : angle Earth center - site - Sun above its minimum
+			final double cosCenterSun = -(this.x[i] * lx + this.y[i] * ly + this.z[i] * lz) / (this.radius[i] * l);
+			illumination[i] = this.cosIllumination - cosCenterSun;
+
+			// Dazzling : phase angle satellite - site - Sun above its maximum
+			final double cosPhaseAngle = (dx * lx + dy * ly + dz * lz) / (d * l);
+			dazzling[i] = this.cosPhase - cosPhaseAngle;
+		}
+	}
+
+	/**
+	 * Evaluates whether all the constraints of one site are fulfilled.
+	 *
+	 * @param index     Index of the site
+	 * @param satellite Satellite position in the Earth body frame, 3 elements
+	 * @param sun       Sun position in the Earth body frame, 3 elements
+	 * @return true if the site is visible, illuminated and not dazzling
+	 */
+	public boolean isAccessible(final int index, final double[] satellite, final double[] sun) {
+		final double dx = satellite[0] - this.x[index];
+		final double dy = satellite[1] - this.y[index];
+		final double dz = satellite[2] - this.z[index];
+		final double d = Math.sqrt(dx * dx + dy * dy + dz * dz);
+		final double lx = sun[0] - this.x[index];
+		final double ly = sun[1] - this.y[index];
+		final double lz = sun[2] - this.z[index];
+		final double l = Math.sqrt(lx * lx + ly * ly + lz * lz);
+		final double satelliteNorm = Math.sqrt(
+				satellite[0] * satellite[0] + satellite[1] * satellite[1] + satellite[2] * satellite[2]);
+		return (dx * satellite[0] + dy * satellite[1] + dz * satellite[2]) / (d * satelliteNorm) > this.cosPointing
+				&& dx * this.zenithX[index] + dy * this.zenithY[index] + dz * this.zenithZ[index] > 0.
+				&& -(this.x[index] * lx + this.y[index] * ly + this.z[index] * lz)
+						/ (this.radius[index] * l) < this.cosIllumination
+				&& (dx * lx + dy * ly + dz * lz) / (d * l) > this.cosPhase;
+	}
+
+	/**
+	 * Evaluates whether one site is visible, whatever the Sun.
+	 *
+	 * @param index     Index of the site
+	 * @param satellite Satellite position in the Earth body frame, 3 elements
+	 * @return true if the site is inside the pointing cone of the satellite and
+	 *         the satellite is above the horizon of the site
+	 */
+	public boolean isVisible(final int index, final double[] satellite) {
+		final double dx = satellite[0] - this.x[index];
+		final double dy = satellite[1] - this.y[index];
+		final double dz = satellite[2] - this.z[index];
+		final double d = Math.sqrt(dx * dx + dy * dy + dz * dz);
+		final double satelliteNorm = Math.sqrt(
+				satellite[0] * satellite[0] + satellite[1] * satellite[1] + satellite[2] * satellite[2]);
+		return (dx * satellite[0] + dy * satellite[1] + dz * satellite[2]) / (d * satelliteNorm) > this.cosPointing
+				&& dx * this.zenithX[index] + dy * this.zenithY[index] + dz * this.zenithZ[index] > 0.;
+	}
+
+	/**
+	 * Computes the visibility value of one site, whatever the Sun : the value of
+	 * the visibility constraint of {@link #evaluate}, positive when the site is
+	 * visible (see {@link #isVisible}).
+	 *
+	 * @param index     Index of the site
+	 * @param satellite Satellite position in the Earth body frame, 3 elements
+	 * @return the smallest of the cone and horizon margins
+	 */
+	public double computeVisibility(final int index, final double[] satellite) {
+		final double dx = satellite[0] - this.x[index];
+		final double dy = satellite[1] - this.y[index];
+		final double dz = satellite[2] - this.z[index];
+		final double d = Math.sqrt(dx * dx + dy * dy + dz * dz);
+		final double satelliteNorm = Math.sqrt(
+				satellite[0] * satellite[0] + satellite[1] * satellite[1] + satellite[2] * satellite[2]);
+		final double cosOffNadir = (dx * satellite[0] + dy * satellite[1] + dz * satellite[2]) / (d * satelliteNorm);
+		final double sinElevation = (dx * this.zenithX[index] + dy * this.zenithY[index] + dz * this.zenithZ[index])
+				/ d;
+		return Math.min(cosOffNadir - this.cosPointing, sinElevation);
+	}
+
+	/**
+	 * @return the number of sites
+	 */
+	public int size() {
+		return this.size;
+	}
+}
@@ -0,0 +1,64 @@
+package progmission;
+
+import fr.cnes.sirius.patrius.frames.Frame;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.orbits.pvcoordinates.PVCoordinates;
+import fr.cnes.sirius.patrius.orbits.pvcoordinates.PVCoordinatesProvider;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * Coordinates of a ground site, fixed in the Earth body frame, computed in the
+ * inertial frame with an {@link EarthOrientationCache} instead of the frames
+ * tree.
+ *
+ * It replaces the {@link fr.cnes.sirius.patrius.frames.TopocentricFrame} of the
+ * site wherever only its coordinates are needed (detectors targets).
+ *
+ * @author agent
+ */
+public class SiteCoordinatesProvider implements PVCoordinatesProvider {
+
+	/** Serial UID. */
+	private static final long serialVersionUID = 1L;
+
+	/** Cache of the Earth orientation. */
+	private final EarthOrientationCache earthOrientation;
+
+	/** Coordinates of the site in the Earth body frame. */
+	private final PVCoordinates bodyCoordinates;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param earthOrientation Cache of the Earth orientation
+	 * @param position         Position of the site in the Earth body frame
+	 */
+	public SiteCoordinatesProvider(final EarthOrientationCache earthOrientation, final Vector3D position) {
+		this.earthOrientation = earthOrientation;
+		this.bodyCoordinates = new PVCoordinates(position, Vector3D.ZERO);
+	}
+
+	@Override
+	public PVCoordinates getPVCoordinates(final AbsoluteDate date, final Frame frame) throws PatriusException {
+		if (frame == this.earthOrientation.getBodyFrame()) {
+			return this.bodyCoordinates;
+		}
+		final PVCoordinates inertialCoordinates = this.earthOrientation.toInertial(date, this.bodyCoordinates);
+		if (frame == this.earthOrientation.getInertialFrame()) {
+			return inertialCoordinates;
+		}
+		return this.earthOrientation.getInertialFrame().getTransformTo(frame, date)
+				.transformPVCoordinates(inertialCoordinates);
+	}
+
+	/**
+	 * @param date  Input date
+	 * @param frame Input frame
+	 * @return the Earth body frame, where the site coordinates are constant
+	 */
+	@Override
+	public Frame getNativeFrame(final AbsoluteDate date, final Frame frame) {
+		return this.earthOrientation.getBodyFrame();
+	}
+}
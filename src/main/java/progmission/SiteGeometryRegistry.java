@@ -0,0 +1,169 @@
+package progmission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import fr.cnes.sirius.patrius.bodies.BodyShape;
+import fr.cnes.sirius.patrius.frames.TopocentricFrame;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import reader.Site;
+
+/**
+ * Registry of the fixed geometry of the {@link Site}s : topocentric frame,
+ * position and zenith in the Earth body frame, and provider of the site
+ * coordinates through an {@link EarthOrientationCache}.
+ *
+ * The geometry of a site is built once, on its first request, and then shared
+ * by all the detectors and computations of the mission. Each new
+ * {@link TopocentricFrame} is a new node of the frames tree, so building one
+ * frame per site instead of one per detector also keeps the tree small.
+ *
+ * The sites are identified by reference, like in the access plan. This class
+ * is thread-safe.
+ *
+ * @author agent
+ */
+public class SiteGeometryRegistry {
+
+	/** Earth shape the sites are defined on. */
+	private final BodyShape earth;
+
+	/** Cache of the Earth orientation used by the coordinates providers. */
+	private final EarthOrientationCache earthOrientation;
+
+	/** Geometry of the sites already requested. */
+	private final ConcurrentMap<Site, SiteGeometry> geometries = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param earth            Earth shape the sites are defined on
+	 * @param earthOrientation Cache of the Earth orientation used by the
+	 *                         coordinates providers
+	 */
+	public SiteGeometryRegistry(final BodyShape earth, final EarthOrientationCache earthOrientation) {
+		this.earth = earth;
+		this.earthOrientation = earthOrientation;
+	}
+
+	/**
+	 * Gets the geometry of a site, built on the first request.
+	 *
+	 * @param site Input site
+	 * @return the geometry of the site
+	 */
+	public SiteGeometry getGeometry(final Site site) {
+		return this.geometries.computeIfAbsent(site, this::createGeometry);
+	}
+
+	/**
+	 * Gets the topocentric frame of a site, built on the first request.
+	 *
+	 * @param site Input site
+	 * @return the topocentric frame of the site
+	 */
+	public TopocentricFrame getFrame(final Site site) {
+		return this.getGeometry(site).getFrame();
+	}
+
+	/**
+	 * Gets the provider of the coordinates of a site, built on the first request.
+	 *
+	 * @param site Input site
+	 * @return the coordinates provider of the site
+	 */
+	public SiteCoordinatesProvider getProvider(final Site site) {
+		return this.getGeometry(site).getProvider();
+	}
+
+	/**
+	 * Builds the geometry of a site.
+	 *
+	 * @param site Input site
+	 * @return the geometry of the site
+	 */
+	private SiteGeometry createGeometry(final Site site) {
+		final TopocentricFrame frame = new TopocentricFrame(this.earth, site.getPoint(), site.getName());
+		final Vector3D position = this.earth.transform(site.getPoint());
+		return new SiteGeometry(frame, position, frame.getZenith(),
+				new SiteCoordinatesProvider(this.earthOrientation, position));
+	}
+
+	/**
+	 * @return the number of sites in the registry
+	 */
+	public int size() {
+		return this.geometries.size();
+	}
+
+	/**
+	 * @return the Earth shape the sites are defined on
+	 */
+	public BodyShape getEarth() {
+		return this.earth;
+	}
+
+	/**
+	 * Fixed geometry of a site.
+	 *
+	 * @author agent
+	 */
+	public static final class SiteGeometry {
+
+		/** Topocentric frame of the site. */
+		private final TopocentricFrame frame;
+
+		/** Position of the site in the Earth body frame. */
+		private final Vector3D position;
+
+		/** Zenith of the site in the Earth body frame. */
+		private final Vector3D zenith;
+
+		/** Provider of the site coordinates. */
+		private final SiteCoordinatesProvider provider;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param frame    Topocentric frame of the site
+		 * @param position Position of the site in the Earth body frame
+		 * @param zenith   Zenith of the site in the Earth body frame
+		 * @param provider Provider of the site coordinates
+		 */
+		private SiteGeometry(final TopocentricFrame frame, final Vector3D position, final Vector3D zenith,
+				final SiteCoordinatesProvider provider) {
+			this.frame = frame;
+			this.position = position;
+			this.zenith = zenith;
+			this.provider = provider;
+		}
+
+		/**
+		 * @return the topocentric frame of the site
+		 */
+		public TopocentricFrame getFrame() {
+			return this.frame;
+		}
+
+		/**
+		 * @return the position of the site in the Earth body frame
+		 */
+		public Vector3D getPosition() {
+			return this.position;
+		}
+
+		/**
+		 * @return the zenith of the site in the Earth body frame
+		 */
+		public Vector3D getZenith() {
+			return this.zenith;
+		}
+
+		/**
+		 * @return the provider of the site coordinates
+		 */
+		public SiteCoordinatesProvider getProvider() {
+			return this.provider;
+		}
+	}
+}
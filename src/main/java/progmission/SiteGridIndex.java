@@ -0,0 +1,234 @@
+package progmission;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import fr.cnes.sirius.patrius.bodies.GeodeticPoint;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import reader.Site;
+
+/**
+ * Spatial index of a {@link Site} catalog on a regular latitude/longitude grid.
+ *
+ * The index answers the question "which sites lie within the angular radius r
+ * of this ground point" by visiting only the grid cells overlapping the
+ * spherical cap of radius r, instead of scanning the whole catalog. The sites
+ * are stored cell by cell in compact arrays (the sites of the cell c are the
+ * indices cellSites[cellStart[c]] to cellSites[cellStart[c + 1] - 1]).
+ *
+ * Distances are Earth central angles computed on the sphere, which is the Earth
+ * model of the mission.
+ *
+ * @author agent
+ */
+public class SiteGridIndex {
+
+	/** Default size of the grid cells (rad). */
+	public static final double DEFAULT_CELL_SIZE = FastMath.toRadians(1.);
+
+	/** Indexed sites. */
+	private final List<Site> sites;
+
+	/** X coordinates of the site unit vectors (Earth frame). */
+	private final double[] siteX;
+
+	/** Y coordinates of the site unit vectors (Earth frame). */
+	private final double[] siteY;
+
+	/** Z coordinates of the site unit vectors (Earth frame). */
+	private final double[] siteZ;
+
+	/** Size of the grid cells (rad). */
+	private final double cellSize;
+
+	/** Number of latitude rows. */
+	private final int nbRows;
+
+	/** Number of longitude columns. */
+	private final int nbColumns;
+
+	/** Start of the sites of each cell in {@link #cellSites}. */
+	private final int[] cellStart;
+
+	/** Site indices sorted cell by cell. */
+	private final int[] cellSites;
+
+	/**
+	 * Builds the index with the default cell size.
+	 *
+	 * @param sites Sites to index
+	 */
+	public SiteGridIndex(final List<Site> sites) {
+		this(sites, DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * Builds the index.
+	 *
+	 * @param sites    Sites to index
+	 * @param cellSize Size of the grid cells (rad). Small cells make the queries
+	 *                 more selective, at the cost of visiting more cells.
+	 * @throws IllegalArgumentException if the cell size is not strictly positive
+	 */
+	public SiteGridIndex(final List<Site> sites, final double cellSize) {
+		if (!(cellSize > 0.)) {
+			throw new IllegalArgumentException("The cell size must be strictly positive");
+		}
+		this.sites = new ArrayList<>(sites);
+		this.nbRows = (int) FastMath.ceil(FastMath.PI / cellSize);
+		this.nbColumns = (int) FastMath.ceil(2. * FastMath.PI / cellSize);
+		this.cellSize = cellSize;
+
+		final int n = this.sites.size();
+		this.siteX = new double[n];
+		this.siteY = new double[n];
+		this.siteZ = new double[n];
+		final int[] siteCell = new int[n];
+		this.cellStart = new int[this.nbRows * this.nbColumns + 1];
+		for (int i = 0; i < n; i++) {
+			final GeodeticPoint point = this.sites.get(i).getPoint();
+			final double cosLat = FastMath.cos(point.getLatitude());
+			this.siteX[i] = cosLat * FastMath.cos(point.getLongitude());
+			this.siteY[i] = cosLat * FastMath.sin(point.getLongitude());
+			this.siteZ[i] = FastMath.sin(point.getLatitude());
+			siteCell[i] = this.cellIndex(this.row(point.getLatitude()), this.column(point.getLongitude()));
+			this.cellStart[siteCell[i] + 1]++;
+		}
+
+		// Counting sort of the sites by cell
+		for (int c = 0; c < this.nbRows * this.nbColumns; c++) {
+			this.cellStart[c + 1] += this.cellStart[c];
+		}
+		this.cellSites = new int[n];
+		final int[] fill = new int[this.nbRows * this.nbColumns];
+		for (int i = 0; i < n; i++) {
+			this.cellSites[this.cellStart[siteCell[i]] + fill[siteCell[i]]++] = i;
+		}
+	}
+
+	/**
+	 * Visits the index of every site lying within the input angular radius of the
+	 * input ground point.
+	 *
+	 * @param latitude  Latitude of the ground point (rad)
+	 * @param longitude Longitude of the ground point (rad)
+	 * @param radius    Earth central angle (rad)
+	 * @param visitor   Visitor called with the index of each site found, see
+	 *                  {@link #getSite(int)}
+	 */
+	public void forEachSiteWithin(final double latitude, final double longitude, final double radius,
+			final IntConsumer visitor) {
+		final double cosLat = FastMath.cos(latitude);
+		final double x = cosLat * FastMath.cos(longitude);
+		final double y = cosLat * FastMath.sin(longitude);
+		final double z = FastMath.sin(latitude);
+		final double cosRadius = FastMath.cos(FastMath.min(radius, FastMath.PI));
+
+		// Latitude band of the spherical cap
+		final double minLat = latitude - radius;
+		final double maxLat = latitude + radius;
+		final int firstRow = this.row(FastMath.max(minLat, -FastMath.PI / 2.));
+		final int lastRow = this.row(FastMath.min(maxLat, FastMath.PI / 2.));
+
+		// Longitude half-width of the cap in columns, all the longitudes if the cap
+		// contains a pole. The margin accounts for the cell boundaries and the
+		// narrower last column.
+		final int nbColumnsHalfWidth;
+		final double maxAbsLat = FastMath.max(FastMath.abs(minLat), FastMath.abs(maxLat));
+		if (maxAbsLat >= FastMath.PI / 2.) {
+			nbColumnsHalfWidth = this.nbColumns;
+		} else {
+			final double sinHalfWidth = FastMath.sin(FastMath.min(radius, FastMath.PI / 2.))
+					/ FastMath.cos(maxAbsLat);
+			nbColumnsHalfWidth = sinHalfWidth >= 1. ? this.nbColumns
+					: (int) FastMath.ceil(FastMath.asin(sinHalfWidth) / this.cellSize) + 2;
+		}
+		final int centerColumn = this.column(longitude);
+		final int firstOffset;
+		final int lastOffset;
+		if (2 * nbColumnsHalfWidth + 1 >= this.nbColumns) {
+			firstOffset = -centerColumn;
+			lastOffset = this.nbColumns - 1 - centerColumn;
+		} else {
+			firstOffset = -nbColumnsHalfWidth;
+			lastOffset = nbColumnsHalfWidth;
+		}
+
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int offset = firstOffset; offset <= lastOffset; offset++) {
+				final int column = Math.floorMod(centerColumn + offset, this.nbColumns);
+				final int cell = this.cellIndex(row, column);
+				for (int k = this.cellStart[cell]; k < this.cellStart[cell + 1]; k++) {
+					final int i = this.cellSites[k];
+					if (x * this.siteX[i] + y * this.siteY[i] + z * this.siteZ[i] >= cosRadius) {
+						visitor.accept(i);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the sites lying within the input angular radius of the input ground
+	 * point.
+	 *
+	 * @param latitude  Latitude of the ground point (rad)
+	 * @param longitude Longitude of the ground point (rad)
+	 * @param radius    Earth central angle (rad)
+	 * @return the sites found
+	 */
+	public List<Site> getSitesWithin(final double latitude, final double longitude, final double radius) {
+		final List<Site> found = new ArrayList<>();
+		this.forEachSiteWithin(latitude, longitude, radius, i -> found.add(this.sites.get(i)));
+		return found;
+	}
+
+	/**
+	 * @param index Index of a site in the index
+	 * @return the site
+	 */
+	public Site getSite(final int index) {
+		return this.sites.get(index);
+	}
+
+	/**
+	 * @return the number of indexed sites
+	 */
+	public int size() {
+		return this.sites.size();
+	}
+
+	/**
+	 * Computes the row of the input latitude.
+	 *
+	 * @param latitude Latitude (rad)
+	 * @return the row
+	 */
+	private int row(final double latitude) {
+		final int row = (int) FastMath.floor((latitude + FastMath.PI / 2.) / this.cellSize);
+		return FastMath.min(FastMath.max(row, 0), this.nbRows - 1);
+	}
+
+	/**
+	 * Computes the column of the input longitude.
+	 *
+	 * @param longitude Longitude (rad)
+	 * @return the column
+	 */
+	private int column(final double longitude) {
+		final int column = (int) FastMath.floor((longitude + FastMath.PI) / this.cellSize);
+		return Math.floorMod(column, this.nbColumns);
+	}
+
+	/**
+	 * Computes the index of a cell.
+	 *
+	 * @param row    Row of the cell
+	 * @param column Column of the cell
+	 * @return the cell index
+	 */
+	private int cellIndex(final int row, final int column) {
+		return row * this.nbColumns + column;
+	}
+}
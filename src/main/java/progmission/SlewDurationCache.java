@@ -0,0 +1,240 @@
+package progmission;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import fr.cnes.sirius.patrius.attitudes.Attitude;
+import fr.cnes.sirius.patrius.math.complex.Quaternion;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * Cache of the slew durations between {@link ObservationCandidate}s.
+ *
+ * {@link Satellite#computeSlewDuration(Attitude, Attitude)} converts both
+ * attitudes to EME2000 quaternions, builds two rotations and computes their
+ * distance at each call. Here, the start and end quaternions of each candidate
+ * are extracted once, on its first use, into primitive arrays. The slew angle
+ * between the end of a candidate and the start of another is then 2
+ * acos(|q1.q2|), and the slew duration is computed once per ordered pair by
+ * {@link Satellite#computeSlewDuration(double)} and stored in a primitive hash
+ * table.
+ *
+ * Only the pairs closer in time than {@link Satellite#getMaxSlewDuration()}
+ * need a slew duration, see {@link #isSlewFeasible}: the table is a sparse
+ * neighbour list limited by the time proximity of the candidates, rather than
+ * a full matrix.
+ *
+ * This class is not thread-safe.
+ *
+ * @author agent
+ */
+public class SlewDurationCache {
+
+	/** Initial capacity of the candidate arrays. */
+	private static final int INITIAL_CANDIDATES = 256;
+
+	/** Initial capacity of the duration table, a power of two. */
+	private static final int INITIAL_TABLE_SIZE = 1024;
+
+	/** Key of an empty entry of the duration table. */
+	private static final long EMPTY = -1L;
+
+	/** Satellite computing the slew durations. */
+	private final Satellite satellite;
+
+	/** Indices of the registered candidates. */
+	private final Map<ObservationCandidate, Integer> indices = new IdentityHashMap<>();
+
+	/** Start quaternions of the candidates, 4 components per candidate. */
+	private double[] startQuaternions = new double[4 * INITIAL_CANDIDATES];
+
+	/** End quaternions of the candidates, 4 components per candidate. */
+	private double[] endQuaternions = new double[4 * INITIAL_CANDIDATES];
+
+	/** Keys of the duration table : index of the first candidate and of the second. */
+	private long[] keys;
+
+	/** Values of the duration table (s). */
+	private double[] durations;
+
+	/** Number of durations in the table. */
+	private int nbDurations;
+
+	/** Number of duration requests answered by the table. */
+	private long hits;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param satellite Satellite computing the slew durations
+	 */
+	public SlewDurationCache(final Satellite satellite) {
+		this.satellite = satellite;
+		this.keys = new long[INITIAL_TABLE_SIZE];
+		Arrays.fill(this.keys, EMPTY);
+		this.durations = new double[INITIAL_TABLE_SIZE];
+	}
+
+	/**
+	 * Checks that the satellite has the time to slew from a candidate to another
+	 * one. No slew duration is computed when the candidates are further apart
+	 * than the maximum slew duration.
+	 *
+	 * @param first  First candidate
+	 * @param second Second candidate
+	 * @return true if the slew duration is shorter than the time between the
+	 *         end of the first candidate and the start of the second
+	 * @throws PatriusException if the attitudes can't be expressed in EME2000
+	 */
+	public boolean isSlewFeasible(final ObservationCandidate first, final ObservationCandidate second)
+			throws PatriusException {
+		final double available = second.getStart().durationFrom(first.getEnd());
+		if (available < 0.) {
+			return false;
+		}
+		if (available >= this.satellite.getMaxSlewDuration()) {
+			// No slew takes longer than the maximum slew duration
+			return true;
+		}
+		return this.getSlewDuration(first, second) <= available;
+	}
+
+	/**
+	 * Gets the duration of the slew from the end of a candidate to the start of
+	 * another one, computed on the first request.
+	 *
+	 * @param first  First candidate
+	 * @param second Second candidate
+	 * @return the slew duration (s)
+	 * @throws PatriusException if the attitudes can't be expressed in EME2000
+	 */
+	public double getSlewDuration(final ObservationCandidate first, final ObservationCandidate second)
+			throws PatriusException {
+		final int i = this.register(first);
+		final int j = this.register(second);
+		final long key = ((long) i << 32) | j;
+		int slot = this.find(key);
+		if (this.keys[slot] == key) {
+			this.hits++;
+			return this.durations[slot];
+		}
+
+		// Angle of the rotation between the two attitudes
+		double dot = 0.;
+		for (int c = 0; c < 4; c++) {
+			dot += this.endQuaternions[4 * i + c] * this.startQuaternions[4 * j + c];
+		}
+		final double angle = 2. * FastMath.acos(FastMath.min(1., FastMath.abs(dot)));
+		final double duration = this.satellite.computeSlewDuration(FastMath.toDegrees(angle));
+
+		if (2 * (this.nbDurations + 1) > this.keys.length) {
+			this.grow();
+			slot = this.find(key);
+		}
+		this.keys[slot] = key;
+		this.durations[slot] = duration;
+		this.nbDurations++;
+		return duration;
+	}
+
+	/**
+	 * Registers a candidate, extracting its quaternions on the first call.
+	 *
+	 * @param candidate Input candidate
+	 * @return the index of the candidate
+	 * @throws PatriusException if the attitudes can't be expressed in EME2000
+	 */
+	private int register(final ObservationCandidate candidate) throws PatriusException {
+		final Integer known = this.indices.get(candidate);
+		if (known != null) {
+			return known;
+		}
+		final int index = this.indices.size();
+		if (4 * (index + 1) > this.startQuaternions.length) {
+			this.startQuaternions = Arrays.copyOf(this.startQuaternions, 2 * this.startQuaternions.length);
+			this.endQuaternions = Arrays.copyOf(this.endQuaternions, 2 * this.endQuaternions.length);
+		}
+		this.extract(candidate.getStartAttitude(), this.startQuaternions, 4 * index);
+		this.extract(candidate.getEndAttitude(), this.endQuaternions, 4 * index);
+		this.indices.put(candidate, index);
+		return index;
+	}
+
+	/**
+	 * Extracts the EME2000 quaternion of an attitude.
+	 *
+	 * @param attitude Input attitude
+	 * @param array    Output array
+	 * @param offset   Offset of the quaternion in the array
+	 * @throws PatriusException if the attitude can't be expressed in EME2000
+	 */
+	private void extract(final Attitude attitude, final double[] array, final int offset)
+			throws PatriusException {
+		final Quaternion q = attitude.withReferenceFrame(this.satellite.getMission().getEme2000()).getRotation()
+				.getQuaternion();
+		final double norm = FastMath.sqrt(q.getQ0() * q.getQ0() + q.getQ1() * q.getQ1() + q.getQ2() * q.getQ2()
+				+ q.getQ3() * q.getQ3());
+		array[offset] = q.getQ0() / norm;
+		array[offset + 1] = q.getQ1() / norm;
+		array[offset + 2] = q.getQ2() / norm;
+		array[offset + 3] = q.getQ3() / norm;
+	}
+
+	/**
+	 * Finds the slot of a key in the duration table, by linear probing.
+	 *
+	 * @param key Input key
+	 * @return the slot holding the key, or the empty slot where it would be
+	 *         inserted
+	 */
+	private int find(final long key) {
+		final int mask = this.keys.length - 1;
+		final long hash = key * 0x9E3779B97F4A7C15L;
+		int slot = (int) (hash ^ (hash >>> 32)) & mask;
+		while (this.keys[slot] != EMPTY && this.keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Doubles the capacity of the duration table.
+	 */
+	private void grow() {
+		final long[] oldKeys = this.keys;
+		final double[] oldDurations = this.durations;
+		this.keys = new long[2 * oldKeys.length];
+		Arrays.fill(this.keys, EMPTY);
+		this.durations = new double[2 * oldDurations.length];
+		for (int k = 0; k < oldKeys.length; k++) {
+			if (oldKeys[k] != EMPTY) {
+				final int slot = this.find(oldKeys[k]);
+				this.keys[slot] = oldKeys[k];
+				this.durations[slot] = oldDurations[k];
+			}
+		}
+	}
+
+	/**
+	 * @return the number of registered candidates
+	 */
+	public int getNbCandidates() {
+		return this.indices.size();
+	}
+
+	/**
+	 * @return the number of slew durations computed
+	 */
+	public int getNbDurations() {
+		return this.nbDurations;
+	}
+
+	/**
+	 * @return the number of duration requests answered by the cache
+	 */
+	public long getHits() {
+		return this.hits;
+	}
+}
@@ -0,0 +1,166 @@
+package progmission;
+
+import fr.cnes.sirius.patrius.frames.Frame;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.orbits.pvcoordinates.PVCoordinates;
+import fr.cnes.sirius.patrius.orbits.pvcoordinates.PVCoordinatesProvider;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.time.AbsoluteDateInterval;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+
+/**
+ * Table of the Sun coordinates over the mission horizon, interpolated with
+ * cubic Hermite polynomials.
+ *
+ * The Sun ephemeris of Patrius computes the Sun position in the solar system
+ * and transforms it to the requested frame at each call. Seen from the Earth,
+ * the Sun moves by about one degree per day along a smooth trajectory : this
+ * table computes its position and velocity once per {@link #DEFAULT_STEP} and
+ * interpolates them in between. With the default step of one hour, the
+ * interpolated position is within one meter of the Patrius ephemeris, that is
+ * an angular error below 1e-11 rad seen from the Earth, far below the
+ * convergence threshold of the detectors. The dates outside of the table are
+ * computed by the original ephemeris.
+ *
+ * This class is immutable and thread-safe. It can be used in place of the Sun
+ * {@link fr.cnes.sirius.patrius.bodies.CelestialBody} wherever only its
+ * coordinates are needed.
+ *
+ * @author agent
+ */
+public class SunEphemerisTable implements PVCoordinatesProvider {
+
+	/** Serial UID. */
+	private static final long serialVersionUID = 1L;
+
+	/** Default step of the table (s). */
+	public static final double DEFAULT_STEP = 3600.;
+
+	/** Original Sun ephemeris. */
+	private final PVCoordinatesProvider sun;
+
+	/** Frame of the table. */
+	private final Frame frame;
+
+	/** Date of the first node. */
+	private final AbsoluteDate epoch;
+
+	/** Step of the table (s). */
+	private final double step;
+
+	/** Number of nodes. */
+	private final int nbNodes;
+
+	/** Positions of the nodes, 3 coordinates per node (m). */
+	private final double[] positions;
+
+	/** Velocities of the nodes, 3 coordinates per node (m/s). */
+	private final double[] velocities;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param sun     Original Sun ephemeris
+	 * @param frame   Frame of the table
+	 * @param horizon Horizon covered by the table
+	 * @param step    Step of the table (s)
+	 * @throws PatriusException if the Sun ephemeris can't be computed
+	 */
+	public SunEphemerisTable(final PVCoordinatesProvider sun, final Frame frame, final AbsoluteDateInterval horizon,
+			final double step) throws PatriusException {
+		if (!(step > 0.)) {
+			throw new IllegalArgumentException("The step of the Sun ephemeris table must be strictly positive");
+		}
+		this.sun = sun;
+		this.frame = frame;
+		this.epoch = horizon.getLowerData();
+		this.step = step;
+		final double duration = horizon.getUpperData().durationFrom(this.epoch);
+		this.nbNodes = (int) FastMath.ceil(duration / step) + 1;
+
+		this.positions = new double[3 * this.nbNodes];
+		this.velocities = new double[3 * this.nbNodes];
+		for (int k = 0; k < this.nbNodes; k++) {
+			final PVCoordinates pv = sun.getPVCoordinates(this.epoch.shiftedBy(k * step), frame);
+			this.positions[3 * k] = pv.getPosition().getX();
+			this.positions[3 * k + 1] = pv.getPosition().getY();
+			this.positions[3 * k + 2] = pv.getPosition().getZ();
+			this.velocities[3 * k] = pv.getVelocity().getX();
+			this.velocities[3 * k + 1] = pv.getVelocity().getY();
+			this.velocities[3 * k + 2] = pv.getVelocity().getZ();
+		}
+	}
+
+	@Override
+	public PVCoordinates getPVCoordinates(final AbsoluteDate date, final Frame outputFrame)
+			throws PatriusException {
+		final double x = date.durationFrom(this.epoch) / this.step;
+		if (!(x >= 0. && x <= this.nbNodes - 1)) {
+			return this.sun.getPVCoordinates(date, outputFrame);
+		}
+		final PVCoordinates pv = this.interpolate(x);
+		if (outputFrame == this.frame) {
+			return pv;
+		}
+		return this.frame.getTransformTo(outputFrame, date).transformPVCoordinates(pv);
+	}
+
+	/**
+	 * Interpolates the Sun coordinates between the two closest nodes.
+	 *
+	 * @param x Date, in steps from the first node
+	 * @return the Sun coordinates in the frame of the table
+	 */
+	private PVCoordinates interpolate(final double x) {
+		final int k = FastMath.min((int) FastMath.floor(x), this.nbNodes - 2);
+		if (k < 0) {
+			// Single node table
+			return new PVCoordinates(new Vector3D(this.positions[0], this.positions[1], this.positions[2]),
+					new Vector3D(this.velocities[0], this.velocities[1], this.velocities[2]));
+		}
+		final double t = x - k;
+		final double t2 = t * t;
+		final double t3 = t2 * t;
+
+		// Hermite basis polynomials and their derivatives
+		final double h00 = 2 * t3 - 3 * t2 + 1;
+		final double h10 = (t3 - 2 * t2 + t) * this.step;
+		final double h01 = -2 * t3 + 3 * t2;
+		final double h11 = (t3 - t2) * this.step;
+		final double d00 = (6 * t2 - 6 * t) / this.step;
+		final double d10 = 3 * t2 - 4 * t + 1;
+		final double d01 = (-6 * t2 + 6 * t) / this.step;
+		final double d11 = 3 * t2 - 2 * t;
+
+		final double[] position = new double[3];
+		final double[] velocity = new double[3];
+		for (int c = 0; c < 3; c++) {
+			final double p0 = this.positions[3 * k + c];
+			final double p1 = this.positions[3 * (k + 1) + c];
+			final double v0 = this.velocities[3 * k + c];
+			final double v1 = this.velocities[3 * (k + 1) + c];
+			position[c] = h00 * p0 + h10 * v0 + h01 * p1 + h11 * v1;
+			velocity[c] = d00 * p0 + d10 * v0 + d01 * p1 + d11 * v1;
+		}
+		return new PVCoordinates(new Vector3D(position[0], position[1], position[2]),
+				new Vector3D(velocity[0], velocity[1], velocity[2]));
+	}
+
+	/**
+	 * @param date        Input date
+	 * @param outputFrame Input frame
+	 * @return the frame of the table
+	 */
+	@Override
+	public Frame getNativeFrame(final AbsoluteDate date, final Frame outputFrame) {
+		return this.frame;
+	}
+
+	/**
+	 * @return the step of the table (s)
+	 */
+	public double getStep() {
+		return this.step;
+	}
+}
@@ -0,0 +1,24 @@
+package progmission;
+
+/**
+ * Models available for the visibility constraint of the access computation,
+ * selected by the {@link DetectionProfile}.
+ *
+ * @author agent
+ */
+public enum VisibilityModel {
+
+	/**
+	 * {@link fr.cnes.sirius.patrius.events.sensor.SensorVisibilityDetector} on a
+	 * {@link fr.cnes.sirius.patrius.assembly.models.SensorModel} of the satellite
+	 * assembly, masked by the Earth. Reference model.
+	 */
+	SENSOR_MODEL,
+
+	/**
+	 * {@link ConeVisibilityDetector} : off-nadir angle and Earth line of sight
+	 * computed directly from the positions. Same windows within the detection
+	 * threshold, at a fraction of the cost per evaluation.
+	 */
+	CONE
+}
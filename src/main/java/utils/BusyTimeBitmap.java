@@ -0,0 +1,283 @@
+package utils;
+
+import fr.cnes.sirius.patrius.math.util.FastMath;
+
+/**
+ * Occupancy of a time horizon, as a bitmap of fixed-duration slots : a slot is
+ * busy if any busy interval intersects it. The times are offsets (s) from the
+ * start of the horizon.
+ *
+ * The slots are stored as bits of a long array. Above this level, each summary
+ * level has one bit per long word of the level below, set when the word has
+ * any busy slot, up to a single word. Searching the next or previous busy slot
+ * from a time goes up the summary levels and back down : it costs
+ * O(log64(number of slots)) word operations, that is at most 4 levels for a
+ * week at 1 s resolution. A week at 1 s resolution takes about 75 KB, which
+ * stays in the processor cache.
+ *
+ * The intervals are rounded outwards to whole slots, both when they are marked
+ * and when they are queried : two intervals closer than one slot are seen as
+ * overlapping.
+ *
+ * This class is not thread-safe.
+ *
+ * @author agent
+ */
+public final class BusyTimeBitmap {
+
+	/** Default duration of a slot (s). */
+	public static final double DEFAULT_RESOLUTION = 1.;
+
+	/** Duration of a slot (s). */
+	private final double resolution;
+
+	/** Number of slots. */
+	private final int nbSlots;
+
+	/** Slot bits, then the summary levels up to a single word. */
+	private final long[][] levels;
+
+	/**
+	 * Constructor with the {@link #DEFAULT_RESOLUTION}.
+	 *
+	 * @param duration Duration of the horizon (s)
+	 */
+	public BusyTimeBitmap(final double duration) {
+		this(duration, DEFAULT_RESOLUTION);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param duration   Duration of the horizon (s)
+	 * @param resolution Duration of a slot (s)
+	 * @throws IllegalArgumentException if the duration is negative or the
+	 *                                  resolution isn't strictly positive
+	 */
+	public BusyTimeBitmap(final double duration, final double resolution) {
+		if (!(resolution > 0.) || !(duration >= 0.)) {
+			throw new IllegalArgumentException(
+					"The horizon duration must be positive and the resolution strictly positive");
+		}
+		this.resolution = resolution;
+		this.nbSlots = FastMath.max(1, (int) FastMath.ceil(duration / resolution));
+		int nbLevels = 1;
+		for (int size = this.nbSlots; size > 64; size = (size + 63) >>> 6) {
+			nbLevels++;
+		}
+		this.levels = new long[nbLevels][];
+		int size = this.nbSlots;
+		for (int level = 0; level < nbLevels; level++) {
+			this.levels[level] = new long[(size + 63) >>> 6];
+			size = this.levels[level].length;
+		}
+	}
+
+	/**
+	 * Marks an interval as busy.
+	 *
+	 * @param lower Start of the interval (s)
+	 * @param upper End of the interval (s)
+	 */
+	public void mark(final double lower, final double upper) {
+		final int first = this.firstSlot(lower);
+		final int last = this.lastSlot(upper);
+		for (int slot = first; slot <= last; slot++) {
+			this.set(slot);
+		}
+	}
+
+	/**
+	 * Marks an interval as free.
+	 *
+	 * @param lower Start of the interval (s)
+	 * @param upper End of the interval (s)
+	 */
+	public void clear(final double lower, final double upper) {
+		final int first = this.firstSlot(lower);
+		final int last = this.lastSlot(upper);
+		for (int slot = first; slot <= last; slot++) {
+			this.clear(slot);
+		}
+	}
+
+	/**
+	 * Checks that an interval doesn't intersect any busy slot.
+	 *
+	 * @param lower Start of the interval (s)
+	 * @param upper End of the interval (s)
+	 * @return true if all the slots of the interval are free
+	 */
+	public boolean isFree(final double lower, final double upper) {
+		final int first = this.firstSlot(lower);
+		final int last = this.lastSlot(upper);
+		if (first > last) {
+			return true;
+		}
+		final int next = this.nextSetBit(0, first);
+		return next < 0 || next > last;
+	}
+
+	/**
+	 * Checks that an interval expanded by a margin on each side doesn't intersect
+	 * any busy slot, for instance an observation and the longest slews around
+	 * it.
+	 *
+	 * @param lower  Start of the interval (s)
+	 * @param upper  End of the interval (s)
+	 * @param margin Margin on each side (s)
+	 * @return true if all the slots of the expanded interval are free
+	 */
+	public boolean isFree(final double lower, final double upper, final double margin) {
+		return this.isFree(lower - margin, upper + margin);
+	}
+
+	/**
+	 * Gets the start of the first busy slot at or after a time.
+	 *
+	 * @param offset Input time (s)
+	 * @return the start of the busy slot (s), or positive infinity if there is
+	 *         none
+	 */
+	public double getNextBusy(final double offset) {
+		if (offset >= this.nbSlots * this.resolution) {
+			return Double.POSITIVE_INFINITY;
+		}
+		final int next = this.nextSetBit(0, FastMath.max(0, (int) FastMath.floor(offset / this.resolution)));
+		return next < 0 ? Double.POSITIVE_INFINITY : FastMath.max(offset, next * this.resolution);
+	}
+
+	/**
+	 * Gets the end of the last busy slot at or before a time.
+	 *
+	 * @param offset Input time (s)
+	 * @return the end of the busy slot (s), or negative infinity if there is none
+	 */
+	public double getPreviousBusy(final double offset) {
+		if (offset < 0.) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		final int slot = FastMath.min(this.nbSlots - 1, (int) FastMath.floor(offset / this.resolution));
+		final int previous = this.previousSetBit(0, slot);
+		return previous < 0 ? Double.NEGATIVE_INFINITY : FastMath.min(offset, (previous + 1) * this.resolution);
+	}
+
+	/**
+	 * Index of the first slot intersecting an interval starting at a time.
+	 *
+	 * @param lower Start of the interval (s)
+	 * @return the slot index, clamped to the horizon
+	 */
+	private int firstSlot(final double lower) {
+		return (int) FastMath.max(0., FastMath.floor(lower / this.resolution));
+	}
+
+	/**
+	 * Index of the last slot intersecting an interval ending at a time.
+	 *
+	 * @param upper End of the interval (s)
+	 * @return the slot index, clamped to the horizon
+	 */
+	private int lastSlot(final double upper) {
+		return (int) FastMath.min(this.nbSlots - 1, FastMath.ceil(upper / this.resolution) - 1);
+	}
+
+	/**
+	 * Sets a slot and the summary bits above it.
+	 *
+	 * @param slot Slot index
+	 */
+	private void set(final int slot) {
+		int index = slot;
+		for (final long[] words : this.levels) {
+			final int w = index >>> 6;
+			final boolean wasEmpty = words[w] == 0L;
+			words[w] |= 1L << index;
+			if (!wasEmpty) {
+				return;
+			}
+			index = w;
+		}
+	}
+
+	/**
+	 * Clears a slot and the summary bits above it which no longer cover any busy
+	 * slot.
+	 *
+	 * @param slot Slot index
+	 */
+	private void clear(final int slot) {
+		int index = slot;
+		for (final long[] words : this.levels) {
+			final int w = index >>> 6;
+			words[w] &= ~(1L << index);
+			if (words[w] != 0L) {
+				return;
+			}
+			index = w;
+		}
+	}
+
+	/**
+	 * Finds the first set bit at or after an index of a level.
+	 *
+	 * @param level Level index
+	 * @param index First bit index
+	 * @return the index of the set bit, or -1 if there is none
+	 */
+	private int nextSetBit(final int level, final int index) {
+		final long[] words = this.levels[level];
+		final int w = index >>> 6;
+		if (w >= words.length) {
+			return -1;
+		}
+		final long word = words[w] & (-1L << index);
+		if (word != 0L) {
+			return (w << 6) + Long.numberOfTrailingZeros(word);
+		}
+		if (level + 1 == this.levels.length) {
+			// Top level : a single word
+			return -1;
+		}
+		final int next = this.nextSetBit(level + 1, w + 1);
+		return next < 0 ? -1 : (next << 6) + Long.numberOfTrailingZeros(words[next]);
+	}
+
+	/**
+	 * Finds the last set bit at or before an index of a level.
+	 *
+	 * @param level Level index
+	 * @param index Last bit index
+	 * @return the index of the set bit, or -1 if there is none
+	 */
+	private int previousSetBit(final int level, final int index) {
+		if (index < 0) {
+			return -1;
+		}
+		final long[] words = this.levels[level];
+		final int w = index >>> 6;
+		final long word = words[w] & (-1L >>> (63 - (index & 63)));
+		if (word != 0L) {
+			return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+		}
+		if (level + 1 == this.levels.length) {
+			return -1;
+		}
+		final int previous = this.previousSetBit(level + 1, w - 1);
+		return previous < 0 ? -1 : (previous << 6) + 63 - Long.numberOfLeadingZeros(words[previous]);
+	}
+
+	/**
+	 * @return the duration of a slot (s)
+	 */
+	public double getResolution() {
+		return this.resolution;
+	}
+
+	/**
+	 * @return the number of slots
+	 */
+	public int getNbSlots() {
+		return this.nbSlots;
+	}
+}
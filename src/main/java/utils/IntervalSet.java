@@ -0,0 +1,445 @@
+package utils;
+
+import java.util.Arrays;
+
+import fr.cnes.sirius.patrius.events.CodedEvent;
+import fr.cnes.sirius.patrius.events.CodedEventsLogger;
+import fr.cnes.sirius.patrius.events.LoggedCodedEvent;
+import fr.cnes.sirius.patrius.events.Phenomenon;
+import fr.cnes.sirius.patrius.events.postprocessing.Timeline;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.time.AbsoluteDateInterval;
+
+/**
+ * Immutable set of disjoint time intervals, stored as a sorted array of offsets
+ * (s) from an epoch date.
+ *
+ * The bounds of the i-th interval are bounds[2 * i] and bounds[2 * i + 1]. The
+ * intervals are sorted, have a strictly positive duration and never overlap nor
+ * touch each other : two touching intervals are merged into one.
+ *
+ * The AND, OR and NOT operations are linear merges of the bound arrays. They
+ * allocate a single array for the result, whereas combining {@link Timeline}
+ * objects with criteria and filters creates many {@link Phenomenon} and
+ * {@link CodedEvent} objects. A {@link Timeline} is only built on demand, see
+ * {@link #toTimeline(String, String, AbsoluteDateInterval)}.
+ *
+ * Two sets can only be combined if they share the same epoch.
+ *
+ * @author agent
+ */
+public final class IntervalSet {
+
+	/** Empty bound array. */
+	private static final double[] NO_BOUNDS = new double[0];
+
+	/** Reference date of the offsets. */
+	private final AbsoluteDate epoch;
+
+	/** Interval bounds (s from the epoch), lower and upper bounds alternately. */
+	private final double[] bounds;
+
+	/**
+	 * Constructor, the bounds must already be normalized.
+	 *
+	 * @param epoch  Reference date of the offsets
+	 * @param bounds Normalized interval bounds, not copied
+	 */
+	private IntervalSet(final AbsoluteDate epoch, final double[] bounds) {
+		this.epoch = epoch;
+		this.bounds = bounds;
+	}
+
+	/**
+	 * Creates an empty set.
+	 *
+	 * @param epoch Reference date of the offsets
+	 * @return the empty set
+	 */
+	public static IntervalSet empty(final AbsoluteDate epoch) {
+		return new IntervalSet(epoch, NO_BOUNDS);
+	}
+
+	/**
+	 * Creates a set from interval bounds given in any order. Overlapping or
+	 * touching intervals are merged, empty intervals are dropped.
+	 *
+	 * @param epoch  Reference date of the offsets
+	 * @param bounds Interval bounds (s from the epoch), lower and upper bounds
+	 *               alternately
+	 * @return the set
+	 * @throws IllegalArgumentException if the number of bounds is odd or if an
+	 *                                  upper bound is lower than its lower bound
+	 */
+	public static IntervalSet of(final AbsoluteDate epoch, final double... bounds) {
+		if (bounds.length % 2 != 0) {
+			throw new IllegalArgumentException("Odd number of interval bounds : " + bounds.length);
+		}
+		final int n = bounds.length / 2;
+		final Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			if (bounds[2 * i + 1] < bounds[2 * i]) {
+				throw new IllegalArgumentException(
+						"Invalid interval [" + bounds[2 * i] + " ; " + bounds[2 * i + 1] + "]");
+			}
+			order[i] = i;
+		}
+		Arrays.sort(order, (i, j) -> Double.compare(bounds[2 * i], bounds[2 * j]));
+		final Builder builder = new Builder(epoch, n);
+		for (final int i : order) {
+			builder.add(bounds[2 * i], bounds[2 * i + 1]);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Creates the set of the time spans of the {@link Phenomenon} of a
+	 * {@link Timeline}.
+	 *
+	 * @param timeline Input {@link Timeline}
+	 * @param epoch    Reference date of the offsets
+	 * @return the set
+	 */
+	public static IntervalSet fromTimeline(final Timeline timeline, final AbsoluteDate epoch) {
+		final double[] bounds = new double[2 * timeline.getPhenomenaList().size()];
+		int k = 0;
+		for (final Phenomenon phenomenon : timeline.getPhenomenaList()) {
+			final AbsoluteDateInterval timespan = phenomenon.getTimespan();
+			bounds[k++] = timespan.getLowerData().durationFrom(epoch);
+			bounds[k++] = timespan.getUpperData().durationFrom(epoch);
+		}
+		return of(epoch, bounds);
+	}
+
+	/**
+	 * Creates the set of the phenomena logged by a {@link CodedEventsLogger}, read
+	 * directly from the logged events without building a {@link Timeline}.
+	 *
+	 * As in a {@link Timeline} built without initial state, a phenomenon ending
+	 * before any start event begins at the lower bound of the horizon, and a
+	 * phenomenon still active at the end of the propagation ends at the upper
+	 * bound of the horizon.
+	 *
+	 * @param logger  Logger monitoring a single detector
+	 * @param horizon Propagation horizon, its lower bound is the epoch of the set
+	 * @return the set
+	 */
+	public static IntervalSet fromLogger(final CodedEventsLogger logger, final AbsoluteDateInterval horizon) {
+		return fromLogger(logger, horizon.getLowerData(), horizon);
+	}
+
+	/**
+	 * Creates the set of the phenomena logged by a {@link CodedEventsLogger}
+	 * during a propagation over the input horizon, with offsets from the input
+	 * epoch.
+	 *
+	 * @param logger  Logger monitoring a single detector
+	 * @param epoch   Reference date of the offsets
+	 * @param horizon Propagation horizon
+	 * @return the set
+	 * @see #fromLogger(CodedEventsLogger, AbsoluteDateInterval)
+	 */
+	public static IntervalSet fromLogger(final CodedEventsLogger logger, final AbsoluteDate epoch,
+			final AbsoluteDateInterval horizon) {
+		final double start = horizon.getLowerData().durationFrom(epoch);
+		final double end = horizon.getUpperData().durationFrom(epoch);
+		final Builder builder = new Builder(epoch);
+		double lower = Double.NaN;
+		boolean first = true;
+		for (final LoggedCodedEvent logged : logger.getLoggedCodedEventSet()) {
+			final CodedEvent event = logged.getCodedEvent();
+			final double offset = event.getDate().durationFrom(epoch);
+			if (event.isStartingEvent()) {
+				lower = offset;
+			} else if (!Double.isNaN(lower) || first) {
+				builder.add(Double.isNaN(lower) ? start : lower, offset);
+				lower = Double.NaN;
+			}
+			first = false;
+		}
+		if (!Double.isNaN(lower)) {
+			builder.add(lower, end);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Computes the intersection of this set with another one.
+	 *
+	 * @param other Other set, with the same epoch
+	 * @return the intersection
+	 */
+	public IntervalSet and(final IntervalSet other) {
+		this.checkEpoch(other);
+		final Builder builder = new Builder(this.epoch, FastMath.min(this.size(), other.size()));
+		int i = 0;
+		int j = 0;
+		while (i < this.bounds.length && j < other.bounds.length) {
+			final double lower = FastMath.max(this.bounds[i], other.bounds[j]);
+			final double upper = FastMath.min(this.bounds[i + 1], other.bounds[j + 1]);
+			if (lower < upper) {
+				builder.add(lower, upper);
+			}
+			// The interval ending first can't intersect anything else
+			if (this.bounds[i + 1] < other.bounds[j + 1]) {
+				i += 2;
+			} else {
+				j += 2;
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Computes the union of this set with another one.
+	 *
+	 * @param other Other set, with the same epoch
+	 * @return the union
+	 */
+	public IntervalSet or(final IntervalSet other) {
+		this.checkEpoch(other);
+		final Builder builder = new Builder(this.epoch, this.size() + other.size());
+		int i = 0;
+		int j = 0;
+		while (i < this.bounds.length || j < other.bounds.length) {
+			// Adding the interval starting first, the builder merges the overlaps
+			if (j >= other.bounds.length || i < this.bounds.length && this.bounds[i] <= other.bounds[j]) {
+				builder.add(this.bounds[i], this.bounds[i + 1]);
+				i += 2;
+			} else {
+				builder.add(other.bounds[j], other.bounds[j + 1]);
+				j += 2;
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Computes the complement of this set inside the input interval.
+	 *
+	 * @param lower Lower bound of the complement domain (s from the epoch)
+	 * @param upper Upper bound of the complement domain (s from the epoch)
+	 * @return the complement
+	 */
+	public IntervalSet not(final double lower, final double upper) {
+		final Builder builder = new Builder(this.epoch, this.size() + 1);
+		double cursor = lower;
+		for (int i = 0; i < this.bounds.length && cursor < upper; i += 2) {
+			if (this.bounds[i] > cursor) {
+				builder.add(cursor, FastMath.min(this.bounds[i], upper));
+			}
+			cursor = FastMath.max(cursor, this.bounds[i + 1]);
+		}
+		if (cursor < upper) {
+			builder.add(cursor, upper);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Checks whether the input offset is inside one of the intervals.
+	 *
+	 * @param offset Offset from the epoch (s)
+	 * @return true if the offset is inside the set, bounds included
+	 */
+	public boolean contains(final double offset) {
+		// Index of the first bound strictly greater than the offset
+		int low = 0;
+		int high = this.bounds.length;
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (this.bounds[middle] <= offset) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		// Inside an interval (odd index), or exactly on an upper bound
+		return low % 2 == 1 || low > 0 && this.bounds[low - 1] == offset;
+	}
+
+	/**
+	 * Builds a {@link Timeline} with one {@link Phenomenon} per interval.
+	 *
+	 * @param code     Code of the phenomena
+	 * @param comment  Comment of the phenomena
+	 * @param validity Interval of validity of the {@link Timeline}
+	 * @return the {@link Timeline}
+	 */
+	public Timeline toTimeline(final String code, final String comment, final AbsoluteDateInterval validity) {
+		final Timeline timeline = new Timeline(validity);
+		for (int i = 0; i < this.size(); i++) {
+			final CodedEvent start = new CodedEvent(code, "Beginning of " + comment,
+					this.epoch.shiftedBy(this.getLower(i)), true);
+			final CodedEvent end = new CodedEvent(code, "End of " + comment, this.epoch.shiftedBy(this.getUpper(i)),
+					false);
+			timeline.addPhenomenon(new Phenomenon(start, true, end, true, code, comment));
+		}
+		return timeline;
+	}
+
+	/**
+	 * @param index Index of an interval
+	 * @return the interval as an {@link AbsoluteDateInterval}
+	 */
+	public AbsoluteDateInterval getInterval(final int index) {
+		return new AbsoluteDateInterval(this.epoch.shiftedBy(this.getLower(index)),
+				this.epoch.shiftedBy(this.getUpper(index)));
+	}
+
+	/**
+	 * @param index Index of an interval
+	 * @return the lower bound of the interval (s from the epoch)
+	 */
+	public double getLower(final int index) {
+		return this.bounds[2 * index];
+	}
+
+	/**
+	 * @param index Index of an interval
+	 * @return the upper bound of the interval (s from the epoch)
+	 */
+	public double getUpper(final int index) {
+		return this.bounds[2 * index + 1];
+	}
+
+	/**
+	 * @return the number of intervals
+	 */
+	public int size() {
+		return this.bounds.length / 2;
+	}
+
+	/**
+	 * @return true if the set has no interval
+	 */
+	public boolean isEmpty() {
+		return this.bounds.length == 0;
+	}
+
+	/**
+	 * @return the total duration of the intervals (s)
+	 */
+	public double getDuration() {
+		double duration = 0.;
+		for (int i = 0; i < this.bounds.length; i += 2) {
+			duration += this.bounds[i + 1] - this.bounds[i];
+		}
+		return duration;
+	}
+
+	/**
+	 * @return the epoch
+	 */
+	public AbsoluteDate getEpoch() {
+		return this.epoch;
+	}
+
+	/**
+	 * @return a copy of the interval bounds (s from the epoch)
+	 */
+	public double[] getBounds() {
+		return this.bounds.clone();
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder("{");
+		for (int i = 0; i < this.size(); i++) {
+			builder.append(i == 0 ? "" : ", ").append('[').append(this.getLower(i)).append(" ; ")
+					.append(this.getUpper(i)).append(']');
+		}
+		return builder.append('}').toString();
+	}
+
+	/**
+	 * Checks that the input set has the same epoch as this one.
+	 *
+	 * @param other Other set
+	 * @throws IllegalArgumentException if the epochs differ
+	 */
+	private void checkEpoch(final IntervalSet other) {
+		if (!this.epoch.equals(other.epoch)) {
+			throw new IllegalArgumentException("Interval sets with different epochs : " + this.epoch + " and "
+					+ other.epoch);
+		}
+	}
+
+	/**
+	 * Builder of an {@link IntervalSet} from intervals added by increasing lower
+	 * bound. Overlapping or touching intervals are merged and empty intervals are
+	 * dropped.
+	 */
+	public static final class Builder {
+
+		/** Reference date of the offsets. */
+		private final AbsoluteDate epoch;
+
+		/** Bounds added so far. */
+		private double[] bounds;
+
+		/** Number of bounds added so far. */
+		private int length;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param epoch Reference date of the offsets
+		 */
+		public Builder(final AbsoluteDate epoch) {
+			this(epoch, 8);
+		}
+
+		/**
+		 * Constructor.
+		 *
+		 * @param epoch    Reference date of the offsets
+		 * @param capacity Expected number of intervals
+		 */
+		public Builder(final AbsoluteDate epoch, final int capacity) {
+			this.epoch = epoch;
+			this.bounds = new double[2 * FastMath.max(capacity, 1)];
+		}
+
+		/**
+		 * Adds an interval.
+		 *
+		 * @param lower Lower bound (s from the epoch), not lower than the lower bound
+		 *              of the previous interval
+		 * @param upper Upper bound (s from the epoch)
+		 * @return this builder
+		 * @throws IllegalArgumentException if the intervals are not added by
+		 *                                  increasing lower bound
+		 */
+		public Builder add(final double lower, final double upper) {
+			if (!(upper > lower)) {
+				return this;
+			}
+			if (this.length > 0) {
+				if (lower < this.bounds[this.length - 2]) {
+					throw new IllegalArgumentException("Intervals must be added by increasing lower bound");
+				}
+				if (lower <= this.bounds[this.length - 1]) {
+					// Overlapping or touching the previous interval
+					this.bounds[this.length - 1] = FastMath.max(this.bounds[this.length - 1], upper);
+					return this;
+				}
+			}
+			if (this.length == this.bounds.length) {
+				this.bounds = Arrays.copyOf(this.bounds, 2 * this.bounds.length);
+			}
+			this.bounds[this.length++] = lower;
+			this.bounds[this.length++] = upper;
+			return this;
+		}
+
+		/**
+		 * @return the {@link IntervalSet}
+		 */
+		public IntervalSet build() {
+			return new IntervalSet(this.epoch,
+					this.length == 0 ? NO_BOUNDS : Arrays.copyOf(this.bounds, this.length));
+		}
+	}
+}
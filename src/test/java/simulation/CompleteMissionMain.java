@@ -1,5 +1,6 @@
 package simulation;
 
+import java.nio.file.Paths;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -9,6 +10,7 @@ import fr.cnes.sirius.patrius.attitudes.AttitudeLeg;
 import fr.cnes.sirius.patrius.attitudes.StrictAttitudeLegsSequence;
 import fr.cnes.sirius.patrius.events.postprocessing.Timeline;
 import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import progmission.AccessPlanCache;
 import progmission.CompleteMission;
 import reader.Site;
 import utils.LogUtils;
@@ -19,6 +21,12 @@ public class CompleteMissionMain {
 	 * Logger for this class.
 	 */
 	public static final Logger LOGGER = LogUtils.GLOBAL_LOGGER;
+
+	/**
+	 * System property giving the directory of the access plan cache. The cache is
+	 * disabled when the property is not set.
+	 */
+	public static final String CACHE_PROPERTY = "be.patrius.cache";
 	
 	/**
 	 * Main method to run your simulation.
@@ -36,6 +44,14 @@ public class CompleteMissionMain {
 		LOGGER.info("Complete simulation starting ...");
 		LOGGER.info(mission.toString());
 
+		// Optionally, the access windows are cached on the disk : with
+		// -Dbe.patrius.cache=<directory>, a re-run with the same orbit, horizon,
+		// constraints and sites skips the propagation
+		final String cacheDirectory = System.getProperty(CACHE_PROPERTY);
+		if (cacheDirectory != null) {
+			mission.setAccessPlanCache(new AccessPlanCache(Paths.get(cacheDirectory), mission));
+		}
+
 		// First step is to compute when the satellite can access the targets. Each
 		// access is an observation opportunity to be consider in the later scheduling
 		// process.
@@ -0,0 +1,225 @@
+package unittest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import fr.cnes.sirius.patrius.bodies.GeodeticPoint;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import progmission.AccessPlanCache;
+import progmission.CompleteMission;
+import progmission.DetectionProfile;
+import reader.Site;
+import utils.IntervalSet;
+
+/**
+ * Test class for the {@link AccessPlanCache} class. The cached windows are
+ * built by hand : only the configuration key needs the mission.
+ *
+ * @author agent
+ *
+ */
+public class AccessPlanCacheTest {
+
+	/** Number of sites of the mission. */
+	private static final int SITE_NUMBER = 4;
+
+	/** Magic number of the cache files. */
+	private static final int MAGIC = 0x41435043;
+
+	/** Current format version of the cache files. */
+	private static final int FORMAT_VERSION = 3;
+
+	/** Directory of the cache files, deleted after each test. */
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Checks that the stored windows are loaded back with the same bounds, and
+	 * that the sites which were not stored are missing.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs when
+	 *                          building the mission.
+	 * @throws IOException      If the cache file can't be written or read.
+	 */
+	@Test
+	public void testRoundTrip() throws PatriusException, IOException {
+		final CompleteMission mission = new CompleteMission("Access plan cache mission", SITE_NUMBER);
+		final AccessPlanCache cache = new AccessPlanCache(this.folder.getRoot().toPath(), mission);
+		final List<Site> sites = mission.getSiteList();
+		final Map<Site, IntervalSet> windows = createWindows(mission, sites.subList(0, SITE_NUMBER - 1));
+		cache.store(windows);
+
+		final Map<Site, IntervalSet> loaded = cache.load(sites);
+		assertEquals("Number of loaded sites doesn't match !", SITE_NUMBER - 1, loaded.size());
+		assertSameWindows(windows, loaded);
+	}
+
+	/**
+	 * Checks that the windows are not reused for another configuration : another
+	 * detection profile or search mode selected after the cache is created, a site
+	 * moved to other coordinates, or a file written for another key under the same
+	 * name, as for another orbit or horizon.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs when
+	 *                          building the mission.
+	 * @throws IOException      If the cache file can't be written or read.
+	 */
+	@Test
+	public void testKeyMismatch() throws PatriusException, IOException {
+		final CompleteMission mission = new CompleteMission("Access plan cache mission", SITE_NUMBER);
+		final AccessPlanCache cache = new AccessPlanCache(this.folder.getRoot().toPath(), mission);
+		final List<Site> sites = mission.getSiteList();
+		cache.store(createWindows(mission, sites));
+		final Path file = cache.getFile();
+
+		// Another detection profile
+		mission.setDetectionProfile(DetectionProfile.FAST);
+		assertNotEquals("The profile doesn't change the cache file !", file, cache.getFile());
+		assertTrue("Windows of another profile loaded !", cache.load(sites).isEmpty());
+		mission.setDetectionProfile(DetectionProfile.PRECISE);
+		assertEquals("Windows of the original profile not loaded !", SITE_NUMBER, cache.load(sites).size());
+
+		// Another search mode
+		mission.setRepeatCycleReuse(true);
+		assertNotEquals("The repeat cycle reuse doesn't change the cache file !", file, cache.getFile());
+		mission.setRepeatCycleReuse(false);
+		mission.setPassPrediction(true);
+		assertNotEquals("The pass prediction doesn't change the cache file !", file, cache.getFile());
+		mission.setPassPrediction(false);
+
+		// A site with the same name at other coordinates
+		final Site site = sites.get(0);
+		final GeodeticPoint point = site.getPoint();
+		final Site moved = new Site(site.getName(), site.getScore(),
+				new GeodeticPoint(point.getLatitude() + 1.e-6, point.getLongitude(), point.getAltitude()));
+		assertTrue("Windows of a moved site loaded !", cache.load(Arrays.asList(moved)).isEmpty());
+
+		// A file written for another key
+		writeHeader(file, FORMAT_VERSION, cache.getKey() + 1);
+		assertTrue("Windows of another key loaded !", cache.load(sites).isEmpty());
+	}
+
+	/**
+	 * Checks that a file of an older format version is ignored, and that a
+	 * truncated file is reported as corrupted.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs when
+	 *                          building the mission.
+	 * @throws IOException      If the cache file can't be written or read.
+	 */
+	@Test
+	public void testOldVersionAndCorruptedFile() throws PatriusException, IOException {
+		final CompleteMission mission = new CompleteMission("Access plan cache mission", SITE_NUMBER);
+		final AccessPlanCache cache = new AccessPlanCache(this.folder.getRoot().toPath(), mission);
+		final List<Site> sites = mission.getSiteList();
+
+		// Older format version
+		writeHeader(cache.getFile(), FORMAT_VERSION - 1, cache.getKey());
+		assertTrue("Windows of an old version loaded !", cache.load(sites).isEmpty());
+
+		// Truncated records
+		cache.store(createWindows(mission, sites));
+		final byte[] content = Files.readAllBytes(cache.getFile());
+		Files.write(cache.getFile(), Arrays.copyOf(content, content.length - 5));
+		try {
+			cache.load(sites);
+			fail("Truncated cache file not reported !");
+		} catch (final IOException e) {
+			// Expected
+		}
+	}
+
+	/**
+	 * Checks a second store over an existing file : the records of the other
+	 * sites are kept, the records of the stored sites are replaced, and no
+	 * temporary file is left behind.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs when
+	 *                          building the mission.
+	 * @throws IOException      If the cache file can't be written or read.
+	 */
+	@Test
+	public void testSecondStore() throws PatriusException, IOException {
+		final CompleteMission mission = new CompleteMission("Access plan cache mission", SITE_NUMBER);
+		final AccessPlanCache cache = new AccessPlanCache(this.folder.getRoot().toPath(), mission);
+		final List<Site> sites = mission.getSiteList();
+		final Map<Site, IntervalSet> first = createWindows(mission, sites.subList(0, 2));
+		cache.store(first);
+
+		final Map<Site, IntervalSet> second = new LinkedHashMap<>();
+		second.put(sites.get(1), IntervalSet.of(mission.getStartDate(), 10., 20.));
+		second.put(sites.get(2), IntervalSet.of(mission.getStartDate(), 30., 40.));
+		cache.store(second);
+
+		final Map<Site, IntervalSet> expected = new LinkedHashMap<>(first);
+		expected.putAll(second);
+		final Map<Site, IntervalSet> loaded = cache.load(sites);
+		assertEquals("Number of loaded sites doesn't match !", 3, loaded.size());
+		assertSameWindows(expected, loaded);
+		try (final Stream<Path> files = Files.list(this.folder.getRoot().toPath())) {
+			assertEquals("Temporary files left behind !", 1, files.count());
+		}
+	}
+
+	/**
+	 * Creates distinct windows for each input site.
+	 *
+	 * @param mission Mission whose start date is the epoch of the windows
+	 * @param sites   Input sites
+	 * @return the windows of the sites
+	 */
+	private static Map<Site, IntervalSet> createWindows(final CompleteMission mission, final List<Site> sites) {
+		final Map<Site, IntervalSet> windows = new LinkedHashMap<>();
+		for (int i = 0; i < sites.size(); i++) {
+			windows.put(sites.get(i), IntervalSet.of(mission.getStartDate(), 100. * i, 100. * i + 50.5,
+					1000. + 100. * i, 1000. + 100. * i + 12.25));
+		}
+		return windows;
+	}
+
+	/**
+	 * Asserts that the loaded windows have the exact bounds of the expected ones.
+	 *
+	 * @param expected Expected windows
+	 * @param loaded   Loaded windows
+	 */
+	private static void assertSameWindows(final Map<Site, IntervalSet> expected,
+			final Map<Site, IntervalSet> loaded) {
+		for (final Map.Entry<Site, IntervalSet> entry : expected.entrySet()) {
+			assertTrue(entry.getKey().getName() + " not loaded !", loaded.containsKey(entry.getKey()));
+			assertArrayEquals(entry.getKey().getName() + " : bounds don't match !", entry.getValue().getBounds(),
+					loaded.get(entry.getKey()).getBounds(), 0.);
+		}
+	}
+
+	/**
+	 * Overwrites a cache file with a header and no record.
+	 *
+	 * @param file    Cache file
+	 * @param version Format version
+	 * @param key     Configuration key
+	 * @throws IOException If the file can't be written.
+	 */
+	private static void writeHeader(final Path file, final int version, final long key) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 8 + 4);
+		buffer.putInt(MAGIC).putInt(version).putLong(key).putInt(0);
+		Files.write(file, buffer.array());
+	}
+}
@@ -0,0 +1,98 @@
+package unittest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import utils.BusyTimeBitmap;
+
+/**
+ * Test class for the {@link BusyTimeBitmap} class. The queries are compared to
+ * a brute-force scan of a boolean array of the slots.
+ *
+ * @author agent
+ *
+ */
+public class BusyTimeBitmapTest {
+
+	/**
+	 * Checks the rounding of the intervals to whole slots and the queries at the
+	 * horizon bounds.
+	 */
+	@Test
+	public void testSlotRounding() {
+		final BusyTimeBitmap bitmap = new BusyTimeBitmap(600.);
+		assertEquals("Number of slots doesn't match !", 600, bitmap.getNbSlots());
+		assertTrue("Empty bitmap should be free !", bitmap.isFree(0., 600.));
+		assertEquals("No busy slot expected !", Double.POSITIVE_INFINITY, bitmap.getNextBusy(0.), 0.);
+		assertEquals("No busy slot expected !", Double.NEGATIVE_INFINITY, bitmap.getPreviousBusy(600.), 0.);
+
+		bitmap.mark(100.5, 110.);
+		assertFalse("Slot 100 should be busy !", bitmap.isFree(99.5, 100.2));
+		assertTrue("Slot 110 should be free !", bitmap.isFree(110., 120.));
+		assertTrue("Slot 99 should be free !", bitmap.isFree(90., 100.));
+		assertFalse("Margin should reach the busy slots !", bitmap.isFree(120., 130., 10.5));
+		assertEquals("Next busy slot doesn't match !", 100., bitmap.getNextBusy(0.), 0.);
+		assertEquals("Next busy slot doesn't match !", 105., bitmap.getNextBusy(105.), 0.);
+		assertEquals("Previous busy slot doesn't match !", 110., bitmap.getPreviousBusy(500.), 0.);
+
+		bitmap.clear(100., 110.);
+		assertTrue("Cleared bitmap should be free !", bitmap.isFree(0., 600.));
+		assertTrue("Queries outside of the horizon should be free !", bitmap.isFree(-50., -10.));
+	}
+
+	/**
+	 * Checks random marks, clears and queries over a week at 1 s resolution
+	 * against a brute-force scan, so that all the summary levels are used.
+	 */
+	@Test
+	public void testQueriesMatchBruteForce() {
+		final int nbSlots = 7 * 86400;
+		final BusyTimeBitmap bitmap = new BusyTimeBitmap(nbSlots);
+		final boolean[] busy = new boolean[nbSlots];
+		final Random random = new Random(42);
+
+		for (int k = 0; k < 400; k++) {
+			final int lower = random.nextInt(nbSlots - 100);
+			final int upper = lower + 1 + random.nextInt(99);
+			final boolean marked = random.nextInt(4) != 0;
+			if (marked) {
+				bitmap.mark(lower, upper);
+			} else {
+				bitmap.clear(lower, upper);
+			}
+			for (int slot = lower; slot < upper; slot++) {
+				busy[slot] = marked;
+			}
+		}
+
+		for (int q = 0; q < 2000; q++) {
+			final int lower = random.nextInt(nbSlots);
+			final int upper = Math.min(nbSlots, lower + 1 + random.nextInt(5000));
+			boolean free = true;
+			for (int slot = lower; slot < upper && free; slot++) {
+				free = !busy[slot];
+			}
+			assertEquals("Free check doesn't match !", free, bitmap.isFree(lower, upper));
+
+			int next = lower;
+			while (next < nbSlots && !busy[next]) {
+				next++;
+			}
+			assertEquals("Next busy slot doesn't match !", next < nbSlots ? next : Double.POSITIVE_INFINITY,
+					bitmap.getNextBusy(lower), 0.);
+
+			int previous = lower;
+			while (previous >= 0 && !busy[previous]) {
+				previous--;
+			}
+			assertEquals("Previous busy slot doesn't match !",
+					previous >= 0 ? Math.min(lower, previous + 1) : Double.NEGATIVE_INFINITY,
+					bitmap.getPreviousBusy(lower), 0.);
+		}
+	}
+}
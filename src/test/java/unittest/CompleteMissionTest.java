@@ -1,13 +1,28 @@
 package unittest;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
 import org.junit.Test;
 
 import fr.cnes.sirius.patrius.attitudes.AttitudeLawLeg;
+import fr.cnes.sirius.patrius.attitudes.AttitudeLeg;
+import fr.cnes.sirius.patrius.attitudes.StrictAttitudeLegsSequence;
 import fr.cnes.sirius.patrius.events.postprocessing.Timeline;
+import fr.cnes.sirius.patrius.propagation.analytical.KeplerianPropagator;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
 import fr.cnes.sirius.patrius.utils.exception.PatriusException;
 import progmission.CompleteMission;
+import progmission.Satellite;
+import reader.Site;
+import utils.ConstantsBE;
+import utils.IntervalSet;
 
 /**
  * This is the test class for the {@link CompleteMission} class. Here you can
@@ -62,6 +77,142 @@ public class CompleteMissionTest {
 		assertTrue("The cinematic plan is not valid !", testCinematicPlan(mission));
 	}
 
+	/**
+	 * Checks that the parallel computation of the access plan gives exactly the
+	 * windows of the sequential computation. The worker threads own their
+	 * {@link progmission.Satellite}, but share the Earth, the Sun, the frame tree,
+	 * the Earth orientation cache, the site geometries and the illumination
+	 * calculator of the mission : this test runs 10 sites on 4 threads, one site
+	 * per task.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          computations.
+	 */
+	@Test
+	public void testParallelAccessPlan() throws PatriusException {
+		final int siteNumber = 10;
+
+		// Sequential reference
+		final CompleteMission sequential = new CompleteMission("Sequential mission", siteNumber);
+		sequential.computeAccessPlan();
+
+		// Same mission, computed on 4 threads
+		final CompleteMission parallel = new CompleteMission("Parallel mission", siteNumber);
+		parallel.setAccessParallelism(4);
+		parallel.computeAccessPlan();
+
+		for (int i = 0; i < siteNumber; i++) {
+			final Site sequentialSite = sequential.getSiteList().get(i);
+			final Site parallelSite = parallel.getSiteList().get(i);
+			WindowAssertions.assertSameWindows(sequentialSite.getName(),
+					sequential.getAccessWindows().get(sequentialSite), parallel.getAccessWindows().get(parallelSite),
+					0.);
+		}
+	}
+
+	/**
+	 * Checks the incremental extension of the access plan horizon : the windows
+	 * computed over the mission horizon, stitched with the windows of the
+	 * extension, must match a full computation over the extended horizon. This
+	 * covers the windows open at the former end of the plan, and the offsets of
+	 * the extension windows, which are still given from the mission start date.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          computations.
+	 */
+	@Test
+	public void testUpdateAccessPlan() throws PatriusException {
+		final int siteNumber = 10;
+
+		// Mission horizon, then extension by one day
+		final CompleteMission extended = new CompleteMission("Extended mission", siteNumber);
+		final AbsoluteDate newEndDate = extended.getEndDate().shiftedBy(86400.);
+		extended.computeAccessPlan();
+		extended.updateAccessPlan(new ArrayList<>(), newEndDate);
+		assertEquals("Access plan end doesn't match !", 0., newEndDate.durationFrom(extended.getAccessPlanEnd()),
+				0.);
+
+		// Reference : all the sites added to an empty plan ending at the new date
+		final CompleteMission reference = new CompleteMission("Reference mission", siteNumber);
+		reference.updateAccessPlan(reference.getSiteList(), newEndDate);
+
+		for (int i = 0; i < siteNumber; i++) {
+			final Site extendedSite = extended.getSiteList().get(i);
+			final Site referenceSite = reference.getSiteList().get(i);
+			WindowAssertions.assertSameWindows(extendedSite.getName(), reference.getAccessWindows().get(referenceSite),
+					extended.getAccessWindows().get(extendedSite), 1.e-3);
+		}
+	}
+
+	/**
+	 * Checks that the greedy observation plan is feasible : each observation lasts
+	 * {@link ConstantsBE#INTEGRATION_TIME} inside one access window of its site,
+	 * the first and last observations are at least
+	 * {@link Satellite#getMaxSlewDuration()} away from the plan bounds, and there
+	 * is enough time between two consecutive observations to slew from one to the
+	 * other. The cinematic plan must contain each observation leg once, and pass
+	 * the checks of {@link CompleteMission#checkCinematicPlan}.
+	 * 
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          computations.
+	 */
+	@Test
+	public void testGreedyObservationPlan() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Greedy mission", 50);
+		mission.setExactScheduling(false);
+		mission.computeAccessPlan();
+		final Map<Site, AttitudeLawLeg> plan = mission.computeObservationPlan();
+		assertFalse("The observation plan is empty !", plan.isEmpty());
+
+		final List<AttitudeLawLeg> legs = new ArrayList<>();
+		for (final Entry<Site, AttitudeLawLeg> entry : plan.entrySet()) {
+			final Site site = entry.getKey();
+			final AttitudeLawLeg leg = entry.getValue();
+			assertTrue(site.getName() + " is not a mission site !", mission.getSiteList().contains(site));
+			assertEquals(site.getName() + " : observation duration doesn't match !", ConstantsBE.INTEGRATION_TIME,
+					leg.getTimeInterval().getDuration(), 1.e-6);
+
+			// The whole observation is inside one access window
+			final IntervalSet windows = mission.getAccessWindows().get(site);
+			final double start = leg.getDate().durationFrom(mission.getStartDate());
+			final double end = leg.getEnd().durationFrom(mission.getStartDate());
+			boolean inside = false;
+			for (int j = 0; j < windows.size(); j++) {
+				inside |= windows.getLower(j) <= start && end <= windows.getUpper(j);
+			}
+			assertTrue(site.getName() + " : observation outside of the access windows !", inside);
+			legs.add(leg);
+		}
+
+		// Slews between the consecutive observations, and from and to the nadir law
+		legs.sort((a, b) -> a.getDate().compareTo(b.getDate()));
+		final Satellite satellite = mission.getSatellite();
+		final KeplerianPropagator propagator = mission.createDefaultPropagator();
+		assertTrue("No room for the first slew !", legs.get(0).getDate()
+				.durationFrom(mission.getStartDate()) >= satellite.getMaxSlewDuration());
+		for (int i = 1; i < legs.size(); i++) {
+			final AttitudeLawLeg previous = legs.get(i - 1);
+			final AttitudeLawLeg next = legs.get(i);
+			final double slewDuration = satellite.computeSlewDuration(
+					previous.getAttitude(propagator, previous.getEnd(), mission.getEme2000()),
+					next.getAttitude(propagator, next.getDate(), mission.getEme2000()));
+			assertTrue("Slew " + i + " is too short !", next.getDate().durationFrom(previous.getEnd()) >= slewDuration);
+		}
+		assertTrue("No room for the last slew !", mission.getAccessPlanEnd()
+				.durationFrom(legs.get(legs.size() - 1).getEnd()) >= satellite.getMaxSlewDuration());
+
+		// Cinematic plan
+		final StrictAttitudeLegsSequence<AttitudeLeg> cinematicPlan = mission.computeCinematicPlan();
+		int nbObservations = 0;
+		for (final AttitudeLeg leg : cinematicPlan) {
+			if (plan.containsValue(leg)) {
+				nbObservations++;
+			}
+		}
+		assertEquals("Observation legs of the cinematic plan don't match !", plan.size(), nbObservations);
+		assertTrue("The cinematic plan is not valid !", mission.checkCinematicPlan(cinematicPlan));
+	}
+
 	/**
 	 * Here you can implement your own tests to check the access plan computation.
 	 * For example, check that the access plan is not empty, that the
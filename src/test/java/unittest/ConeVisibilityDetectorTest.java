@@ -0,0 +1,107 @@
+package unittest;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.assembly.models.SensorModel;
+import fr.cnes.sirius.patrius.events.CodedEventsLogger;
+import fr.cnes.sirius.patrius.events.GenericCodingEventDetector;
+import fr.cnes.sirius.patrius.events.sensor.SensorVisibilityDetector;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.propagation.events.ConstantRadiusProvider;
+import fr.cnes.sirius.patrius.propagation.events.EventDetector;
+import fr.cnes.sirius.patrius.propagation.events.EventDetector.Action;
+import fr.cnes.sirius.patrius.time.AbsoluteDateInterval;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import progmission.CompleteMission;
+import progmission.ConeVisibilityDetector;
+import progmission.PropagationSession;
+import progmission.Satellite;
+import progmission.SiteGeometryRegistry.SiteGeometry;
+import reader.Site;
+import utils.ConstantsBE;
+import utils.IntervalSet;
+
+/**
+ * Test class for the {@link ConeVisibilityDetector} class. Its visibility
+ * windows are compared to the windows of the {@link SensorVisibilityDetector}
+ * of the {@link Satellite} sensor model, built as in the
+ * {@link progmission.VisibilityModel#SENSOR_MODEL} access computation.
+ *
+ * @author agent
+ *
+ */
+public class ConeVisibilityDetectorTest {
+
+	/** Number of compared sites. */
+	private static final int SITE_NUMBER = 5;
+
+	/**
+	 * Tolerance on the window bounds (s) : both detectors model the same
+	 * constraint, the differences come from the Earth orientation interpolation
+	 * and from the convergence of the event detection.
+	 */
+	private static final double TOLERANCE = 0.1;
+
+	/**
+	 * Checks that both detectors give the same visibility windows over the
+	 * mission horizon, on a few sites.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          propagation.
+	 */
+	@Test
+	public void testSameWindowsAsSensorModel() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Cone visibility mission", SITE_NUMBER);
+		final AbsoluteDateInterval horizon = new AbsoluteDateInterval(mission.getStartDate(), mission.getEndDate());
+
+		// Both detectors of every site are propagated together
+		final CodedEventsLogger[] coneLoggers = new CodedEventsLogger[SITE_NUMBER];
+		final CodedEventsLogger[] sensorLoggers = new CodedEventsLogger[SITE_NUMBER];
+		try (final PropagationSession session = mission.openPropagationSession()) {
+			for (int i = 0; i < SITE_NUMBER; i++) {
+				final Site site = mission.getSiteList().get(i);
+				final SiteGeometry geometry = mission.getSiteGeometries().getGeometry(site);
+				final ConeVisibilityDetector cone = new ConeVisibilityDetector(mission.getEarthOrientation(),
+						geometry.getPosition(), geometry.getZenith(),
+						FastMath.toRadians(ConstantsBE.POINTING_CAPACITY), CompleteMission.MAXCHECK_EVENTS,
+						CompleteMission.TRESHOLD_EVENTS, Action.CONTINUE, Action.CONTINUE);
+				coneLoggers[i] = monitor(session, cone);
+
+				// Reference : sensor model of the satellite, masked by the Earth
+				final SensorModel sensorModel = new SensorModel(session.getSatellite().getAssembly(),
+						Satellite.SENSOR_NAME);
+				sensorModel.addMaskingCelestialBody(mission.getEarth());
+				sensorModel.setMainTarget(geometry.getProvider(), new ConstantRadiusProvider(0));
+				sensorLoggers[i] = monitor(session, new SensorVisibilityDetector(sensorModel,
+						CompleteMission.MAXCHECK_EVENTS, CompleteMission.TRESHOLD_EVENTS, Action.CONTINUE,
+						Action.CONTINUE));
+			}
+			session.propagate(horizon.getLowerData(), horizon.getUpperData());
+		}
+
+		boolean visible = false;
+		for (int i = 0; i < SITE_NUMBER; i++) {
+			final IntervalSet reference = IntervalSet.fromLogger(sensorLoggers[i], horizon);
+			WindowAssertions.assertSameWindows(mission.getSiteList().get(i).getName(), reference,
+					IntervalSet.fromLogger(coneLoggers[i], horizon), TOLERANCE);
+			visible |= !reference.isEmpty();
+		}
+		assertTrue("No site is ever visible, nothing was compared !", visible);
+	}
+
+	/**
+	 * Monitors a visibility detector with a new logger.
+	 *
+	 * @param session  Session propagating the detector
+	 * @param detector Visibility detector
+	 * @return the logger of the visibility phenomena
+	 */
+	private static CodedEventsLogger monitor(final PropagationSession session, final EventDetector detector) {
+		final CodedEventsLogger logger = new CodedEventsLogger();
+		session.addEventDetector(logger.monitorDetector(new GenericCodingEventDetector(detector,
+				"Event starting the visibility phenomenon", "Event ending the visibility phenomenon", true, "VIS")));
+		return logger;
+	}
+}
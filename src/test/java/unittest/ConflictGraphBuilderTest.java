@@ -0,0 +1,94 @@
+package unittest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import progmission.CompleteMission;
+import progmission.ConflictGraph;
+import progmission.ConflictGraphBuilder;
+import progmission.ObservationCandidate;
+import progmission.Satellite;
+import progmission.SlewDurationCache;
+
+/**
+ * Test class for the {@link ConflictGraphBuilder} class. The conflicts found by
+ * its sweep line are compared to a check of all the pairs of candidates, with
+ * the slew durations computed by the {@link Satellite}.
+ *
+ * @author agent
+ *
+ */
+public class ConflictGraphBuilderTest {
+
+	/** Maximum number of candidates of the graph, all the pairs are checked. */
+	private static final int MAX_CANDIDATES = 300;
+
+	/**
+	 * Margin on the slew feasibility (s) : the pairs whose available time is
+	 * within this margin of the slew duration are not compared, the cache and
+	 * the satellite computing the slew angle differently.
+	 */
+	private static final double MARGIN = 1.e-3;
+
+	/**
+	 * Checks every pair of candidates of the graph : two candidates are in
+	 * conflict if they observe different sites and the satellite can't slew from
+	 * the first one to the second one. The candidates of different passes must
+	 * not be in conflict, and the adjacency lists must be symmetric.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          computations.
+	 */
+	@Test
+	public void testSameConflictsAsAllPairs() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Conflict graph mission", 20);
+		mission.computeAccessPlan();
+		final Satellite satellite = mission.getSatellite();
+		final ConflictGraphBuilder builder = new ConflictGraphBuilder(mission, new SlewDurationCache(satellite));
+
+		// The earliest candidates, where the conflicts are dense
+		final List<ObservationCandidate> candidates = new ArrayList<>(
+				builder.createCandidates(mission.getAccessWindows()));
+		candidates.sort((a, b) -> a.getStart().compareTo(b.getStart()));
+		final ConflictGraph graph = builder
+				.build(candidates.subList(0, Math.min(MAX_CANDIDATES, candidates.size())));
+		assertTrue("Less than two candidates, nothing was compared !", graph.size() >= 2);
+
+		final int[] passes = new int[graph.size()];
+		for (int p = 0; p < graph.getNbPasses(); p++) {
+			for (int i = graph.getPassStart(p); i < graph.getPassEnd(p); i++) {
+				passes[i] = p;
+			}
+		}
+
+		int nbConflicts = 0;
+		for (int i = 0; i < graph.size(); i++) {
+			final ObservationCandidate first = graph.getCandidate(i);
+			for (int j = i + 1; j < graph.size(); j++) {
+				final ObservationCandidate second = graph.getCandidate(j);
+				final double available = second.getStart().durationFrom(first.getEnd());
+				final double slewDuration = satellite.computeSlewDuration(first.getEndAttitude(),
+						second.getStartAttitude());
+				final boolean expected = first.getSite() != second.getSite()
+						&& (available < 0. || slewDuration > available);
+				if (available < 0. || Math.abs(available - slewDuration) > MARGIN) {
+					assertEquals("Conflict " + i + " - " + j + " doesn't match !", expected,
+							graph.areConflicting(i, j));
+				}
+				assertEquals("Conflict " + i + " - " + j + " is not symmetric !", graph.areConflicting(i, j),
+						graph.areConflicting(j, i));
+				if (graph.areConflicting(i, j)) {
+					assertEquals("Conflict " + i + " - " + j + " across passes !", passes[i], passes[j]);
+					nbConflicts++;
+				}
+			}
+		}
+		assertEquals("Number of conflicts doesn't match !", nbConflicts, graph.getNbConflicts());
+	}
+}
@@ -0,0 +1,71 @@
+package unittest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import progmission.CompleteMission;
+import progmission.DetectionProfile;
+import progmission.DetectionProfileReport;
+import reader.Site;
+
+/**
+ * Test class for the {@link DetectionProfileReport} class.
+ *
+ * @author agent
+ *
+ */
+public class DetectionProfileReportTest {
+
+	/** Number of compared sites. */
+	private static final int SITE_NUMBER = 10;
+
+	/**
+	 * Checks the report of the reference profile against itself : both
+	 * computations are identical, so every error is null.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          computations.
+	 */
+	@Test
+	public void testReferenceAgainstItself() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Detection profile mission", SITE_NUMBER);
+		final DetectionProfileReport report = DetectionProfileReport.compute(mission, DetectionProfile.PRECISE,
+				mission.getSiteList());
+		assertEquals("Number of sites doesn't match !", SITE_NUMBER, report.getNbSites());
+		assertEquals("Boundary error of the reference !", 0., report.getMaxBoundaryError(), 0.);
+		assertEquals("Window count difference of the reference !", 0, report.getWindowCountDifference());
+		assertEquals("Disagreement of the reference !", 0., report.getDisagreementDuration(), 0.);
+	}
+
+	/**
+	 * Checks the consistency of the report of the {@link DetectionProfile#STANDARD}
+	 * profile : the mean error is below the maximum error, the maximum error is
+	 * within the convergence thresholds of the profiles plus the Sun and Earth
+	 * orientation interpolation errors when both find the same windows, and both
+	 * runs are timed.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          computations.
+	 */
+	@Test
+	public void testStandardProfile() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Detection profile mission", SITE_NUMBER);
+		final List<Site> sites = mission.getSiteList();
+		final DetectionProfileReport report = DetectionProfileReport.compute(mission, DetectionProfile.STANDARD,
+				sites);
+		assertEquals("Number of sites doesn't match !", sites.size(), report.getNbSites());
+		assertTrue("Mean error above the maximum error !",
+				report.getMeanBoundaryError() <= report.getMaxBoundaryError());
+		if (report.getWindowCountDifference() == 0) {
+			// A missed window would move a bound to the closest other window
+			assertTrue("Boundary error " + report.getMaxBoundaryError() + " s too large !",
+					report.getMaxBoundaryError() < 1.);
+		}
+		assertTrue("Negative computation time !", report.getReferenceTime() >= 0 && report.getProfileTime() >= 0);
+	}
+}
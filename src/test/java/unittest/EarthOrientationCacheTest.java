@@ -0,0 +1,135 @@
+package unittest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.Frame;
+import fr.cnes.sirius.patrius.frames.transformations.Transform;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.orbits.pvcoordinates.PVCoordinates;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import progmission.CompleteMission;
+import progmission.EarthOrientationCache;
+
+/**
+ * Test class for the {@link EarthOrientationCache} class. The interpolated
+ * transforms are compared to the transforms computed by the Patrius frames
+ * tree, at random dates of the mission horizon.
+ *
+ * @author agent
+ *
+ */
+public class EarthOrientationCacheTest {
+
+	/** Number of random dates. */
+	private static final int NB_DATES = 500;
+
+	/** Maximum rotation error of the interpolated matrix (rad). */
+	private static final double ROTATION_TOLERANCE = 1.e-12;
+
+	/** Maximum velocity error of the transformed coordinates (m/s). */
+	private static final double VELOCITY_TOLERANCE = 1.e-2;
+
+	/**
+	 * Checks the rotation between the Earth body frame and EME2000, in both
+	 * directions : the axes of both frames must match the Patrius transform
+	 * within {@link #ROTATION_TOLERANCE}, at the grid nodes, in the middle of the
+	 * steps and at random dates.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs when building
+	 *                          the mission or a transform.
+	 */
+	@Test
+	public void testRotationAccuracy() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Earth orientation mission", 1);
+		final EarthOrientationCache cache = mission.getEarthOrientation();
+		final Frame bodyFrame = cache.getBodyFrame();
+		final Frame inertialFrame = cache.getInertialFrame();
+		final double duration = mission.getEndDate().durationFrom(mission.getStartDate());
+		final Random random = new Random(42);
+		final Vector3D[] axes = { Vector3D.PLUS_I, Vector3D.PLUS_J, Vector3D.PLUS_K };
+
+		double maxError = 0.;
+		for (int k = 0; k < NB_DATES; k++) {
+			// Nodes, middles of the steps, then random dates
+			final double offset;
+			if (k < NB_DATES / 4) {
+				offset = k * cache.getStep();
+			} else if (k < NB_DATES / 2) {
+				offset = (k + 0.5) * cache.getStep();
+			} else {
+				offset = random.nextDouble() * duration;
+			}
+			final AbsoluteDate date = mission.getStartDate().shiftedBy(offset);
+			final Transform toInertial = bodyFrame.getTransformTo(inertialFrame, date);
+			final Transform toBody = inertialFrame.getTransformTo(bodyFrame, date);
+			for (final Vector3D axis : axes) {
+				maxError = Math.max(maxError,
+						Vector3D.angle(toInertial.transformVector(axis), cache.toInertial(date, axis)));
+				maxError = Math.max(maxError, Vector3D.angle(toBody.transformVector(axis), cache.toBody(date, axis)));
+			}
+		}
+		assertTrue("Rotation error " + maxError + " rad too large !", maxError < ROTATION_TOLERANCE);
+	}
+
+	/**
+	 * Checks the transform of the satellite coordinates from EME2000 to the Earth
+	 * body frame and back : the positions must match the Patrius transform within
+	 * the rotation tolerance, and the velocities, computed with a constant Earth
+	 * rotation rate, within {@link #VELOCITY_TOLERANCE}.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs when building
+	 *                          the mission or a transform.
+	 */
+	@Test
+	public void testCoordinatesAccuracy() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Earth orientation mission", 1);
+		final EarthOrientationCache cache = mission.getEarthOrientation();
+		final Frame bodyFrame = cache.getBodyFrame();
+		final Frame inertialFrame = cache.getInertialFrame();
+		final double duration = mission.getEndDate().durationFrom(mission.getStartDate());
+		final Random random = new Random(42);
+
+		for (int k = 0; k < NB_DATES; k++) {
+			final AbsoluteDate date = mission.getStartDate().shiftedBy(random.nextDouble() * duration);
+			final PVCoordinates inertial = mission.getSatellite().getInitialOrbit().getPVCoordinates(date,
+					inertialFrame);
+			final PVCoordinates body = inertialFrame.getTransformTo(bodyFrame, date).transformPVCoordinates(inertial);
+			final double positionTolerance = ROTATION_TOLERANCE * inertial.getPosition().getNorm();
+
+			final PVCoordinates cachedBody = cache.toBody(date, inertial);
+			assertEquals("Body position doesn't match !", 0.,
+					cachedBody.getPosition().subtract(body.getPosition()).getNorm(), positionTolerance);
+			assertEquals("Body velocity doesn't match !", 0.,
+					cachedBody.getVelocity().subtract(body.getVelocity()).getNorm(), VELOCITY_TOLERANCE);
+
+			final PVCoordinates cachedInertial = cache.toInertial(date, body);
+			assertEquals("Inertial position doesn't match !", 0.,
+					cachedInertial.getPosition().subtract(inertial.getPosition()).getNorm(), positionTolerance);
+			assertEquals("Inertial velocity doesn't match !", 0.,
+					cachedInertial.getVelocity().subtract(inertial.getVelocity()).getNorm(), VELOCITY_TOLERANCE);
+		}
+	}
+
+	/**
+	 * Checks that the dates outside of the grid are computed by Patrius.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs when building
+	 *                          the mission or a transform.
+	 */
+	@Test
+	public void testOutsideGrid() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Earth orientation mission", 1);
+		final EarthOrientationCache cache = mission.getEarthOrientation();
+		final AbsoluteDate date = mission.getEndDate().shiftedBy(86400.);
+		final Vector3D expected = cache.getBodyFrame().getTransformTo(cache.getInertialFrame(), date)
+				.transformVector(Vector3D.PLUS_I);
+		assertEquals("Fallback transform doesn't match !", 0.,
+				Vector3D.angle(expected, cache.toInertial(date, Vector3D.PLUS_I)), 0.);
+	}
+}
@@ -0,0 +1,221 @@
+package unittest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.bodies.GeodeticPoint;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.time.AbsoluteDateInterval;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import progmission.CompleteMission;
+import progmission.GroundTrackFilter;
+import progmission.SiteBatchEvaluator;
+import reader.Site;
+
+/**
+ * Test class for the {@link GroundTrackFilter} class. The pruned sites are
+ * compared to an unfiltered run : a dense sampling of the visibility of every
+ * site, a site being accessible only when it is visible.
+ *
+ * @author agent
+ *
+ */
+public class GroundTrackFilterTest {
+
+	/** Number of sites of the mission. */
+	private static final int SITE_NUMBER = 100;
+
+	/** Number of random sites added to the mission sites. */
+	private static final int RANDOM_SITE_NUMBER = 400;
+
+	/** Duration of the filtered horizon (s). */
+	private static final double HORIZON = 86400.;
+
+	/** Sampling step of the unfiltered visibility (s). */
+	private static final double STEP = 1.;
+
+	/** Number of ground track samples around which swath edge sites are placed. */
+	private static final int EDGE_SAMPLE_NUMBER = 20;
+
+	/**
+	 * Fractions of the swath half-angle at which the edge sites are placed across
+	 * the track.
+	 */
+	private static final double[] EDGE_FRACTIONS = { 0.9, 0.99, 0.999 };
+
+	/**
+	 * Checks that no site visible at some point of the horizon is filtered out.
+	 * Besides the mission sites and random sites, sites are placed across the
+	 * track at the edge of the swath, half a sampling step after a ground track
+	 * sample : they are the farthest from the samples, and are only kept thanks to
+	 * the half-step margin of the reach angle.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          computations.
+	 */
+	@Test
+	public void testNoVisibleSiteFiltered() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Ground track filter mission", SITE_NUMBER);
+		final AbsoluteDateInterval horizon = new AbsoluteDateInterval(mission.getStartDate(),
+				mission.getStartDate().shiftedBy(HORIZON));
+		final List<Site> sites = new ArrayList<>(mission.getSiteList());
+		final Random random = new Random(42);
+		for (int i = 0; i < RANDOM_SITE_NUMBER; i++) {
+			sites.add(new Site("Random " + i, 1., new GeodeticPoint(FastMath.asin(2. * random.nextDouble() - 1.),
+					FastMath.PI * (2. * random.nextDouble() - 1.), 0.)));
+		}
+		final int firstEdgeSite = sites.size();
+		final List<Double> edgeDates = new ArrayList<>();
+		for (int k = 0; k < EDGE_SAMPLE_NUMBER; k++) {
+			// Half a step after a ground track sample
+			final double date = (FastMath.floor(k * HORIZON / EDGE_SAMPLE_NUMBER / GroundTrackFilter.SAMPLING_STEP)
+					+ 0.5) * GroundTrackFilter.SAMPLING_STEP;
+			for (final double fraction : EDGE_FRACTIONS) {
+				for (final double side : new double[] { -1., 1. }) {
+					sites.add(createEdgeSite(mission, date, side * fraction * GroundTrackFilter.computeSwathHalfAngle(),
+							"Edge " + k + " " + fraction + " " + side));
+					edgeDates.add(date);
+				}
+			}
+		}
+
+		final GroundTrackFilter filter = new GroundTrackFilter(mission, horizon);
+		final List<Site> unreachable = new ArrayList<>();
+		final Set<Site> reachable = new HashSet<>(filter.filter(sites, unreachable));
+
+		// Unfiltered run : dense sampling of the visibility of every site, and the
+		// date at which each edge site was placed
+		final SiteBatchEvaluator evaluator = new SiteBatchEvaluator(sites, mission.getSiteGeometries());
+		final boolean[] visible = new boolean[sites.size()];
+		final double[] satellite = new double[3];
+		final double[] matrix = new double[9];
+		for (double t = 0.; t <= HORIZON; t += STEP) {
+			computeSatellitePosition(mission, t, satellite, matrix);
+			for (int i = 0; i < sites.size(); i++) {
+				visible[i] |= evaluator.isVisible(i, satellite);
+			}
+		}
+		for (int i = firstEdgeSite; i < sites.size(); i++) {
+			computeSatellitePosition(mission, edgeDates.get(i - firstEdgeSite), satellite, matrix);
+			visible[i] |= evaluator.isVisible(i, satellite);
+		}
+
+		int nbVisible = 0;
+		int nbVisibleEdge = 0;
+		for (int i = 0; i < sites.size(); i++) {
+			if (visible[i]) {
+				assertTrue(sites.get(i).getName() + " is visible but filtered out !",
+						reachable.contains(sites.get(i)));
+				nbVisible++;
+				if (i >= firstEdgeSite) {
+					nbVisibleEdge++;
+				}
+			}
+		}
+		assertTrue("No site is ever visible, nothing was compared !", nbVisible > 0);
+		assertTrue("No edge site is visible, the swath edge was not compared !", nbVisibleEdge > 0);
+		assertTrue("No site is filtered out, the filter was not exercised !", !unreachable.isEmpty());
+	}
+
+	/**
+	 * Checks that the sites split by the indexed filter match the brute-force
+	 * reachability test of each site, in the input order.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          computations.
+	 */
+	@Test
+	public void testFilterMatchesReachability() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Ground track filter mission", SITE_NUMBER);
+		final GroundTrackFilter filter = new GroundTrackFilter(mission, new AbsoluteDateInterval(
+				mission.getStartDate(), mission.getStartDate().shiftedBy(HORIZON)));
+		final List<Site> sites = new ArrayList<>(mission.getSiteList());
+		final Random random = new Random(7);
+		for (int i = 0; i < RANDOM_SITE_NUMBER; i++) {
+			sites.add(new Site("Random " + i, 1., new GeodeticPoint(FastMath.asin(2. * random.nextDouble() - 1.),
+					FastMath.PI * (2. * random.nextDouble() - 1.), 0.)));
+		}
+
+		final List<Site> unreachable = new ArrayList<>();
+		final List<Site> reachable = filter.filter(sites, unreachable);
+		assertEquals("Sites lost by the filter !", sites.size(), reachable.size() + unreachable.size());
+		final List<Site> expectedReachable = new ArrayList<>();
+		final List<Site> expectedUnreachable = new ArrayList<>();
+		for (final Site site : sites) {
+			(filter.isReachable(site) ? expectedReachable : expectedUnreachable).add(site);
+		}
+		assertEquals("Reachable sites don't match !", expectedReachable, reachable);
+		assertEquals("Unreachable sites don't match !", expectedUnreachable, unreachable);
+	}
+
+	/**
+	 * Creates a site on the ground, across the track of the satellite at a given
+	 * date, at a given Earth central angle from the sub-satellite point.
+	 *
+	 * @param mission Input mission
+	 * @param offset  Offset (s) of the date from the mission start date
+	 * @param angle   Earth central angle (rad) from the sub-satellite point,
+	 *                positive on the left of the track
+	 * @param name    Name of the site
+	 * @return the site
+	 * @throws PatriusException If the Earth orientation computation fails
+	 */
+	private static Site createEdgeSite(final CompleteMission mission, final double offset, final double angle,
+			final String name) throws PatriusException {
+		final double[] matrix = new double[9];
+		final double[] before = new double[3];
+		final double[] after = new double[3];
+		final double[] center = new double[3];
+		computeSatellitePosition(mission, offset - 1., before, matrix);
+		computeSatellitePosition(mission, offset + 1., after, matrix);
+		computeSatellitePosition(mission, offset, center, matrix);
+
+		// Sub-satellite unit vector and unit normal to the track in the Earth frame
+		final double[] nadir = normalize(center);
+		final double[] motion = { after[0] - before[0], after[1] - before[1], after[2] - before[2] };
+		final double[] normal = normalize(new double[] { nadir[1] * motion[2] - nadir[2] * motion[1],
+				nadir[2] * motion[0] - nadir[0] * motion[2], nadir[0] * motion[1] - nadir[1] * motion[0] });
+		final double cos = FastMath.cos(angle);
+		final double sin = FastMath.sin(angle);
+		final double x = cos * nadir[0] + sin * normal[0];
+		final double y = cos * nadir[1] + sin * normal[1];
+		final double z = cos * nadir[2] + sin * normal[2];
+		return new Site(name, 1., new GeodeticPoint(FastMath.asin(z), FastMath.atan2(y, x), 0.));
+	}
+
+	/**
+	 * Computes the satellite position in the Earth body frame.
+	 *
+	 * @param mission   Input mission
+	 * @param offset    Offset (s) from the mission start date
+	 * @param satellite Output satellite position, 3 elements
+	 * @param matrix    Work array of 9 elements
+	 * @throws PatriusException If the Earth orientation computation fails
+	 */
+	private static void computeSatellitePosition(final CompleteMission mission, final double offset,
+			final double[] satellite, final double[] matrix) throws PatriusException {
+		final AbsoluteDate date = mission.getStartDate().shiftedBy(offset);
+		mission.getPlanningPropagator().propagate(date, satellite, null);
+		mission.getEarthOrientation().toBody(date, satellite, satellite, matrix);
+	}
+
+	/**
+	 * Normalizes a vector.
+	 *
+	 * @param vector Input vector, 3 elements
+	 * @return the unit vector
+	 */
+	private static double[] normalize(final double[] vector) {
+		final double norm = FastMath.sqrt(vector[0] * vector[0] + vector[1] * vector[1] + vector[2] * vector[2]);
+		return new double[] { vector[0] / norm, vector[1] / norm, vector[2] / norm };
+	}
+}
@@ -0,0 +1,98 @@
+package unittest;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.events.CodedEventsLogger;
+import fr.cnes.sirius.patrius.events.GenericCodingEventDetector;
+import fr.cnes.sirius.patrius.propagation.events.EventDetector.Action;
+import fr.cnes.sirius.patrius.propagation.events.ThreeBodiesAngleDetector;
+import fr.cnes.sirius.patrius.time.AbsoluteDateInterval;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import progmission.CompleteMission;
+import progmission.DetectionProfile;
+import progmission.IlluminationWindowCalculator;
+import progmission.PropagationSession;
+import reader.Site;
+import utils.ConstantsBE;
+import utils.IntervalSet;
+
+/**
+ * Test class for the {@link IlluminationWindowCalculator} class. Its windows
+ * are compared to the windows of the {@link ThreeBodiesAngleDetector} of the
+ * illumination constraint, propagated with the Patrius Sun ephemeris.
+ *
+ * @author agent
+ *
+ */
+public class IlluminationWindowCalculatorTest {
+
+	/** Number of compared sites. */
+	private static final int SITE_NUMBER = 10;
+
+	/**
+	 * Tolerance on the window bounds (s) : the differences come from the Earth
+	 * orientation interpolation, from the Sun table of the
+	 * {@link DetectionProfile#STANDARD} profile and from the convergence of the
+	 * event detection.
+	 */
+	private static final double TOLERANCE = 0.1;
+
+	/**
+	 * Checks the illumination windows of the {@link DetectionProfile#PRECISE} and
+	 * {@link DetectionProfile#STANDARD} profiles against the detector, over the
+	 * mission horizon, on a few sites. The sites of a cell share the sampling of
+	 * the cell center : all the sites are computed by the same calculator.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          propagation.
+	 */
+	@Test
+	public void testSameWindowsAsDetector() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Illumination mission", SITE_NUMBER);
+		final AbsoluteDateInterval horizon = new AbsoluteDateInterval(mission.getStartDate(), mission.getEndDate());
+
+		// Reference : detector of the illumination constraint with the exact Sun
+		final CodedEventsLogger[] loggers = new CodedEventsLogger[SITE_NUMBER];
+		try (final PropagationSession session = mission.openPropagationSession()) {
+			for (int i = 0; i < SITE_NUMBER; i++) {
+				final Site site = mission.getSiteList().get(i);
+				final ThreeBodiesAngleDetector detector = new ThreeBodiesAngleDetector(mission.getEarth(),
+						mission.getSiteGeometries().getProvider(site), mission.getSun(),
+						Math.toRadians(180 - ConstantsBE.MAX_SUN_INCIDENCE_ANGLE),
+						DetectionProfile.PRECISE.getMaxCheck(), DetectionProfile.PRECISE.getThreshold(),
+						Action.CONTINUE);
+				loggers[i] = new CodedEventsLogger();
+				session.addEventDetector(loggers[i].monitorDetector(new GenericCodingEventDetector(detector,
+						"Event starting the illumination phenomenon", "Event ending the illumination phenomenon",
+						true, "ILL")));
+			}
+			session.propagate(horizon.getLowerData(), horizon.getUpperData());
+		}
+
+		final IlluminationWindowCalculator precise = new IlluminationWindowCalculator(mission, horizon,
+				DetectionProfile.PRECISE);
+		final IlluminationWindowCalculator standard = new IlluminationWindowCalculator(mission, horizon,
+				DetectionProfile.STANDARD);
+		boolean illuminated = false;
+		for (int i = 0; i < SITE_NUMBER; i++) {
+			final Site site = mission.getSiteList().get(i);
+			final IntervalSet reference = IntervalSet.fromLogger(loggers[i], horizon);
+			WindowAssertions.assertSameWindows(site.getName() + " (precise)", reference,
+					precise.computeWindows(site), TOLERANCE);
+			WindowAssertions.assertSameWindows(site.getName() + " (standard)", reference,
+					standard.computeWindows(site), TOLERANCE);
+			illuminated |= !reference.isEmpty();
+		}
+		assertTrue("No site is ever illuminated, nothing was compared !", illuminated);
+	}
+
+	/**
+	 * Checks that a calculator with a null cell size is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullCellSize() {
+		new IlluminationWindowCalculator(null, null, DetectionProfile.PRECISE, 0.);
+	}
+}
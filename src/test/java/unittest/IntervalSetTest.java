@@ -0,0 +1,140 @@
+package unittest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import utils.IntervalSet;
+
+/**
+ * Test class for the {@link IntervalSet} class. The set operations are checked
+ * on hand-made cases and against a point-wise evaluation on random sets.
+ *
+ * @author agent
+ *
+ */
+public class IntervalSetTest {
+
+	/** Epoch of the tested sets. */
+	private static final AbsoluteDate EPOCH = AbsoluteDate.J2000_EPOCH;
+
+	/** Tolerance on the bounds (s). */
+	private static final double EPSILON = 1e-12;
+
+	/**
+	 * Checks the normalization of the input intervals : sorting, merging of the
+	 * overlapping and touching intervals, removal of the empty ones.
+	 */
+	@Test
+	public void testNormalization() {
+		final IntervalSet set = IntervalSet.of(EPOCH, 10., 20., 0., 5., 5., 8., 15., 25., 30., 30.);
+		assertArrayEquals(new double[] { 0., 8., 10., 25. }, set.getBounds(), EPSILON);
+		assertEquals(2, set.size());
+		assertEquals(23., set.getDuration(), EPSILON);
+		assertTrue(IntervalSet.empty(EPOCH).isEmpty());
+	}
+
+	/**
+	 * Checks the AND, OR and NOT operations on a simple case.
+	 */
+	@Test
+	public void testOperations() {
+		final IntervalSet a = IntervalSet.of(EPOCH, 0., 10., 20., 30., 40., 50.);
+		final IntervalSet b = IntervalSet.of(EPOCH, 5., 25., 30., 45.);
+
+		assertArrayEquals(new double[] { 5., 10., 20., 25., 40., 45. }, a.and(b).getBounds(), EPSILON);
+		assertArrayEquals(new double[] { 0., 50. }, a.or(b).getBounds(), EPSILON);
+		assertArrayEquals(new double[] { 10., 20., 30., 40., 50., 60. }, a.not(0., 60.).getBounds(), EPSILON);
+		assertArrayEquals(new double[] { 12., 18. }, a.not(12., 18.).getBounds(), EPSILON);
+
+		// Touching intervals have an empty intersection
+		assertTrue(a.and(IntervalSet.of(EPOCH, 10., 20.)).isEmpty());
+	}
+
+	/**
+	 * Checks the membership test, bounds included.
+	 */
+	@Test
+	public void testContains() {
+		final IntervalSet set = IntervalSet.of(EPOCH, 0., 10., 20., 30.);
+		assertTrue(set.contains(0.));
+		assertTrue(set.contains(5.));
+		assertTrue(set.contains(10.));
+		assertFalse(set.contains(15.));
+		assertTrue(set.contains(30.));
+		assertFalse(set.contains(-1.));
+		assertFalse(set.contains(31.));
+	}
+
+	/**
+	 * Checks the operations on random sets against a point-wise evaluation of
+	 * the logical gates.
+	 */
+	@Test
+	public void testRandomSets() {
+		final Random random = new Random(7);
+		for (int trial = 0; trial < 200; trial++) {
+			final IntervalSet a = randomSet(random);
+			final IntervalSet b = randomSet(random);
+			final IntervalSet and = a.and(b);
+			final IntervalSet or = a.or(b);
+			final IntervalSet not = a.not(0., 100.);
+			for (int k = 0; k < 1000; k++) {
+				// Sampling in the middle of the grid cells so that no sample lies on a
+				// bound
+				final double t = k * 0.1 + 0.05;
+				assertEquals(a.contains(t) && b.contains(t), and.contains(t));
+				assertEquals(a.contains(t) || b.contains(t), or.contains(t));
+				assertEquals(!a.contains(t), not.contains(t));
+			}
+			assertNormalized(and);
+			assertNormalized(or);
+			assertNormalized(not);
+		}
+	}
+
+	/**
+	 * Checks that intervals added out of order to a builder are rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testBuilderOrder() {
+		new IntervalSet.Builder(EPOCH).add(10., 20.).add(5., 8.);
+	}
+
+	/**
+	 * Asserts that the bounds of a set are strictly increasing : disjoint,
+	 * non-touching and non-empty intervals.
+	 *
+	 * @param set Set to check
+	 */
+	private static void assertNormalized(final IntervalSet set) {
+		final double[] bounds = set.getBounds();
+		for (int i = 1; i < bounds.length; i++) {
+			assertTrue("Bounds not strictly increasing : " + set, bounds[i] > bounds[i - 1]);
+		}
+	}
+
+	/**
+	 * Builds a random set of intervals over [0 ; 100] with bounds on a 0.1 s grid.
+	 *
+	 * @param random Random generator
+	 * @return the set
+	 */
+	private static IntervalSet randomSet(final Random random) {
+		final int n = random.nextInt(8);
+		final double[] bounds = new double[2 * n];
+		for (int i = 0; i < n; i++) {
+			final double lower = random.nextInt(1000) * 0.1;
+			bounds[2 * i] = lower;
+			bounds[2 * i + 1] = FastMath.min(100., lower + random.nextInt(200) * 0.1);
+		}
+		return IntervalSet.of(EPOCH, bounds);
+	}
+}
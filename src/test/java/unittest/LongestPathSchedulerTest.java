@@ -0,0 +1,247 @@
+package unittest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.attitudes.AttitudeLaw;
+import fr.cnes.sirius.patrius.attitudes.ConstantAttitudeLaw;
+import fr.cnes.sirius.patrius.bodies.GeodeticPoint;
+import fr.cnes.sirius.patrius.frames.FramesFactory;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Rotation;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import progmission.ConflictGraph;
+import progmission.LongestPathScheduler;
+import progmission.ObservationCandidate;
+import reader.Site;
+import utils.ConstantsBE;
+
+/**
+ * Test class for the {@link LongestPathScheduler} class, on small hand-built
+ * conflict graphs. The plans must be feasible, and the bounds must bracket the
+ * optimum found by a brute force enumeration of the plans.
+ *
+ * @author agent
+ *
+ */
+public class LongestPathSchedulerTest {
+
+	/** Maximum slew duration of the instances (s). */
+	private static final double MAX_SLEW_DURATION = 60.;
+
+	/** Number of random instances. */
+	private static final int NB_INSTANCES = 200;
+
+	/** Number of candidates of a random instance, all their subsets are enumerated. */
+	private static final int NB_CANDIDATES = 12;
+
+	/** Number of sites of a random instance. */
+	private static final int NB_SITES = 4;
+
+	/** Tolerance on the plan weights. */
+	private static final double TOLERANCE = 1.e-9;
+
+	/** Observation law of the candidates, the slews are given by the conflicts. */
+	private static final AttitudeLaw LAW = new ConstantAttitudeLaw(FramesFactory.getGCRF(), Rotation.IDENTITY);
+
+	/**
+	 * Checks a graph whose longest path observes a site twice : the best site
+	 * (0) has two candidates around a conflict, and the plan must keep only one
+	 * of them.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs when
+	 *                          computing the attitudes of the candidates.
+	 */
+	@Test
+	public void testHandBuiltGraph() throws PatriusException {
+		final Site[] sites = createSites(3);
+		final List<ObservationCandidate> candidates = new ArrayList<>();
+		candidates.add(createCandidate(sites[0], 0.));
+		candidates.add(createCandidate(sites[1], 15.));
+		candidates.add(createCandidate(sites[0], 30.));
+		candidates.add(createCandidate(sites[2], 45.));
+		candidates.add(createCandidate(sites[1], 60.));
+		final int[][] conflicts = { { 0, 1 }, { 2, 3 }, { 1, 3 } };
+		final double[] weights = { 3., 2., 4., 1., 2. };
+		final ConflictGraph graph = ConflictGraph.fromConflicts(candidates, conflicts);
+
+		final LongestPathScheduler scheduler = new LongestPathScheduler(graph, weights, MAX_SLEW_DURATION);
+		scheduler.setTolerance(0.);
+		scheduler.schedule();
+		checkPlan(graph, weights, scheduler);
+		assertEquals("Plan weight doesn't match !", 6., scheduler.getLowerBound(), TOLERANCE);
+	}
+
+	/**
+	 * Checks random graphs : the candidates observe a few sites, a few seconds
+	 * apart, and the pairs closer than the maximum slew duration are in conflict
+	 * when they overlap or at random. The subgradient iterations don't always
+	 * close the gap between the bounds, but the plan must be optimal when they
+	 * do, which must happen on most instances.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs when
+	 *                          computing the attitudes of the candidates.
+	 */
+	@Test
+	public void testRandomGraphs() throws PatriusException {
+		final Random random = new Random(42);
+		final Site[] sites = createSites(NB_SITES);
+		int nbOptimal = 0;
+		for (int instance = 0; instance < NB_INSTANCES; instance++) {
+			final List<ObservationCandidate> candidates = new ArrayList<>();
+			final double[] weights = new double[NB_CANDIDATES];
+			double start = 0.;
+			for (int i = 0; i < NB_CANDIDATES; i++) {
+				start += random.nextDouble() * 2. * ConstantsBE.INTEGRATION_TIME;
+				candidates.add(createCandidate(sites[random.nextInt(NB_SITES)], start));
+				weights[i] = random.nextDouble();
+			}
+			final List<int[]> pairs = new ArrayList<>();
+			for (int i = 0; i < NB_CANDIDATES; i++) {
+				for (int j = i + 1; j < NB_CANDIDATES; j++) {
+					final double available = candidates.get(j).getStart().durationFrom(candidates.get(i).getEnd());
+					if (candidates.get(i).getSite() != candidates.get(j).getSite() && available < MAX_SLEW_DURATION
+							&& (available < 0. || random.nextBoolean())) {
+						pairs.add(new int[] { i, j });
+					}
+				}
+			}
+			final ConflictGraph graph = ConflictGraph.fromConflicts(candidates, pairs.toArray(new int[0][]));
+
+			final LongestPathScheduler scheduler = new LongestPathScheduler(graph, weights, MAX_SLEW_DURATION);
+			scheduler.setTolerance(0.);
+			scheduler.schedule();
+			checkPlan(graph, weights, scheduler);
+			final double optimum = computeOptimum(graph, weights);
+			assertTrue("Instance " + instance + " : lower bound above the optimum !",
+					scheduler.getLowerBound() <= optimum + TOLERANCE);
+			assertTrue("Instance " + instance + " : upper bound below the optimum !",
+					scheduler.getUpperBound() >= optimum - TOLERANCE);
+			if (scheduler.getUpperBound() - scheduler.getLowerBound() <= TOLERANCE) {
+				assertEquals("Instance " + instance + " : plan is not optimal !", optimum, scheduler.getLowerBound(),
+						TOLERANCE);
+				nbOptimal++;
+			}
+		}
+		assertTrue("Only " + nbOptimal + " instances proven optimal !", 2 * nbOptimal > NB_INSTANCES);
+	}
+
+	/**
+	 * Checks that a scheduler whose weights don't match the candidates is
+	 * rejected.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs when
+	 *                          computing the attitudes of the candidates.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testWrongNumberOfWeights() throws PatriusException {
+		final List<ObservationCandidate> candidates = new ArrayList<>();
+		candidates.add(createCandidate(createSites(1)[0], 0.));
+		new LongestPathScheduler(ConflictGraph.fromConflicts(candidates, new int[0][]), new double[2],
+				MAX_SLEW_DURATION);
+	}
+
+	/**
+	 * Asserts that the best plan of a scheduler is feasible : at most one
+	 * observation per site, in chronological order, without overlap or conflict
+	 * between consecutive observations. Its weight must be the lower bound, and
+	 * must not exceed the upper bound.
+	 *
+	 * @param graph     Conflict graph of the candidates
+	 * @param weights   Weight of each candidate
+	 * @param scheduler Scheduler, after the scheduling
+	 */
+	private static void checkPlan(final ConflictGraph graph, final double[] weights,
+			final LongestPathScheduler scheduler) {
+		final Set<Site> observed = new HashSet<>();
+		double weight = 0.;
+		int previous = -1;
+		for (final ObservationCandidate candidate : scheduler.getPlan()) {
+			final int index = graph.getCandidates().indexOf(candidate);
+			assertTrue("Site " + candidate.getSite().getName() + " observed twice !",
+					observed.add(candidate.getSite()));
+			if (previous >= 0) {
+				assertTrue("Observations " + previous + " and " + index + " overlap !",
+						candidate.getStart().compareTo(graph.getCandidate(previous).getEnd()) >= 0);
+				assertFalse("Observations " + previous + " and " + index + " are in conflict !",
+						graph.areConflicting(previous, index));
+			}
+			weight += weights[index];
+			previous = index;
+		}
+		assertEquals("Plan weight doesn't match the lower bound !", weight, scheduler.getLowerBound(), TOLERANCE);
+		assertTrue("Lower bound above the upper bound !",
+				scheduler.getLowerBound() <= scheduler.getUpperBound() + TOLERANCE);
+	}
+
+	/**
+	 * Computes the weight of the best plan by enumerating all the subsets of
+	 * candidates.
+	 *
+	 * @param graph   Conflict graph of the candidates
+	 * @param weights Weight of each candidate
+	 * @return the weight of the best feasible plan
+	 */
+	private static double computeOptimum(final ConflictGraph graph, final double[] weights) {
+		final int n = graph.size();
+		double optimum = 0.;
+		for (int subset = 1; subset < 1 << n; subset++) {
+			final Set<Site> observed = new HashSet<>();
+			boolean feasible = true;
+			double weight = 0.;
+			int previous = -1;
+			for (int i = 0; i < n && feasible; i++) {
+				if ((subset & 1 << i) == 0) {
+					continue;
+				}
+				feasible = observed.add(graph.getCandidate(i).getSite()) && (previous < 0
+						|| graph.getCandidate(i).getStart().compareTo(graph.getCandidate(previous).getEnd()) >= 0
+								&& !graph.areConflicting(previous, i));
+				weight += weights[i];
+				previous = i;
+			}
+			if (feasible) {
+				optimum = Math.max(optimum, weight);
+			}
+		}
+		return optimum;
+	}
+
+	/**
+	 * Creates sites of unit score.
+	 *
+	 * @param number Number of sites
+	 * @return the sites
+	 */
+	private static Site[] createSites(final int number) {
+		final Site[] sites = new Site[number];
+		for (int s = 0; s < number; s++) {
+			sites[s] = new Site("Site " + s, 1., new GeodeticPoint(0., 0., 0.));
+		}
+		return sites;
+	}
+
+	/**
+	 * Creates a candidate of a site.
+	 *
+	 * @param site  Observed site
+	 * @param start Start of the observation (s from the J2000 epoch)
+	 * @return the candidate
+	 * @throws PatriusException If a {@link PatriusException} occurs when
+	 *                          computing the attitudes of the candidate.
+	 */
+	private static ObservationCandidate createCandidate(final Site site, final double start)
+			throws PatriusException {
+		return new ObservationCandidate(site, LAW, AbsoluteDate.J2000_EPOCH.shiftedBy(start), null,
+				FramesFactory.getGCRF());
+	}
+}
@@ -0,0 +1,277 @@
+package unittest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.time.AbsoluteDateInterval;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import fr.cnes.sirius.patrius.utils.exception.PatriusMessages;
+import progmission.AccessPlanListener;
+import progmission.CompleteMission;
+import progmission.DetectionProfile;
+import progmission.MultiSiteAccessEngine;
+import progmission.RepeatCycle;
+import reader.Site;
+import utils.IntervalSet;
+
+/**
+ * Test class for the {@link MultiSiteAccessEngine} class. The access windows
+ * found by its search strategies are compared to the windows sampled over the
+ * whole horizon with the same {@link DetectionProfile}, and the streamed
+ * windows to the windows of the batch computation.
+ *
+ * @author agent
+ *
+ */
+public class MultiSiteAccessEngineTest {
+
+	/** Number of compared sites. */
+	private static final int SITE_NUMBER = 50;
+
+	/** Maximum duration of the searched repeat cycle (s). */
+	private static final double MAX_CYCLE_DURATION = 30 * 86400.;
+
+	/**
+	 * Tolerance on the window bounds (s) : both computations locate each bound
+	 * within the convergence threshold of the {@link DetectionProfile#STANDARD}
+	 * profile.
+	 */
+	private static final double TOLERANCE = 0.1;
+
+	/**
+	 * Checks the prediction of the visibility windows from the ground-track
+	 * repeat cycle, over two cycles and a half : the access windows must match
+	 * the windows sampled over the whole horizon. The illumination and dazzling
+	 * constraints don't repeat with the cycle, so a prediction of the access
+	 * windows themselves would shift or miss the bounds set by the Sun.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          computations.
+	 */
+	@Test
+	public void testRepeatCycleReuse() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Repeat cycle mission", SITE_NUMBER);
+		final RepeatCycle cycle = RepeatCycle.detect(mission.getPlanningPropagator(), MAX_CYCLE_DURATION,
+				RepeatCycle.DEFAULT_MAX_DRIFT);
+		assertNotNull("No repeat cycle, nothing was compared !", cycle);
+		final AbsoluteDateInterval horizon = new AbsoluteDateInterval(mission.getStartDate(),
+				mission.getStartDate().shiftedBy(2.5 * cycle.getPeriod()));
+
+		// Reference : sampling over the whole horizon
+		final Map<Site, IntervalSet> reference = new MultiSiteAccessEngine(mission, horizon,
+				DetectionProfile.STANDARD).computeAccessWindows(mission.getSiteList());
+
+		final MultiSiteAccessEngine engine = new MultiSiteAccessEngine(mission, horizon, DetectionProfile.STANDARD);
+		engine.setRepeatCycleReuse(true);
+		assertSameWindows(mission, reference, engine.computeAccessWindows(mission.getSiteList()));
+	}
+
+	/**
+	 * Checks the search of the access windows inside the passes predicted from
+	 * the orbital motion, over the mission horizon : every window sampled over
+	 * the whole horizon must be found with the same bounds. The passes grazing the
+	 * edge of the agility cone, where the site is not visible at the closest
+	 * approach, are covered by the search of the visibility maximum. The pass
+	 * search may find more windows than the sampling, which misses the windows
+	 * shorter than its step.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          computations.
+	 */
+	@Test
+	public void testPassPrediction() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Pass prediction mission", SITE_NUMBER);
+		final AbsoluteDateInterval horizon = new AbsoluteDateInterval(mission.getStartDate(), mission.getEndDate());
+
+		// Reference : sampling over the whole horizon
+		final Map<Site, IntervalSet> reference = new MultiSiteAccessEngine(mission, horizon,
+				DetectionProfile.STANDARD).computeAccessWindows(mission.getSiteList());
+
+		final MultiSiteAccessEngine engine = new MultiSiteAccessEngine(mission, horizon, DetectionProfile.STANDARD);
+		engine.setPassPrediction(true);
+		final Map<Site, IntervalSet> predicted = engine.computeAccessWindows(mission.getSiteList());
+
+		boolean accessible = false;
+		for (final Site site : mission.getSiteList()) {
+			final IntervalSet expected = reference.get(site);
+			final IntervalSet actual = predicted.get(site);
+			int matched = 0;
+			for (int j = 0; j < actual.size(); j++) {
+				if (matched < expected.size()
+						&& Math.abs(expected.getLower(matched) - actual.getLower(j)) <= TOLERANCE) {
+					assertEquals(site.getName() + " : end of window " + j + " doesn't match !",
+							expected.getUpper(matched), actual.getUpper(j), TOLERANCE);
+					matched++;
+				} else {
+					assertTrue(site.getName() + " : window " + j + " is not sampled but lasts more than a step !",
+							actual.getUpper(j) - actual.getLower(j) < DetectionProfile.STANDARD.getMaxCheck());
+				}
+			}
+			assertEquals(site.getName() + " : sampled windows missed by the pass search !", expected.size(),
+					matched);
+			accessible |= !expected.isEmpty();
+		}
+		assertTrue("No site is ever accessible, nothing was compared !", accessible);
+	}
+
+	/**
+	 * Checks the streaming of the access windows, sequentially over more than one
+	 * chunk and in parallel : each site must be delivered exactly once, with the
+	 * windows of the batch computation.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          computations.
+	 */
+	@Test
+	public void testStreamAccessWindows() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Streaming mission",
+				MultiSiteAccessEngine.STREAMING_CHUNK_SIZE + SITE_NUMBER);
+		final AbsoluteDateInterval horizon = new AbsoluteDateInterval(mission.getStartDate(), mission.getEndDate());
+		final MultiSiteAccessEngine engine = new MultiSiteAccessEngine(mission, horizon, DetectionProfile.FAST);
+		final Map<Site, IntervalSet> reference = engine.computeAccessWindows(mission.getSiteList());
+
+		final RecordingListener sequential = new RecordingListener();
+		engine.streamAccessWindows(mission.getSiteList(), sequential);
+		sequential.assertDeliveredOnce(mission);
+		assertSameWindows(mission, reference, sequential.windows);
+
+		final RecordingListener parallel = new RecordingListener();
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			engine.streamAccessWindows(mission.getSiteList(), pool, parallel);
+		} finally {
+			pool.shutdown();
+		}
+		parallel.assertDeliveredOnce(mission);
+		assertSameWindows(mission, reference, parallel.windows);
+	}
+
+	/**
+	 * Checks that a {@link PatriusException} raised by a site inside the worker
+	 * threads of the pool reaches the caller as a {@link PatriusException}, and
+	 * not wrapped in an unchecked exception.
+	 *
+	 * @throws PatriusException The expected exception of the failing sites.
+	 */
+	@Test(expected = PatriusException.class)
+	public void testWorkerFailure() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Worker failure mission", SITE_NUMBER);
+
+		// The sites fail when their geometry is built, which only happens in the
+		// workers, after the ground track filter
+		final List<Site> sites = new ArrayList<>();
+		for (final Site site : mission.getSiteList()) {
+			sites.add(new FailingSite(site));
+		}
+		final ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			new MultiSiteAccessEngine(mission).computeAccessWindows(sites, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Asserts that two access plans have the same windows for every site of the
+	 * mission, and that at least one site is accessible.
+	 *
+	 * @param mission   Mission whose sites are compared
+	 * @param reference Reference access windows
+	 * @param actual    Compared access windows
+	 */
+	private static void assertSameWindows(final CompleteMission mission, final Map<Site, IntervalSet> reference,
+			final Map<Site, IntervalSet> actual) {
+		boolean accessible = false;
+		for (final Site site : mission.getSiteList()) {
+			WindowAssertions.assertSameWindows(site.getName(), reference.get(site), actual.get(site), TOLERANCE);
+			accessible |= !reference.get(site).isEmpty();
+		}
+		assertTrue("No site is ever accessible, nothing was compared !", accessible);
+	}
+
+	/**
+	 * Thread-safe listener recording the streamed windows and the sites delivered
+	 * more than once.
+	 */
+	private static final class RecordingListener implements AccessPlanListener {
+
+		/** Windows of the delivered sites. */
+		private final ConcurrentMap<Site, IntervalSet> windows = new ConcurrentHashMap<>();
+
+		/** Sites delivered more than once. */
+		private final Queue<Site> duplicates = new ConcurrentLinkedQueue<>();
+
+		/** Number of calls of the listener. */
+		private final AtomicInteger calls = new AtomicInteger();
+
+		@Override
+		public void siteAccessComputed(final Site site, final IntervalSet accessWindows) {
+			this.calls.incrementAndGet();
+			if (this.windows.putIfAbsent(site, accessWindows) != null) {
+				this.duplicates.add(site);
+			}
+		}
+
+		/**
+		 * Asserts that each site of the mission was delivered exactly once.
+		 *
+		 * @param mission Mission whose sites were streamed
+		 */
+		private void assertDeliveredOnce(final CompleteMission mission) {
+			assertTrue("Sites delivered more than once : " + this.duplicates + " !", this.duplicates.isEmpty());
+			assertEquals("Number of deliveries doesn't match !", mission.getSiteList().size(), this.calls.get());
+			for (final Site site : mission.getSiteList()) {
+				assertTrue(site.getName() + " not delivered !", this.windows.containsKey(site));
+			}
+		}
+	}
+
+	/**
+	 * Site whose name can't be read : it raises a {@link PatriusException},
+	 * although {@link Site#getName()} doesn't declare it, like a failure of the
+	 * Patrius computations using the site.
+	 */
+	private static final class FailingSite extends Site {
+
+		/**
+		 * Constructor.
+		 *
+		 * @param site Site whose score and point are copied
+		 */
+		private FailingSite(final Site site) {
+			super(site.getName(), site.getScore(), site.getPoint());
+		}
+
+		@Override
+		public String getName() {
+			throw FailingSite.<RuntimeException>raise(
+					new PatriusException(PatriusMessages.SIMPLE_MESSAGE, "Failing site"));
+		}
+
+		/**
+		 * Raises a checked exception without declaring it.
+		 *
+		 * @param <E>       Type the exception is seen as by the compiler
+		 * @param exception Raised exception
+		 * @return never returns
+		 * @throws E the raised exception
+		 */
+		@SuppressWarnings("unchecked")
+		private static <E extends Exception> E raise(final Exception exception) throws E {
+			throw (E) exception;
+		}
+	}
+}
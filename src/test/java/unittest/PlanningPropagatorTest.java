@@ -0,0 +1,123 @@
+package unittest;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import progmission.PlanningPropagator;
+
+/**
+ * Test class for the {@link PlanningPropagator} class. The propagated states
+ * are compared to the closed-form circular motion and to the two-body
+ * invariants.
+ *
+ * @author agent
+ *
+ */
+public class PlanningPropagatorTest {
+
+	/** Earth gravitational parameter (m³/s²). */
+	private static final double MU = 3.986004415e14;
+
+	/**
+	 * Checks that a circular orbit is propagated as a uniform circular motion, in
+	 * position and velocity.
+	 */
+	@Test
+	public void testCircularOrbit() {
+		final double radius = 7000.e3;
+		final double speed = FastMath.sqrt(MU / radius);
+		final double omega = speed / radius;
+		final PlanningPropagator propagator = new PlanningPropagator(AbsoluteDate.J2000_EPOCH, null,
+				new double[] { radius, 0., 0. }, new double[] { 0., speed, 0. }, MU);
+		assertEquals("Period doesn't match !", 2. * FastMath.PI / omega, propagator.getPeriod(), 1.e-6);
+
+		final double[] position = new double[3];
+		final double[] velocity = new double[3];
+		for (double t = 0.; t < 20000.; t += 700.) {
+			propagator.propagate(AbsoluteDate.J2000_EPOCH.shiftedBy(t), position, velocity);
+			final double angle = omega * t;
+			assertEquals("X doesn't match !", radius * FastMath.cos(angle), position[0], 1.e-3);
+			assertEquals("Y doesn't match !", radius * FastMath.sin(angle), position[1], 1.e-3);
+			assertEquals("Z doesn't match !", 0., position[2], 1.e-3);
+			assertEquals("VX doesn't match !", -speed * FastMath.sin(angle), velocity[0], 1.e-6);
+			assertEquals("VY doesn't match !", speed * FastMath.cos(angle), velocity[1], 1.e-6);
+			assertEquals("VZ doesn't match !", 0., velocity[2], 1.e-6);
+		}
+	}
+
+	/**
+	 * Checks on an inclined eccentric orbit that the energy and the angular
+	 * momentum are conserved and that the initial state is found again after one
+	 * period.
+	 */
+	@Test
+	public void testEccentricOrbit() {
+		final double[] initialPosition = { 6800.e3, 1200.e3, -300.e3 };
+		final double[] initialVelocity = { -800., 6200., 4500. };
+		final PlanningPropagator propagator = new PlanningPropagator(AbsoluteDate.J2000_EPOCH, null,
+				initialPosition, initialVelocity, MU);
+
+		final double energy = energy(initialPosition, initialVelocity);
+		final double[] momentum = cross(initialPosition, initialVelocity);
+
+		final double[] position = new double[3];
+		final double[] velocity = new double[3];
+		propagator.propagate(0., position, velocity);
+		for (int c = 0; c < 3; c++) {
+			assertEquals("Initial position doesn't match !", initialPosition[c], position[c], 1.e-3);
+			assertEquals("Initial velocity doesn't match !", initialVelocity[c], velocity[c], 1.e-6);
+		}
+
+		for (double t = 0.; t < 30000.; t += 900.) {
+			propagator.propagate(t, position, velocity);
+			assertEquals("Energy isn't conserved !", 0., (energy(position, velocity) - energy) / energy, 1.e-12);
+			final double[] h = cross(position, velocity);
+			for (int c = 0; c < 3; c++) {
+				assertEquals("Angular momentum isn't conserved !", momentum[c], h[c], 1.e-3);
+			}
+		}
+
+		propagator.propagate(propagator.getPeriod(), position, velocity);
+		for (int c = 0; c < 3; c++) {
+			assertEquals("Position after one period doesn't match !", initialPosition[c], position[c], 1.e-3);
+			assertEquals("Velocity after one period doesn't match !", initialVelocity[c], velocity[c], 1.e-6);
+		}
+	}
+
+	/**
+	 * Checks that a hyperbolic state is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testHyperbolicOrbit() {
+		new PlanningPropagator(AbsoluteDate.J2000_EPOCH, null, new double[] { 7000.e3, 0., 0. },
+				new double[] { 0., 12000., 0. }, MU);
+	}
+
+	/**
+	 * Specific energy of a state.
+	 *
+	 * @param position Position (m)
+	 * @param velocity Velocity (m/s)
+	 * @return the specific energy (m²/s²)
+	 */
+	private static double energy(final double[] position, final double[] velocity) {
+		final double r = FastMath.sqrt(position[0] * position[0] + position[1] * position[1]
+				+ position[2] * position[2]);
+		final double v2 = velocity[0] * velocity[0] + velocity[1] * velocity[1] + velocity[2] * velocity[2];
+		return 0.5 * v2 - MU / r;
+	}
+
+	/**
+	 * Cross product of two arrays of 3 elements.
+	 *
+	 * @param u First array
+	 * @param v Second array
+	 * @return the cross product
+	 */
+	private static double[] cross(final double[] u, final double[] v) {
+		return new double[] { u[1] * v[2] - u[2] * v[1], u[2] * v[0] - u[0] * v[2], u[0] * v[1] - u[1] * v[0] };
+	}
+}
@@ -0,0 +1,151 @@
+package unittest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.Frame;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.propagation.SpacecraftState;
+import fr.cnes.sirius.patrius.propagation.analytical.KeplerianPropagator;
+import fr.cnes.sirius.patrius.propagation.events.EventDetector;
+import fr.cnes.sirius.patrius.propagation.events.EventDetector.Action;
+import fr.cnes.sirius.patrius.propagation.events.ThreeBodiesAngleDetector;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import progmission.CompleteMission;
+import progmission.ConeVisibilityDetector;
+import progmission.EarthOrientationCache;
+import progmission.SiteBatchEvaluator;
+import progmission.SiteGeometryRegistry.SiteGeometry;
+import reader.Site;
+import utils.ConstantsBE;
+
+/**
+ * Test class for the {@link SiteBatchEvaluator} class. The constraint values
+ * of a few sites are compared, over one day, to the g functions of the per-site
+ * detectors of the {@link CompleteMission} : {@link ConeVisibilityDetector} for
+ * the visibility and {@link ThreeBodiesAngleDetector} for the illumination and
+ * the dazzling.
+ *
+ * @author agent
+ *
+ */
+public class SiteBatchEvaluatorTest {
+
+	/** Number of compared sites. */
+	private static final int SITE_NUMBER = 10;
+
+	/** Duration of the compared horizon (s). */
+	private static final double HORIZON = 86400.;
+
+	/** Sampling step (s), short enough to sample every visibility window. */
+	private static final double STEP = 20.;
+
+	/**
+	 * Smallest detector value (rad) whose sign is compared : closer to the root,
+	 * the sign depends on the rounding errors and on the Earth orientation
+	 * interpolation.
+	 */
+	private static final double SIGN_TOLERANCE = 1.e-6;
+
+	/** Names of the compared constraints. */
+	private static final String[] CONSTRAINTS = { "visibility", "illumination", "dazzling" };
+
+	/**
+	 * Checks that the batch values have the sign of the g functions of the
+	 * per-site detectors at every sample, and that both cross zero between the
+	 * same samples, so that they give the same windows. The single-site methods
+	 * of the evaluator must agree with the batch values.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          computations.
+	 */
+	@Test
+	public void testSameSignsAsDetectors() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Site batch mission", SITE_NUMBER);
+		final List<Site> sites = mission.getSiteList();
+		final EarthOrientationCache earthOrientation = mission.getEarthOrientation();
+		final Frame bodyFrame = earthOrientation.getBodyFrame();
+		final SiteBatchEvaluator evaluator = new SiteBatchEvaluator(sites, mission.getSiteGeometries());
+		assertEquals("Number of sites doesn't match !", SITE_NUMBER, evaluator.size());
+
+		// Per-site detectors, built as in the PRECISE profile with the cone visibility
+		final List<EventDetector[]> detectors = new ArrayList<>();
+		for (final Site site : sites) {
+			final SiteGeometry geometry = mission.getSiteGeometries().getGeometry(site);
+			detectors.add(new EventDetector[] {
+				new ConeVisibilityDetector(earthOrientation, geometry.getPosition(), geometry.getZenith(),
+						FastMath.toRadians(ConstantsBE.POINTING_CAPACITY), CompleteMission.MAXCHECK_EVENTS,
+						CompleteMission.TRESHOLD_EVENTS, Action.CONTINUE, Action.CONTINUE),
+				new ThreeBodiesAngleDetector(mission.getEarth(), geometry.getFrame(), mission.getSun(),
+						FastMath.toRadians(180. - ConstantsBE.MAX_SUN_INCIDENCE_ANGLE),
+						CompleteMission.MAXCHECK_EVENTS, CompleteMission.TRESHOLD_EVENTS, Action.CONTINUE),
+				new ThreeBodiesAngleDetector(mission.getSatellite().getInitialOrbit(), geometry.getFrame(),
+						mission.getSun(), FastMath.toRadians(ConstantsBE.MAX_SUN_PHASE_ANGLE),
+						CompleteMission.MAXCHECK_EVENTS, CompleteMission.TRESHOLD_EVENTS, Action.CONTINUE) });
+		}
+
+		final KeplerianPropagator propagator = mission.createDefaultPropagator();
+		final double[][] batch = new double[CONSTRAINTS.length][SITE_NUMBER];
+		final double[][] previousBatch = new double[CONSTRAINTS.length][SITE_NUMBER];
+		final double[][] previousDetector = new double[CONSTRAINTS.length][SITE_NUMBER];
+		final int[] crossings = new int[CONSTRAINTS.length];
+		for (double t = 0.; t <= HORIZON; t += STEP) {
+			final AbsoluteDate date = mission.getStartDate().shiftedBy(t);
+			final SpacecraftState state = propagator.propagate(date);
+			final double[] satellite = toArray(earthOrientation.toBody(date,
+					state.getPVCoordinates(earthOrientation.getInertialFrame()).getPosition()));
+			final double[] sun = toArray(mission.getSun().getPVCoordinates(date, bodyFrame).getPosition());
+			evaluator.evaluate(satellite, sun, batch[0], batch[1], batch[2]);
+
+			for (int i = 0; i < SITE_NUMBER; i++) {
+				final String name = sites.get(i).getName();
+				assertEquals(name + " : single-site visibility doesn't match !", batch[0][i],
+						evaluator.computeVisibility(i, satellite), 0.);
+				assertEquals(name + " : visibility test doesn't match !", batch[0][i] > 0.,
+						evaluator.isVisible(i, satellite));
+				assertEquals(name + " : accessibility test doesn't match !",
+						batch[0][i] > 0. && batch[1][i] > 0. && batch[2][i] < 0.,
+						evaluator.isAccessible(i, satellite, sun));
+
+				for (int c = 0; c < CONSTRAINTS.length; c++) {
+					final double g = detectors.get(i)[c].g(state);
+					final String message = name + " : " + CONSTRAINTS[c] + " at " + t + " s";
+					if (FastMath.abs(g) >= SIGN_TOLERANCE) {
+						assertEquals(message + " : sign doesn't match !", g > 0., batch[c][i] > 0.);
+					}
+					if (t > 0. && FastMath.abs(g) >= SIGN_TOLERANCE
+							&& FastMath.abs(previousDetector[c][i]) >= SIGN_TOLERANCE) {
+						final boolean detectorCrossing = g > 0. != previousDetector[c][i] > 0.;
+						assertEquals(message + " : crossing doesn't match !", detectorCrossing,
+								batch[c][i] > 0. != previousBatch[c][i] > 0.);
+						if (detectorCrossing) {
+							crossings[c]++;
+						}
+					}
+					previousDetector[c][i] = g;
+					previousBatch[c][i] = batch[c][i];
+				}
+			}
+		}
+		for (int c = 0; c < CONSTRAINTS.length; c++) {
+			assertTrue("No " + CONSTRAINTS[c] + " crossing, nothing was compared !", crossings[c] > 0);
+		}
+	}
+
+	/**
+	 * Copies a vector into an array.
+	 *
+	 * @param vector Input vector
+	 * @return the coordinates of the vector, 3 elements
+	 */
+	private static double[] toArray(final Vector3D vector) {
+		return new double[] { vector.getX(), vector.getY(), vector.getZ() };
+	}
+}
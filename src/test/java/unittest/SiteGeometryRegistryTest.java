@@ -0,0 +1,163 @@
+package unittest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.bodies.GeodeticPoint;
+import fr.cnes.sirius.patrius.frames.Frame;
+import fr.cnes.sirius.patrius.frames.TopocentricFrame;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import fr.cnes.sirius.patrius.orbits.pvcoordinates.PVCoordinates;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import progmission.CompleteMission;
+import progmission.EarthOrientationCache;
+import progmission.SiteCoordinatesProvider;
+import progmission.SiteGeometryRegistry;
+import progmission.SiteGeometryRegistry.SiteGeometry;
+import reader.Site;
+
+/**
+ * Test class for the {@link SiteGeometryRegistry} and
+ * {@link SiteCoordinatesProvider} classes. The cached geometry of each site is
+ * compared to a {@link TopocentricFrame} built independently for the same
+ * point.
+ *
+ * @author agent
+ *
+ */
+public class SiteGeometryRegistryTest {
+
+	/** Number of mission sites compared. */
+	private static final int SITE_NUMBER = 5;
+
+	/** Number of random dates of the coordinates comparison. */
+	private static final int NB_DATES = 50;
+
+	/** Maximum position error of the cached geometry (m). */
+	private static final double POSITION_TOLERANCE = 1.e-6;
+
+	/** Maximum angle between the cached and the reference zenith (rad). */
+	private static final double ZENITH_TOLERANCE = 1.e-12;
+
+	/**
+	 * Maximum rotation error of the {@link EarthOrientationCache} (rad), see the
+	 * EarthOrientationCacheTest class.
+	 */
+	private static final double ROTATION_TOLERANCE = 1.e-12;
+
+	/** Maximum velocity error of the inertial coordinates (m/s). */
+	private static final double VELOCITY_TOLERANCE = 1.e-2;
+
+	/**
+	 * Checks the cached position, zenith and topocentric frame of a few sites, at
+	 * several latitudes and altitudes, against a {@link TopocentricFrame}, and
+	 * that the geometry of a site is built only once.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs when building
+	 *                          the mission or a transform.
+	 */
+	@Test
+	public void testGeometryMatchesTopocentricFrame() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Site geometry mission", SITE_NUMBER);
+		final SiteGeometryRegistry registry = new SiteGeometryRegistry(mission.getSiteGeometries().getEarth(),
+				mission.getEarthOrientation());
+		final Frame bodyFrame = mission.getEarthOrientation().getBodyFrame();
+		final List<Site> sites = createSites(mission);
+
+		for (final Site site : sites) {
+			final TopocentricFrame reference = new TopocentricFrame(registry.getEarth(), site.getPoint(),
+					site.getName());
+			final Vector3D expectedPosition = reference.getPVCoordinates(mission.getStartDate(), bodyFrame)
+					.getPosition();
+			final SiteGeometry geometry = registry.getGeometry(site);
+			assertSame(site.getName() + " : geometry built twice !", geometry, registry.getGeometry(site));
+			assertSame(site.getName() + " : frame doesn't match the geometry !", geometry.getFrame(),
+					registry.getFrame(site));
+			assertSame(site.getName() + " : provider doesn't match the geometry !", geometry.getProvider(),
+					registry.getProvider(site));
+
+			assertEquals(site.getName() + " : position doesn't match !", 0.,
+					geometry.getPosition().subtract(expectedPosition).getNorm(), POSITION_TOLERANCE);
+			assertEquals(site.getName() + " : zenith doesn't match !", 0.,
+					Vector3D.angle(geometry.getZenith(), reference.getZenith()), ZENITH_TOLERANCE);
+
+			// The cached frame has the same origin and axes as the reference frame
+			final TopocentricFrame frame = geometry.getFrame();
+			assertEquals(site.getName() + " : frame origin doesn't match !", 0., frame
+					.getPVCoordinates(mission.getStartDate(), bodyFrame).getPosition().subtract(expectedPosition)
+					.getNorm(), POSITION_TOLERANCE);
+			assertEquals(site.getName() + " : frame zenith doesn't match !", 0.,
+					Vector3D.angle(frame.getZenith(), reference.getZenith()), ZENITH_TOLERANCE);
+			assertEquals(site.getName() + " : frame latitude doesn't match !", site.getPoint().getLatitude(),
+					frame.getPoint().getLatitude(), 0.);
+			assertEquals(site.getName() + " : frame longitude doesn't match !", site.getPoint().getLongitude(),
+					frame.getPoint().getLongitude(), 0.);
+		}
+		assertEquals("Number of geometries doesn't match !", sites.size(), registry.size());
+	}
+
+	/**
+	 * Checks the coordinates of the {@link SiteCoordinatesProvider} of a few
+	 * sites at random dates : in the Earth body frame, they must be the constant
+	 * site position, and in EME2000 they must match the coordinates of a
+	 * {@link TopocentricFrame} within the tolerance of the
+	 * {@link EarthOrientationCache}.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs when building
+	 *                          the mission or a transform.
+	 */
+	@Test
+	public void testProviderMatchesTopocentricFrame() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Site geometry mission", SITE_NUMBER);
+		final SiteGeometryRegistry registry = mission.getSiteGeometries();
+		final EarthOrientationCache cache = mission.getEarthOrientation();
+		final double duration = mission.getEndDate().durationFrom(mission.getStartDate());
+		final Random random = new Random(42);
+
+		for (final Site site : createSites(mission)) {
+			final TopocentricFrame reference = new TopocentricFrame(registry.getEarth(), site.getPoint(),
+					site.getName());
+			final SiteCoordinatesProvider provider = registry.getProvider(site);
+			for (int k = 0; k < NB_DATES; k++) {
+				final AbsoluteDate date = mission.getStartDate().shiftedBy(random.nextDouble() * duration);
+				assertSame(site.getName() + " : native frame doesn't match !", cache.getBodyFrame(),
+						provider.getNativeFrame(date, cache.getInertialFrame()));
+				assertEquals(site.getName() + " : body position doesn't match !", 0., provider
+						.getPVCoordinates(date, cache.getBodyFrame()).getPosition()
+						.subtract(registry.getGeometry(site).getPosition()).getNorm(), 0.);
+
+				final PVCoordinates expected = reference.getPVCoordinates(date, cache.getInertialFrame());
+				final PVCoordinates actual = provider.getPVCoordinates(date, cache.getInertialFrame());
+				assertEquals(site.getName() + " : inertial position doesn't match !", 0.,
+						actual.getPosition().subtract(expected.getPosition()).getNorm(),
+						ROTATION_TOLERANCE * expected.getPosition().getNorm() + POSITION_TOLERANCE);
+				assertEquals(site.getName() + " : inertial velocity doesn't match !", 0.,
+						actual.getVelocity().subtract(expected.getVelocity()).getNorm(), VELOCITY_TOLERANCE);
+			}
+		}
+	}
+
+	/**
+	 * Creates the compared sites : the first mission sites, a site in the
+	 * southern hemisphere at altitude and a site close to the pole.
+	 *
+	 * @param mission Input mission
+	 * @return the compared sites
+	 */
+	private static List<Site> createSites(final CompleteMission mission) {
+		final List<Site> sites = new ArrayList<>(mission.getSiteList());
+		sites.add(new Site("Southern site", 1.,
+				new GeodeticPoint(FastMath.toRadians(-33.), FastMath.toRadians(-70.), 3000.)));
+		sites.add(new Site("Polar site", 1.,
+				new GeodeticPoint(FastMath.toRadians(89.5), FastMath.toRadians(135.), 0.)));
+		return sites;
+	}
+}
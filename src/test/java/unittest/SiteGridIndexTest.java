@@ -0,0 +1,126 @@
+package unittest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.bodies.GeodeticPoint;
+import fr.cnes.sirius.patrius.math.util.FastMath;
+import progmission.SiteGridIndex;
+import reader.Site;
+
+/**
+ * Test class for the {@link SiteGridIndex} class. The results of the index
+ * queries are compared to a brute-force scan of the whole site list.
+ *
+ * @author agent
+ *
+ */
+public class SiteGridIndexTest {
+
+	/**
+	 * Checks that random queries, including queries near the poles and across the
+	 * date line, return exactly the sites found by a brute-force scan.
+	 */
+	@Test
+	public void testQueriesMatchBruteForce() {
+
+		// Random sites spread over the whole globe, with a fixed seed for
+		// reproducibility
+		final Random random = new Random(42);
+		final List<Site> sites = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			sites.add(randomSite("site" + i, random));
+		}
+		// Sites on the poles and on the date line
+		sites.add(new Site("northPole", 1., new GeodeticPoint(FastMath.PI / 2., 0., 0.)));
+		sites.add(new Site("southPole", 1., new GeodeticPoint(-FastMath.PI / 2., 1., 0.)));
+		sites.add(new Site("dateLineEast", 1., new GeodeticPoint(0.1, FastMath.PI, 0.)));
+		sites.add(new Site("dateLineWest", 1., new GeodeticPoint(0.1, -FastMath.PI, 0.)));
+
+		// Odd cell size so that the last longitude column is narrower than the others
+		final SiteGridIndex index = new SiteGridIndex(sites, FastMath.toRadians(1.7));
+		assertEquals("Index size doesn't match !", sites.size(), index.size());
+
+		for (int q = 0; q < 500; q++) {
+			final double latitude = FastMath.asin(2. * random.nextDouble() - 1.);
+			final double longitude = FastMath.PI * (2. * random.nextDouble() - 1.);
+			final double radius = FastMath.toRadians(20. * random.nextDouble());
+			assertQueryMatches(index, sites, latitude, longitude, radius);
+		}
+
+		// Queries around the poles and the date line
+		assertQueryMatches(index, sites, FastMath.toRadians(88.), 0.3, FastMath.toRadians(5.));
+		assertQueryMatches(index, sites, -FastMath.toRadians(89.5), -2., FastMath.toRadians(1.));
+		assertQueryMatches(index, sites, 0.1, FastMath.PI - 0.01, FastMath.toRadians(3.));
+		assertQueryMatches(index, sites, 0.1, -FastMath.PI + 0.01, FastMath.toRadians(3.));
+
+		// A radius larger than a hemisphere must work too
+		assertQueryMatches(index, sites, 0.5, 0.5, FastMath.toRadians(120.));
+	}
+
+	/**
+	 * Checks that a non positive cell size is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCellSize() {
+		new SiteGridIndex(new ArrayList<Site>(), 0.);
+	}
+
+	/**
+	 * Asserts that the index query returns the same sites as a brute-force scan.
+	 *
+	 * @param index     Index under test
+	 * @param sites     All the indexed sites
+	 * @param latitude  Latitude of the query point (rad)
+	 * @param longitude Longitude of the query point (rad)
+	 * @param radius    Query radius (rad)
+	 */
+	private static void assertQueryMatches(final SiteGridIndex index, final List<Site> sites, final double latitude,
+			final double longitude, final double radius) {
+		final Set<Site> expected = new HashSet<>();
+		for (final Site site : sites) {
+			if (centralAngle(latitude, longitude, site.getPoint()) <= radius) {
+				expected.add(site);
+			}
+		}
+		final List<Site> found = index.getSitesWithin(latitude, longitude, radius);
+		assertEquals("A site has been visited twice !", found.size(), new HashSet<>(found).size());
+		assertTrue("The index missed or added sites !", expected.equals(new HashSet<>(found)));
+	}
+
+	/**
+	 * Computes the Earth central angle between a ground point and a site.
+	 *
+	 * @param latitude  Latitude of the ground point (rad)
+	 * @param longitude Longitude of the ground point (rad)
+	 * @param point     Site position
+	 * @return the central angle (rad)
+	 */
+	private static double centralAngle(final double latitude, final double longitude, final GeodeticPoint point) {
+		final double cosAngle = FastMath.sin(latitude) * FastMath.sin(point.getLatitude())
+				+ FastMath.cos(latitude) * FastMath.cos(point.getLatitude())
+						* FastMath.cos(longitude - point.getLongitude());
+		return FastMath.acos(FastMath.max(-1., FastMath.min(1., cosAngle)));
+	}
+
+	/**
+	 * Builds a site uniformly distributed on the sphere.
+	 *
+	 * @param name   Name of the site
+	 * @param random Random generator
+	 * @return the site
+	 */
+	private static Site randomSite(final String name, final Random random) {
+		final double latitude = FastMath.asin(2. * random.nextDouble() - 1.);
+		final double longitude = FastMath.PI * (2. * random.nextDouble() - 1.);
+		return new Site(name, random.nextDouble(), new GeodeticPoint(latitude, longitude, 0.));
+	}
+}
@@ -0,0 +1,85 @@
+package unittest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import progmission.CompleteMission;
+import progmission.ConflictGraphBuilder;
+import progmission.ObservationCandidate;
+import progmission.Satellite;
+import progmission.SlewDurationCache;
+
+/**
+ * Test class for the {@link SlewDurationCache} class. The cached slew durations
+ * are compared to the durations computed by the {@link Satellite} from the
+ * attitudes of the candidates, with its rotation distance between two
+ * attitudes.
+ *
+ * @author agent
+ *
+ */
+public class SlewDurationCacheTest {
+
+	/** Number of compared candidates, every ordered pair of them is compared. */
+	private static final int NB_CANDIDATES = 40;
+
+	/**
+	 * Tolerance on the slew durations (s) : the cache computes the slew angle
+	 * from the quaternion dot product instead of the rotation distance.
+	 */
+	private static final double TOLERANCE = 1.e-3;
+
+	/**
+	 * Checks the slew durations and the feasibility of every ordered pair of
+	 * candidates against the satellite, then checks that the second requests
+	 * are answered by the table.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs during the
+	 *                          computations.
+	 */
+	@Test
+	public void testSameDurationsAsSatellite() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Slew duration mission", 20);
+		mission.computeAccessPlan();
+		final Satellite satellite = mission.getSatellite();
+		final SlewDurationCache cache = new SlewDurationCache(satellite);
+		final List<ObservationCandidate> candidates = new ConflictGraphBuilder(mission, cache)
+				.createCandidates(mission.getAccessWindows());
+		final int nbCandidates = Math.min(NB_CANDIDATES, candidates.size());
+		assertTrue("Less than two candidates, nothing was compared !", nbCandidates >= 2);
+
+		for (int i = 0; i < nbCandidates; i++) {
+			final ObservationCandidate first = candidates.get(i);
+			for (int j = 0; j < nbCandidates; j++) {
+				final ObservationCandidate second = candidates.get(j);
+				final double expected = satellite.computeSlewDuration(first.getEndAttitude(),
+						second.getStartAttitude());
+				assertEquals("Slew duration " + i + " -> " + j + " doesn't match !", expected,
+						cache.getSlewDuration(first, second), TOLERANCE);
+
+				final double available = second.getStart().durationFrom(first.getEnd());
+				if (Math.abs(available - expected) > TOLERANCE) {
+					assertEquals("Slew feasibility " + i + " -> " + j + " doesn't match !",
+							available >= 0. && available >= expected, cache.isSlewFeasible(first, second));
+				}
+			}
+		}
+		assertEquals("Number of candidates doesn't match !", nbCandidates, cache.getNbCandidates());
+		assertEquals("Number of durations doesn't match !", nbCandidates * nbCandidates, cache.getNbDurations());
+
+		// Second requests : no new duration
+		final long hits = cache.getHits();
+		for (int i = 0; i < nbCandidates; i++) {
+			for (int j = 0; j < nbCandidates; j++) {
+				cache.getSlewDuration(candidates.get(i), candidates.get(j));
+			}
+		}
+		assertEquals("Number of durations doesn't match !", nbCandidates * nbCandidates, cache.getNbDurations());
+		assertEquals("Number of hits doesn't match !", hits + nbCandidates * nbCandidates, cache.getHits());
+	}
+}
@@ -0,0 +1,104 @@
+package unittest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import fr.cnes.sirius.patrius.frames.Frame;
+import fr.cnes.sirius.patrius.math.geometry.euclidean.threed.Vector3D;
+import fr.cnes.sirius.patrius.orbits.pvcoordinates.PVCoordinates;
+import fr.cnes.sirius.patrius.time.AbsoluteDate;
+import fr.cnes.sirius.patrius.utils.exception.PatriusException;
+import progmission.CompleteMission;
+import progmission.SunEphemerisTable;
+
+/**
+ * Test class for the {@link SunEphemerisTable} class. The interpolated Sun
+ * coordinates are compared to the Patrius Sun ephemeris, at random dates of
+ * the mission horizon.
+ *
+ * @author agent
+ *
+ */
+public class SunEphemerisTableTest {
+
+	/** Number of random dates. */
+	private static final int NB_DATES = 500;
+
+	/** Maximum position error of the interpolated Sun (m). */
+	private static final double POSITION_TOLERANCE = 1.;
+
+	/** Maximum direction error of the interpolated Sun seen from the Earth (rad). */
+	private static final double ANGLE_TOLERANCE = 1.e-11;
+
+	/** Maximum velocity error of the interpolated Sun (m/s). */
+	private static final double VELOCITY_TOLERANCE = 1.e-3;
+
+	/**
+	 * Checks the interpolated Sun coordinates against the Patrius ephemeris, at
+	 * the nodes, in the middle of the steps and at random dates.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs when building
+	 *                          the mission or computing the ephemeris.
+	 */
+	@Test
+	public void testInterpolationAccuracy() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Sun ephemeris mission", 1);
+		final SunEphemerisTable table = mission.getSunEphemeris();
+		final Frame frame = mission.getEme2000();
+		final double duration = mission.getEndDate().durationFrom(mission.getStartDate());
+		final Random random = new Random(42);
+
+		double maxAngle = 0.;
+		for (int k = 0; k < NB_DATES; k++) {
+			// Nodes, middles of the steps, then random dates
+			final double offset;
+			if (k < NB_DATES / 4) {
+				offset = Math.min(k * table.getStep(), duration);
+			} else if (k < NB_DATES / 2) {
+				offset = Math.min((k - NB_DATES / 4 + 0.5) * table.getStep(), duration);
+			} else {
+				offset = random.nextDouble() * duration;
+			}
+			final AbsoluteDate date = mission.getStartDate().shiftedBy(offset);
+			final PVCoordinates expected = mission.getSun().getPVCoordinates(date, frame);
+			final PVCoordinates actual = table.getPVCoordinates(date, frame);
+			assertEquals("Sun position doesn't match !", 0.,
+					actual.getPosition().subtract(expected.getPosition()).getNorm(), POSITION_TOLERANCE);
+			assertEquals("Sun velocity doesn't match !", 0.,
+					actual.getVelocity().subtract(expected.getVelocity()).getNorm(), VELOCITY_TOLERANCE);
+			maxAngle = Math.max(maxAngle, Vector3D.angle(expected.getPosition(), actual.getPosition()));
+		}
+		assertTrue("Sun direction error " + maxAngle + " rad too large !", maxAngle < ANGLE_TOLERANCE);
+	}
+
+	/**
+	 * Checks that the dates outside of the table are computed by the Patrius
+	 * ephemeris.
+	 *
+	 * @throws PatriusException If a {@link PatriusException} occurs when building
+	 *                          the mission or computing the ephemeris.
+	 */
+	@Test
+	public void testOutsideTable() throws PatriusException {
+		final CompleteMission mission = new CompleteMission("Sun ephemeris mission", 1);
+		final AbsoluteDate date = mission.getEndDate().shiftedBy(86400.);
+		final Vector3D expected = mission.getSun().getPVCoordinates(date, mission.getEme2000()).getPosition();
+		final Vector3D actual = mission.getSunEphemeris().getPVCoordinates(date, mission.getEme2000())
+				.getPosition();
+		assertEquals("Fallback Sun position doesn't match !", 0., actual.subtract(expected).getNorm(), 0.);
+	}
+
+	/**
+	 * Checks that a table with a null step is rejected.
+	 *
+	 * @throws PatriusException never, the step is checked first.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullStep() throws PatriusException {
+		new SunEphemerisTable(null, null, null, 0.);
+	}
+}
@@ -0,0 +1,41 @@
+package unittest;
+
+import static org.junit.Assert.assertEquals;
+
+import utils.IntervalSet;
+
+/**
+ * Assertions shared by the tests comparing the access windows computed by two
+ * different methods.
+ *
+ * @author agent
+ *
+ */
+final class WindowAssertions {
+
+	/**
+	 * Private constructor : static assertions only.
+	 */
+	private WindowAssertions() {
+	}
+
+	/**
+	 * Asserts that two sets of windows have the same number of windows, and that
+	 * the bounds of each window match within a tolerance.
+	 *
+	 * @param message   Context of the comparison, for instance the site name
+	 * @param expected  Reference windows
+	 * @param actual    Compared windows
+	 * @param tolerance Tolerance on each bound (s)
+	 */
+	static void assertSameWindows(final String message, final IntervalSet expected, final IntervalSet actual,
+			final double tolerance) {
+		assertEquals(message + " : number of windows doesn't match !", expected.size(), actual.size());
+		for (int j = 0; j < expected.size(); j++) {
+			assertEquals(message + " : start of window " + j + " doesn't match !", expected.getLower(j),
+					actual.getLower(j), tolerance);
+			assertEquals(message + " : end of window " + j + " doesn't match !", expected.getUpper(j),
+					actual.getUpper(j), tolerance);
+		}
+	}
+}